@@ -0,0 +1,63 @@
+package com.xander.lab.common;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+/**
+ * 条件 GET 辅助方法
+ * 控制器先用廉价的版本信息算出校验器，命中 If-None-Match / If-Modified-Since 时直接返回 304，
+ * 不再执行正文查询；未命中时 ETag 和 Last-Modified 已写入响应头。
+ * 304 不经过响应体处理，Cache-Control 在校验前写入，保证 304 与 200 携带相同的缓存策略。
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Cache-Control 取自当前处理方法上的 {@link PublicCache}，没有注解时不写
+     *
+     * @param tag          ETag 内容（不含引号），需覆盖所有影响响应体的输入
+     * @param lastModified 最后修改时间（毫秒），用于 If-Modified-Since
+     * @return true 表示已响应 304，控制器应直接返回 null
+     */
+    public static boolean notModified(WebRequest request, String tag, long lastModified) {
+        PublicCache policy = handlerPolicy(request);
+        return notModified(request, tag, lastModified, policy == null ? null : cacheControl(policy));
+    }
+
+    /**
+     * 用于直接返回 ResponseEntity 的接口，cacheControl 应与 200 响应使用的一致
+     *
+     * @param cacheControl 304 和 200 共用的 Cache-Control，null 表示不写
+     * @return true 表示已响应 304，控制器应直接返回 null
+     */
+    public static boolean notModified(WebRequest request, String tag, long lastModified, CacheControl cacheControl) {
+        if (cacheControl != null && request instanceof ServletWebRequest servletRequest
+                && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return request.checkNotModified("\"" + tag + "\"", lastModified);
+    }
+
+    /** {@link PublicCache} 对应的 Cache-Control */
+    public static CacheControl cacheControl(PublicCache policy) {
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(policy.maxAge())).cachePublic();
+        if (policy.staleWhileRevalidate() > 0) {
+            cacheControl = cacheControl.staleWhileRevalidate(Duration.ofSeconds(policy.staleWhileRevalidate()));
+        }
+        return cacheControl;
+    }
+
+    private static PublicCache handlerPolicy(WebRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return handler instanceof HandlerMethod method ? method.getMethodAnnotation(PublicCache.class) : null;
+    }
+}
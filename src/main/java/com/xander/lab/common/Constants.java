@@ -29,6 +29,12 @@ public interface Constants {
     /** Redis 阅读去重前缀: blog:view:{postId}:{identifier} */
     String REDIS_VIEW_PREFIX = "blog:view:";
 
+    /** Redis 阅读去重布隆过滤器前缀: blog:view:bf:{postId}:{yyyyMMdd} */
+    String REDIS_VIEW_BLOOM_PREFIX = "blog:view:bf:";
+
+    /** Redis 独立访客 HyperLogLog 前缀: blog:view:uv:{postId}:{yyyyMMdd} */
+    String REDIS_VIEW_VISITORS_PREFIX = "blog:view:uv:";
+
     /** 阅读去重冷却时间（小时） */
     long VIEW_DEDUP_HOURS = 24;
 }
@@ -0,0 +1,23 @@
+package com.xander.lab.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记可被浏览器和反向代理缓存的公开 GET 接口
+ * 由 ResultStatusResponseBodyAdvice 在成功响应上写入 Cache-Control，失败响应一律 no-store
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PublicCache {
+
+    /** max-age，单位秒 */
+    int maxAge();
+
+    /** stale-while-revalidate，单位秒，0 表示不输出 */
+    int staleWhileRevalidate() default 0;
+}
@@ -29,6 +29,7 @@ public class AuthInterceptor implements HandlerInterceptor {
     /** 需要登录的写操作路径 */
     private static final List<String> PROTECTED_WRITE_PATTERNS = List.of(
             "POST:/api/blog/posts",
+            "POST:/api/blog/posts/import",
             "GET:/api/blog/posts/publish-status",
             "POST:/api/blog/media/images",
             "GET:/api/blog/media/images",
@@ -42,7 +43,8 @@ public class AuthInterceptor implements HandlerInterceptor {
             "DELETE:/api/email-reminders/*",
             "POST:/api/component/items",
             "POST:/api/studio/upload",
-            "POST:/api/studio/save"
+            "POST:/api/studio/save",
+            "GET:/api/export/*"
     );
 
     /** 公开的读操作路径（支持通配符） */
@@ -53,6 +55,11 @@ public class AuthInterceptor implements HandlerInterceptor {
             "GET:/api/blog/tags",
             "GET:/api/blog/tags/popular",
             "GET:/api/blog/posts/recent",
+            "GET:/api/blog/search",
+            "GET:/api/blog/rss.xml",
+            "GET:/api/blog/atom.xml",
+            "GET:/api/blog/sitemap.xml",
+            "GET:/api/blog/views/trend",
             "GET:/api/component/items",
             "GET:/api/component/items/*",
             "GET:/api/component/categories",
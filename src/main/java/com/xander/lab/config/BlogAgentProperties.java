@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "blog.agent")
@@ -13,8 +15,34 @@ public class BlogAgentProperties {
     private String apiKey;
     private String model;
     private boolean webSearchEnabled = true;
+    /** Agent runs executing at once on this node; each holds a worker thread blocked on model I/O. */
+    private int maxConcurrentRuns = 8;
+    /** Runs one user may execute at once, and also how many more that user may have waiting. */
+    private int maxRunsPerUser = 1;
+    /** Runs waiting for a free slot; further runs are rejected with 429. */
+    private int maxQueuedRuns = 32;
+    /** How long POST /run holds its request thread for the result before answering with the task as it stands. */
+    private Duration runWait = Duration.ofSeconds(60);
+    /** Execution lease of a running task; renewed while the node lives, expired leases mark orphaned runs. */
+    private Duration runLease = Duration.ofMinutes(2);
+    /** Lease renewal period; renewal runs on its own thread so slow scheduled jobs cannot delay it. */
+    private long leaseRenewIntervalMs = 30000;
+    /** Automatic resumes of an orphaned run before the sweeper marks it failed instead. */
+    private int maxResumes = 2;
+    /** Connect timeout shared by all agent HTTP calls. */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    /** Wait for a non-streaming model response (web search can take minutes). */
+    private Duration modelTimeout = Duration.ofMinutes(5);
+    /** Wait for a streaming model response to start; the stream itself is not time-limited. */
+    private Duration streamTimeout = Duration.ofMinutes(2);
+    /** Wait for an image generation or image download response. */
+    private Duration imageTimeout = Duration.ofMinutes(3);
     /** Optional OpenAI-compatible image generation model. Blank disables illustrations. */
     private String imageModel;
     private String imageSize = "1536x1024";
     private int maxIllustrations = 3;
+    /** Images generated in parallel across all agent tasks on this node. */
+    private int illustrationConcurrency = 3;
+    /** Per-image budget for generation and upload, counted from when the image starts on the pool; slower images are dropped. */
+    private Duration illustrationTimeout = Duration.ofMinutes(3);
 }
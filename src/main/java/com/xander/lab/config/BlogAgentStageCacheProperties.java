@@ -0,0 +1,19 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.agent.stage-cache")
+public class BlogAgentStageCacheProperties {
+    /** Disabling the cache sends every analyze/research call to the model. */
+    private boolean enabled = true;
+    /** How long a stage result is reused; bounds how stale web-search research can get. */
+    private Duration ttl = Duration.ofHours(12);
+    /** Entries kept in each node's local cache; Redis holds the shared copy for the same TTL. */
+    private long maxSize = 1_000;
+}
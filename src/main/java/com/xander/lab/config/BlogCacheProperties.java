@@ -0,0 +1,20 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.cache")
+public class BlogCacheProperties {
+    /** Disabling the cache sends every public read straight to MySQL. */
+    private boolean enabled = true;
+    /** Per-node L1 lifetime. Keep it short: it is the staleness bound if a pub/sub message is lost. */
+    private Duration localTtl = Duration.ofSeconds(60);
+    private long localMaxSize = 2_000;
+    /** Shared Redis L2 lifetime. */
+    private Duration remoteTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,19 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.feed")
+public class BlogFeedProperties {
+    /** Public frontend origin used for every link in RSS, Atom and the sitemap. */
+    private String siteUrl = "http://localhost:5173";
+    /** Frontend route of a post, relative to siteUrl; the post id is appended. */
+    private String postPath = "/blog/";
+    private String title = "Xander Lab";
+    private String description = "Xander Lab 技术博客";
+    /** Number of newest posts in RSS and Atom. */
+    private int entries = 20;
+}
@@ -0,0 +1,26 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.snapshot")
+public class BlogSnapshotProperties {
+    /** Disabling stops snapshot generation and sends every public read to the controllers. */
+    private boolean enabled = true;
+    /** Local directory holding the .json / .json.gz files; also the Nginx root if Nginx serves them. */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "xander-lab", "blog-snapshots");
+    /** Leading pages of the unfiltered post list that get snapshots. */
+    private int listPages = 3;
+    /** Page size of the list snapshots; must match the frontend's default request. */
+    private int pageSize = 10;
+    /** Limit of the recent-posts snapshot. */
+    private int recentLimit = 5;
+    /** Cache-Control max-age sent with snapshot responses. */
+    private Duration maxAge = Duration.ofSeconds(60);
+}
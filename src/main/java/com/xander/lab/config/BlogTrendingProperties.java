@@ -0,0 +1,17 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.trending")
+public class BlogTrendingProperties {
+    /** A view's weight halves every this many hours. */
+    private double halfLifeHours = 24;
+    /** Members kept in the sorted set after each rebase (lowest scores are trimmed). */
+    private int maxSize = 1000;
+    /** Members whose decayed score falls below this at rebase are removed. */
+    private double minScore = 0.01;
+}
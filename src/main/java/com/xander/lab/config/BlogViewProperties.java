@@ -0,0 +1,51 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.view")
+public class BlogViewProperties {
+    /** Maximum number of posts updated by a single batched UPDATE when flushing view counts. */
+    private int flushBatchSize = 500;
+    /** View events buffered for the blog_post_view writer; events beyond this are dropped and counted. */
+    private int queueCapacity = 10000;
+    /** Maximum rows per multi-row INSERT into blog_post_view. */
+    private int insertBatchSize = 200;
+    /** How long the writer waits for a batch to fill before inserting what it has. */
+    private long insertLingerMs = 200;
+    /** How repeat views are detected; see BlogViewDeduplicator for the memory trade-off. */
+    private DedupMode dedupMode = DedupMode.BLOOM;
+    /** Bloom mode: distinct visitors per post per day the first filter slice holds; later slices double it. */
+    private int bloomExpectedVisitors = 2000;
+    /** Bloom mode: bound on the summed false-positive rate of all slices (a false positive drops one view). */
+    private double bloomFalsePositiveRate = 0.01;
+    /** Bloom mode: slices a post's daily filter may grow to; the default holds about 2M visitors at n=2000. */
+    private int bloomMaxSlices = 10;
+    /** Days of per-post daily HyperLogLogs kept for unique-visitor counts. */
+    private int uniqueVisitorRetentionDays = 14;
+    /** blog_post_view ids rolled up into the hourly/daily tables per transaction. */
+    private int rollupChunkSize = 50000;
+    /**
+     * Rollups stop at the MAX(id) seen this long ago. Auto-increment ids can commit out of order;
+     * an insert still uncommitted after this lag would be skipped by the watermark and later purged.
+     */
+    private long rollupSettleMs = 120000;
+    /** Raw blog_post_view rows older than this are deleted once rolled up. */
+    private int rawRetentionDays = 90;
+    /** Hourly rollups older than this are deleted; daily rollups are kept. */
+    private int hourlyRetentionDays = 30;
+    /** Rows deleted per DELETE ... LIMIT statement. */
+    private int purgeChunkSize = 5000;
+    /** Upper bound on rollup and purge chunks per scheduled run. */
+    private int maxChunksPerRun = 20;
+
+    public enum DedupMode {
+        /** One 24h key per visitor per post (exact). */
+        KEY,
+        /** One Bloom filter per post per day on a Redis bitmap (bounded memory). */
+        BLOOM
+    }
+}
@@ -0,0 +1,17 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+    /** Exports streaming at once on this node; each one holds a pooled connection until it finishes. Extra requests get 429. */
+    private int maxConcurrent = 2;
+    /** Upper bound on one export: the transaction timeout and the server-side MAX_EXECUTION_TIME of its streaming SELECT. */
+    private Duration timeout = Duration.ofMinutes(10);
+}
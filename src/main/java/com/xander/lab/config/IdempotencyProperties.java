@@ -0,0 +1,20 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+    /** Lease of the in-progress marker. Must exceed the slowest guarded operation, or a duplicate may start. */
+    private Duration pendingTtl = Duration.ofSeconds(60);
+    /** How long a completed request's result id is remembered. */
+    private Duration resultTtl = Duration.ofHours(24);
+    /** How long a duplicate waits for the first request before giving up with 409. */
+    private Duration waitTimeout = Duration.ofSeconds(15);
+    private Duration pollInterval = Duration.ofMillis(100);
+}
@@ -1,7 +1,11 @@
 package com.xander.lab.config;
 
+import com.xander.lab.common.ConditionalRequests;
+import com.xander.lab.common.PublicCache;
 import com.xander.lab.common.Result;
 import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
@@ -11,7 +15,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
 /**
- * Keeps the HTTP response status aligned with Xander Lab's shared Result body.
+ * Keeps the HTTP response status aligned with Xander Lab's shared Result body,
+ * and applies per-endpoint HTTP cache headers without touching the envelope.
  */
 @RestControllerAdvice
 public class ResultStatusResponseBodyAdvice implements ResponseBodyAdvice<Object> {
@@ -31,10 +36,31 @@ public class ResultStatusResponseBodyAdvice implements ResponseBodyAdvice<Object
                                   ServerHttpResponse response) {
         if (body instanceof Result<?> result) {
             response.setStatusCode(resolveStatus(result.getCode()));
+            applyCachePolicy(result, returnType, response);
         }
         return body;
     }
 
+    /**
+     * Successful responses of {@link PublicCache} endpoints get their Cache-Control.
+     * Error envelopes must never be cached or revalidated against a success validator. That holds
+     * for any handler: errors raised after a conditional check reach the client through
+     * GlobalExceptionHandler, whose methods carry no annotation.
+     */
+    private void applyCachePolicy(Result<?> result, MethodParameter returnType, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        if (result.getCode() != HttpStatus.OK.value()) {
+            headers.remove(HttpHeaders.ETAG);
+            headers.remove(HttpHeaders.LAST_MODIFIED);
+            headers.setCacheControl(CacheControl.noStore());
+            return;
+        }
+        PublicCache policy = returnType.getMethodAnnotation(PublicCache.class);
+        if (policy != null) {
+            headers.setCacheControl(ConditionalRequests.cacheControl(policy));
+        }
+    }
+
     private HttpStatus resolveStatus(int code) {
         HttpStatus direct = HttpStatus.resolve(code);
         if (direct != null) {
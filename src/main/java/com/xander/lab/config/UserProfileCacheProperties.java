@@ -0,0 +1,18 @@
+package com.xander.lab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "user.profile-cache")
+public class UserProfileCacheProperties {
+    /** Disabling the cache sends every profile lookup straight to MySQL. */
+    private boolean enabled = true;
+    /** Staleness bound for changes made outside the application (or a lost invalidation message). */
+    private Duration ttl = Duration.ofSeconds(60);
+    private long maxSize = 10_000;
+}
@@ -2,34 +2,43 @@ package com.xander.lab.controller;
 
 import com.xander.lab.common.Result;
 import com.xander.lab.common.UserContext;
+import com.xander.lab.config.BlogAgentProperties;
 import com.xander.lab.dto.agent.BlogAgentTaskCreateRequest;
 import com.xander.lab.dto.agent.BlogAgentTaskVO;
 import com.xander.lab.dto.agent.BlogAgentMessageRequest;
 import com.xander.lab.dto.agent.BlogAgentSessionVO;
 import com.xander.lab.dto.BlogPostVO;
 import com.xander.lab.entity.BlogAgentTask;
+import com.xander.lab.service.BlogAgentRunQueue;
 import com.xander.lab.service.BlogAgentService;
 import jakarta.validation.Valid;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/blog-agent/tasks")
 public class BlogAgentController {
     private final BlogAgentService service;
-    private final TaskExecutor blogAgentTaskExecutor;
+    private final BlogAgentRunQueue runQueue;
+    private final BlogAgentProperties properties;
 
-    public BlogAgentController(BlogAgentService service,
-                               @Qualifier("blogAgentTaskExecutor") TaskExecutor blogAgentTaskExecutor) {
+    public BlogAgentController(BlogAgentService service, BlogAgentRunQueue runQueue, BlogAgentProperties properties) {
         this.service = service;
-        this.blogAgentTaskExecutor = blogAgentTaskExecutor;
+        this.runQueue = runQueue;
+        this.properties = properties;
     }
 
     @PostMapping
@@ -47,9 +56,28 @@ public class BlogAgentController {
         return Result.success(service.listSessions(UserContext.getUserId()));
     }
 
+    /**
+     * Waits at most run-wait for the run. On timeout the future is cancelled: a run still queued
+     * is dropped, a started run keeps going under its lease. Either way the task is returned as it
+     * stands, and the client follows it with GET /{id}.
+     */
     @PostMapping("/{id}/run")
     public Result<BlogAgentTaskVO> run(@PathVariable Long id) {
-        return Result.success(service.run(id, UserContext.getUserId()));
+        Long userId = UserContext.getUserId();
+        CompletableFuture<BlogAgentTaskVO> future = runQueue.submit(userId, position -> { }, () -> service.run(id, userId));
+        try {
+            return Result.success(future.get(properties.getRunWait().toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            return Result.success(service.get(id, userId));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for agent run " + id, e);
+        }
     }
 
     @PostMapping("/{id}/publish")
@@ -58,42 +86,50 @@ public class BlogAgentController {
     }
 
     @PostMapping(value = "/{id}/run/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter runStream(@PathVariable Long id) {
+    public ResponseEntity<SseEmitter> runStream(@PathVariable Long id) {
         Long userId = UserContext.getUserId();
-        SseEmitter emitter = new SseEmitter(0L);
-        CompletableFuture.runAsync(() -> {
-            try {
-                BlogAgentTaskVO task = service.runStream(id, userId,
-                        (event, data) -> send(emitter, event, data));
-                emitter.send(SseEmitter.event().name("complete").data(task));
-                emitter.complete();
-            } catch (Exception e) {
-                send(emitter, "error", e.getMessage());
-                // The error has been delivered as an SSE event. Completing
-                // normally keeps Axios from replacing it with a generic error.
-                emitter.complete();
-            }
-        }, blogAgentTaskExecutor);
-        return emitter;
+        return stream(userId, emitter -> service.runStream(id, userId,
+                (event, data) -> send(emitter, event, data)));
     }
 
     @PostMapping(value = "/{id}/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter reviseStream(@PathVariable Long id,
-                                   @Valid @RequestBody BlogAgentMessageRequest request) {
+    public ResponseEntity<SseEmitter> reviseStream(@PathVariable Long id,
+                                                   @Valid @RequestBody BlogAgentMessageRequest request) {
         Long userId = UserContext.getUserId();
+        return stream(userId, emitter -> service.reviseStream(id, userId, request.getContent(),
+                (event, data) -> send(emitter, event, data)));
+    }
+
+    /**
+     * Runs an agent stream once admitted. While waiting the client receives "queued" events with
+     * its position; a saturated queue answers 429 with the reason as an "error" event.
+     */
+    private ResponseEntity<SseEmitter> stream(Long userId, Function<SseEmitter, BlogAgentTaskVO> run) {
         SseEmitter emitter = new SseEmitter(0L);
-        CompletableFuture.runAsync(() -> {
-            try {
-                BlogAgentTaskVO task = service.reviseStream(id, userId, request.getContent(),
-                        (event, data) -> send(emitter, event, data));
+        CompletableFuture<BlogAgentTaskVO> future;
+        try {
+            future = runQueue.submit(userId, position -> send(emitter, "queued", position), () -> run.apply(emitter));
+        } catch (ResponseStatusException e) {
+            send(emitter, "error", e.getReason());
+            emitter.complete();
+            return ResponseEntity.status(e.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "30").body(emitter);
+        }
+        // A client that leaves while still queued gives up its place.
+        emitter.onCompletion(() -> future.cancel(false));
+        emitter.onError(error -> future.cancel(false));
+        future.whenComplete((task, error) -> {
+            if (future.isCancelled()) return;
+            if (error == null) {
                 send(emitter, "complete", task);
-                emitter.complete();
-            } catch (Exception e) {
-                send(emitter, "error", e.getMessage());
-                emitter.complete();
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                send(emitter, "error", cause.getMessage());
             }
-        }, blogAgentTaskExecutor);
-        return emitter;
+            // The error has been delivered as an SSE event. Completing
+            // normally keeps Axios from replacing it with a generic error.
+            emitter.complete();
+        });
+        return ResponseEntity.ok(emitter);
     }
 
     private void send(SseEmitter emitter, String event, Object data) {
@@ -1,12 +1,30 @@
 package com.xander.lab.controller;
 
+import com.xander.lab.common.ConditionalRequests;
+import com.xander.lab.common.PublicCache;
 import com.xander.lab.common.Result;
 import com.xander.lab.common.UserContext;
 import com.xander.lab.dto.*;
+import com.xander.lab.service.BlogImportService;
+import com.xander.lab.service.BlogSearchService;
 import com.xander.lab.service.BlogService;
+import com.xander.lab.service.BlogViewAnalyticsService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 /**
@@ -15,14 +33,25 @@ import java.util.List;
  * <pre>
  * 接口列表：
  *   GET  /api/blog/posts              获取文章列表（支持 search/category/tag 筛选，支持分页）
+ *   GET  /api/blog/posts/cursor       游标分页获取文章列表（不统计总数，适合无限滚动）
  *   POST /api/blog/posts              发布文章
+ *   POST /api/blog/posts/import       批量导入文章（NDJSON 流，逐行报告错误）
  *   GET  /api/blog/posts/recent       获取最新文章（前N条）
- *   GET  /api/blog/posts/{id}         获取文章详情
+ *   GET  /api/blog/posts/trending     热门文章（时间衰减的阅读热度，前N条）
+ *   GET  /api/blog/search             全文检索（相关度排序，含高亮片段）
+ *   GET  /api/blog/posts/{id}         获取文章详情（?format=html 返回预渲染 HTML）
+ *   GET  /api/blog/posts/{id}/content 流式输出文章正文（text/markdown，不经过 Result 包装）
  *   POST /api/blog/posts/{id}/view    记录文章阅读（含防刷）
+ *   GET  /api/blog/posts/{id}/visitors 文章独立访客数（HyperLogLog 估算）
+ *   GET  /api/blog/posts/{id}/views/trend 文章阅读趋势（小时/日汇总）
+ *   GET  /api/blog/views/trend        全站阅读趋势（小时/日汇总）
  *   GET  /api/blog/categories         获取所有分类（含文章数量）
  *   GET  /api/blog/tags               获取所有标签（含文章数量）
  *   GET  /api/blog/tags/popular       获取热门标签（前N个）
  * </pre>
+ *
+ * 公开 GET 接口支持条件请求：校验器来自廉价的版本信息（列表版本号 / 文章 updated_at），
+ * 命中时在执行正文查询前直接返回 304。
  */
 @RestController
 @RequestMapping("/api/blog")
@@ -30,6 +59,16 @@ import java.util.List;
 public class BlogController {
 
     private final BlogService blogService;
+    private final BlogImportService blogImportService;
+    private final BlogSearchService blogSearchService;
+    private final BlogViewAnalyticsService viewAnalyticsService;
+
+    private static final MediaType MARKDOWN = MediaType.parseMediaType("text/markdown;charset=UTF-8");
+    private static final CacheControl CONTENT_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic()
+            .staleWhileRevalidate(Duration.ofSeconds(300));
+
+    /** 阅读数不会改变内容版本，校验器按此窗口滚动，避免客户端一直复用旧的阅读数 */
+    private static final long VIEWS_WINDOW_MS = 5 * 60 * 1000L;
 
     /**
      * 发布文章
@@ -40,6 +79,15 @@ public class BlogController {
         return Result.success(blogService.createBlog(dto, true, requestId));
     }
 
+    /**
+     * 批量导入文章
+     * 请求体为 NDJSON（每行一个 BlogPostImportDTO），边读边写，不整体载入内存
+     */
+    @PostMapping(value = "/posts/import", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    public Result<BlogImportReportVO> importPosts(HttpServletRequest request) throws IOException {
+        return Result.success(blogImportService.importNdjson(request.getInputStream()));
+    }
+
     @GetMapping("/posts/publish-status")
     public Result<PublishStatus> getPublishStatus(@RequestParam String requestId) {
         Long postId = blogService.getPublishedPostId(requestId);
@@ -56,40 +104,141 @@ public class BlogController {
      * @param size     页大小，默认10
      */
     @GetMapping("/posts")
+    @PublicCache(maxAge = 30, staleWhileRevalidate = 60)
     public Result<PageData<BlogPostVO>> getPosts(
             @RequestParam(required = false, defaultValue = "") String search,
             @RequestParam(required = false, defaultValue = "") String category,
             @RequestParam(required = false, defaultValue = "") String tag,
             @RequestParam(required = false, defaultValue = "1") int page,
-            @RequestParam(required = false, defaultValue = "10") int size) {
+            @RequestParam(required = false, defaultValue = "10") int size,
+            WebRequest request) {
+        if (listNotModified(request)) return null;
         return Result.success(blogService.getBlogs(search, category, tag, page, size));
     }
 
+    /**
+     * 游标分页获取文章列表
+     * 首次请求不传 cursor，之后传上一页返回的 nextCursor；默认不统计总数
+     *
+     * @param search    关键词（可选）
+     * @param category  分类ID（可选）
+     * @param tag       标签名称（可选）
+     * @param cursor    上一页返回的游标（可选）
+     * @param size      页大小，默认10，最大100
+     * @param withTotal 是否返回总数，默认 false
+     */
+    @GetMapping("/posts/cursor")
+    @PublicCache(maxAge = 30, staleWhileRevalidate = 60)
+    public Result<CursorPageData<BlogPostVO>> getPostsByCursor(
+            @RequestParam(required = false, defaultValue = "") String search,
+            @RequestParam(required = false, defaultValue = "") String category,
+            @RequestParam(required = false, defaultValue = "") String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean withTotal,
+            WebRequest request) {
+        if (listNotModified(request)) return null;
+        return Result.success(blogService.getBlogsByCursor(search, category, tag, cursor, size, withTotal));
+    }
+
+    /**
+     * 全文检索文章
+     * 基于进程内倒排索引，按相关度排序并返回高亮片段
+     *
+     * @param q     查询词
+     * @param limit 条数，默认10，最大50
+     */
+    @GetMapping("/search")
+    @PublicCache(maxAge = 60)
+    public Result<BlogSearchResultVO> search(
+            @RequestParam String q,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            WebRequest request) {
+        if (listNotModified(request)) return null;
+        return Result.success(blogSearchService.search(q, limit));
+    }
+
     /**
      * 获取最新文章
      *
      * @param limit 条数，默认5
      */
     @GetMapping("/posts/recent")
+    @PublicCache(maxAge = 60, staleWhileRevalidate = 120)
     public Result<List<BlogPostVO>> getRecentPosts(
-            @RequestParam(required = false, defaultValue = "5") int limit) {
+            @RequestParam(required = false, defaultValue = "5") int limit,
+            WebRequest request) {
+        if (listNotModified(request)) return null;
         return Result.success(blogService.getRecentBlogs(limit));
     }
 
+    /**
+     * 获取热门文章
+     * 排行随阅读实时变化，不做条件请求，只允许短时缓存
+     *
+     * @param limit 条数，默认10，最多50
+     */
+    @GetMapping("/posts/trending")
+    @PublicCache(maxAge = 60, staleWhileRevalidate = 120)
+    public Result<List<BlogPostVO>> getTrendingPosts(
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        return Result.success(blogService.getTrendingBlogs(limit));
+    }
+
     /**
      * 获取文章详情
      *
-     * @param id 文章ID
+     * @param id     文章ID
+     * @param format markdown（默认，返回原始正文）或 html（返回预渲染 HTML 与标题大纲）
      */
     @GetMapping("/posts/{id}")
-    public Result<BlogPostVO> getPostById(@PathVariable Long id) {
-        BlogPostVO vo = blogService.getBlogById(id);
+    @PublicCache(maxAge = 60, staleWhileRevalidate = 300)
+    public Result<BlogPostVO> getPostById(@PathVariable Long id,
+                                          @RequestParam(defaultValue = "markdown") String format,
+                                          WebRequest request) {
+        LocalDateTime updatedAt = blogService.getPostUpdatedAt(id);
+        if (updatedAt != null && notModified(request, "p",
+                updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())) {
+            return null;
+        }
+        BlogPostVO vo = switch (format) {
+            case "markdown" -> blogService.getBlogById(id);
+            case "html" -> blogService.getBlogHtmlById(id);
+            default -> throw new IllegalArgumentException("format 仅支持 markdown 或 html");
+        };
         if (vo == null) {
             return Result.notFound("文章不存在");
         }
         return Result.success(vo);
     }
 
+    /**
+     * 分段输出文章正文
+     * 正文按校验器对应的版本读出后即归还数据库连接，再按段写出并 flush
+     *
+     * @param id 文章ID
+     */
+    @GetMapping("/posts/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getPostContent(@PathVariable Long id, WebRequest request) {
+        LocalDateTime updatedAt = blogService.getPostUpdatedAt(id);
+        if (updatedAt == null) {
+            return ResponseEntity.notFound().build();
+        }
+        long lastModified = updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (ConditionalRequests.notModified(request, "c" + lastModified, lastModified, CONTENT_CACHE_CONTROL)) {
+            return null;
+        }
+        StreamingResponseBody body = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            blogService.streamPostContent(id, updatedAt, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MARKDOWN)
+                .cacheControl(CONTENT_CACHE_CONTROL)
+                .body(body);
+    }
+
     /**
      * 记录文章阅读
      * 前端在博客详情页 onLoad 时调用。
@@ -114,11 +263,55 @@ public class BlogController {
         return Result.success(new ViewResult(counted));
     }
 
+    /**
+     * 文章独立访客数
+     * 按天 HyperLogLog 合并估算，误差约 0.81%；天数超出保留期时按保留期计算
+     *
+     * @param id   文章ID
+     * @param days 最近天数（含今天）
+     */
+    @GetMapping("/posts/{id}/visitors")
+    @PublicCache(maxAge = 60, staleWhileRevalidate = 300)
+    public Result<VisitorStats> getUniqueVisitors(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "1") int days) {
+        return Result.success(new VisitorStats(days, blogService.getUniqueVisitors(id, days)));
+    }
+
+    /**
+     * 文章阅读趋势（只读汇总表，滞后一个汇总周期）
+     *
+     * @param id          文章ID
+     * @param granularity hour / day
+     * @param days        最近天数（含今天）
+     */
+    @GetMapping("/posts/{id}/views/trend")
+    @PublicCache(maxAge = 300, staleWhileRevalidate = 600)
+    public Result<List<ViewTrendPointVO>> getPostViewTrend(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "day") String granularity,
+            @RequestParam(required = false, defaultValue = "30") int days) {
+        return Result.success(viewAnalyticsService.getTrend(id, granularity, days));
+    }
+
+    /**
+     * 全站阅读趋势
+     */
+    @GetMapping("/views/trend")
+    @PublicCache(maxAge = 300, staleWhileRevalidate = 600)
+    public Result<List<ViewTrendPointVO>> getSiteViewTrend(
+            @RequestParam(required = false, defaultValue = "day") String granularity,
+            @RequestParam(required = false, defaultValue = "30") int days) {
+        return Result.success(viewAnalyticsService.getTrend(null, granularity, days));
+    }
+
     /**
      * 获取所有分类（含文章数量）
      */
     @GetMapping("/categories")
-    public Result<List<CategoryVO>> getCategories() {
+    @PublicCache(maxAge = 300, staleWhileRevalidate = 600)
+    public Result<List<CategoryVO>> getCategories(WebRequest request) {
+        if (listNotModified(request)) return null;
         return Result.success(blogService.getCategories());
     }
 
@@ -126,7 +319,9 @@ public class BlogController {
      * 获取所有标签（含文章数量，按数量降序）
      */
     @GetMapping("/tags")
-    public Result<List<TagVO>> getAllTags() {
+    @PublicCache(maxAge = 300, staleWhileRevalidate = 600)
+    public Result<List<TagVO>> getAllTags(WebRequest request) {
+        if (listNotModified(request)) return null;
         return Result.success(blogService.getAllTags());
     }
 
@@ -136,14 +331,32 @@ public class BlogController {
      * @param limit 条数，默认8
      */
     @GetMapping("/tags/popular")
+    @PublicCache(maxAge = 300, staleWhileRevalidate = 600)
     public Result<List<TagVO>> getPopularTags(
-            @RequestParam(required = false, defaultValue = "8") int limit) {
+            @RequestParam(required = false, defaultValue = "8") int limit,
+            WebRequest request) {
+        if (listNotModified(request)) return null;
         return Result.success(blogService.getPopularTags(limit));
     }
 
+    private boolean listNotModified(WebRequest request) {
+        ContentVersion version = blogService.getListVersion();
+        long lastModified = version.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return notModified(request, "b" + version.getTotalRows() + "-" + Long.toHexString(version.getChecksum()) + "-",
+                lastModified);
+    }
+
+    /** ETag 由内容版本和阅读数窗口组成；查询参数属于 URL，本身就区分了缓存条目 */
+    private boolean notModified(WebRequest request, String kind, long version) {
+        long window = System.currentTimeMillis() / VIEWS_WINDOW_MS;
+        return ConditionalRequests.notModified(request, kind + version + "-" + window,
+                Math.max(version, window * VIEWS_WINDOW_MS));
+    }
+
     /**
      * 阅读记录响应体
      */
     public record ViewResult(boolean counted) {}
+    public record VisitorStats(int days, long uniqueVisitors) {}
     public record PublishStatus(String status, Long postId) {}
 }
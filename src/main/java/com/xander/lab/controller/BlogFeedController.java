@@ -0,0 +1,68 @@
+package com.xander.lab.controller;
+
+import com.xander.lab.common.ConditionalRequests;
+import com.xander.lab.service.BlogFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+/**
+ * 订阅源与站点地图控制器
+ *
+ * <pre>
+ * 接口列表：
+ *   GET  /api/blog/rss.xml       RSS 2.0 订阅源（最新 N 篇）
+ *   GET  /api/blog/atom.xml      Atom 订阅源（最新 N 篇）
+ *   GET  /api/blog/sitemap.xml   站点地图（全部已发布文章）
+ * </pre>
+ *
+ * 文档均为内存中预生成的字节，支持 If-None-Match / If-Modified-Since，不访问数据库。
+ */
+@RestController
+@RequestMapping("/api/blog")
+@RequiredArgsConstructor
+public class BlogFeedController {
+
+    private static final MediaType RSS = MediaType.parseMediaType("application/rss+xml;charset=UTF-8");
+    private static final MediaType ATOM = MediaType.parseMediaType("application/atom+xml;charset=UTF-8");
+    private static final MediaType XML = MediaType.parseMediaType("application/xml;charset=UTF-8");
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(10)).cachePublic();
+
+    private final BlogFeedService blogFeedService;
+
+    @GetMapping("/rss.xml")
+    public ResponseEntity<byte[]> rss(WebRequest request) {
+        return serve(blogFeedService.getRss(), RSS, request);
+    }
+
+    @GetMapping("/atom.xml")
+    public ResponseEntity<byte[]> atom(WebRequest request) {
+        return serve(blogFeedService.getAtom(), ATOM, request);
+    }
+
+    @GetMapping("/sitemap.xml")
+    public ResponseEntity<byte[]> sitemap(WebRequest request) {
+        return serve(blogFeedService.getSitemap(), XML, request);
+    }
+
+    private ResponseEntity<byte[]> serve(BlogFeedService.FeedDocument document, MediaType type, WebRequest request) {
+        if (document == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (ConditionalRequests.notModified(request, document.etag(), document.lastModified(), CACHE_CONTROL)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(type)
+                .cacheControl(CACHE_CONTROL)
+                .body(document.body());
+    }
+}
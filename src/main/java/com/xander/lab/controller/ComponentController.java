@@ -1,18 +1,24 @@
 package com.xander.lab.controller;
 
+import com.xander.lab.common.ConditionalRequests;
+import com.xander.lab.common.PublicCache;
 import com.xander.lab.common.Result;
 import com.xander.lab.dto.ComponentCategoryVO;
 import com.xander.lab.dto.ComponentDetailVO;
 import com.xander.lab.dto.ComponentShareDTO;
+import com.xander.lab.dto.ContentVersion;
 import com.xander.lab.service.ComponentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.ZoneId;
 import java.util.List;
 
 /**
  * 组件库控制器
  * 提供组件菜单和详情的接口
+ * 菜单和详情支持条件请求，校验器为组件库整体版本，命中时不再加载代码字段
  */
 @RestController
 @RequestMapping("/api/components")
@@ -28,7 +34,10 @@ public class ComponentController {
      * @return 组件分类列表（包含组件）
      */
     @GetMapping("/menu")
-    public Result<List<ComponentCategoryVO>> getMenu(@RequestParam(defaultValue = "zh") String lang) {
+    @PublicCache(maxAge = 300, staleWhileRevalidate = 3600)
+    public Result<List<ComponentCategoryVO>> getMenu(@RequestParam(defaultValue = "zh") String lang,
+                                                     WebRequest request) {
+        if (notModified(request)) return null;
         return Result.success(componentService.getMenu(lang));
     }
 
@@ -40,7 +49,10 @@ public class ComponentController {
      * @return 组件详情信息
      */
     @GetMapping("/{id}")
-    public Result<ComponentDetailVO> getComponent(@PathVariable Long id, @RequestParam(defaultValue = "zh") String lang) {
+    @PublicCache(maxAge = 300, staleWhileRevalidate = 3600)
+    public Result<ComponentDetailVO> getComponent(@PathVariable Long id, @RequestParam(defaultValue = "zh") String lang,
+                                                  WebRequest request) {
+        if (notModified(request)) return null;
         ComponentDetailVO vo = componentService.getComponentDetail(id, lang);
         if (vo == null) {
             return Result.notFound("未找到该组件");
@@ -59,5 +71,11 @@ public class ComponentController {
         Long id = componentService.shareComponent(dto);
         return Result.success(id);
     }
+
+    private boolean notModified(WebRequest request) {
+        ContentVersion version = componentService.getCatalogVersion();
+        long lastModified = version.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return ConditionalRequests.notModified(request, "c" + version.getTotalRows() + "-" + lastModified, lastModified);
+    }
 }
 
@@ -1,7 +1,9 @@
 package com.xander.lab.controller;
 
 import com.xander.lab.common.Result;
+import com.xander.lab.common.UserContext;
 import com.xander.lab.dto.upload.UploadResponse;
+import com.xander.lab.service.ExportService;
 import com.xander.lab.service.FileService;
 import com.xander.lab.service.OssService;
 import lombok.RequiredArgsConstructor;
@@ -9,10 +11,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -31,8 +35,8 @@ import java.util.List;
  *
  * 下载接口：
  *   GET  /api/download/{filename} 按文件名下载已上传文件
- *   GET  /api/export/csv          导出 CSV（前端 download() 测试用）
- *   GET  /api/export/excel        导出 Excel（前端 download() 测试用）
+ *   GET  /api/export/csv          导出 CSV（需登录，type=user 仅管理员）
+ *   GET  /api/export/excel        导出 Excel xlsx（同上；同时进行的导出超过上限时返回 429）
  * </pre>
  *
  * 前端 axios 封装对应用法：
@@ -53,6 +57,7 @@ import java.util.List;
 public class FileController {
 
     private final FileService fileService;
+    private final ExportService exportService;
     private final OssService ossService;
 
     // ─────────────────────────────────────────────
@@ -174,42 +179,54 @@ public class FileController {
      * 前端调用：download('/api/export/csv', { filename: 'export.csv', params: { type: 'blog' } })
      *
      * @param type 导出类型（blog / user）
-     * @return CSV 文件流
+     * @return CSV 文件流（边查询边写出）
      */
     @GetMapping("/api/export/csv")
-    public ResponseEntity<byte[]> exportCsv(
+    public ResponseEntity<StreamingResponseBody> exportCsv(
             @RequestParam(defaultValue = "blog") String type) {
-        byte[] content = fileService.generateCsvContent(type);
-        String filename = type + "_export.csv";
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename*=UTF-8''" + filename)
-                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.length))
-                .body(content);
+        return export(type, ExportService.Format.CSV, MediaType.parseMediaType("text/csv;charset=UTF-8"), ".csv");
     }
 
     /**
-     * 导出 Excel（模拟，实际返回 CSV 格式，生产环境可接入 EasyExcel）
+     * 导出 Excel（xlsx，流式写出）
      * 前端调用：download('/api/export/excel', { filename: 'report.xlsx', params: { type: 'blog' } })
      *
-     * @param type 导出类型
+     * @param type 导出类型（blog / user）
      * @return 文件流
      */
     @GetMapping("/api/export/excel")
-    public ResponseEntity<byte[]> exportExcel(
+    public ResponseEntity<StreamingResponseBody> exportExcel(
             @RequestParam(defaultValue = "blog") String type) {
-        // 模拟数据：实际项目中使用 EasyExcel 生成真实 xlsx
-        byte[] content = fileService.generateCsvContent(type);
-        String filename = type + "_export.xlsx";
+        return export(type, ExportService.Format.XLSX, MediaType.parseMediaType(
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"), ".xlsx");
+    }
 
+    /**
+     * 导出长度事先未知，不设置 Content-Length，按分块传输编码输出
+     */
+    private ResponseEntity<StreamingResponseBody> export(String type, ExportService.Format format,
+                                                         MediaType contentType, String extension) {
+        if (!exportService.supports(type)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!exportService.canExport(type, UserContext.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!exportService.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        String filename = type + "_export" + extension;
+        StreamingResponseBody body = out -> {
+            try {
+                exportService.export(type, format, out);
+            } finally {
+                exportService.release();
+            }
+        };
         return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(
-                        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .contentType(contentType)
                 .header(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename*=UTF-8''" + filename)
-                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.length))
-                .body(content);
+                .body(body);
     }
 }
@@ -0,0 +1,44 @@
+package com.xander.lab.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果
+ */
+@Data
+public class BlogImportReportVO {
+
+    /** 读取的非空行数 */
+    private long total;
+
+    /** 成功导入的文章数 */
+    private long imported;
+
+    /** 失败的行数 */
+    private long failed;
+
+    /** 失败明细（只保留前若干条，完整数量见 failed） */
+    private List<RowError> errors = new ArrayList<>();
+
+    /** 新导入文章的 ID 范围 */
+    private Long firstPostId;
+    private Long lastPostId;
+
+    /** 总耗时（毫秒） */
+    private long elapsedMs;
+
+    /** 吞吐（成功行数 / 秒） */
+    private double rowsPerSecond;
+
+    /**
+     * 单行错误
+     *
+     * @param line    行号（从 1 开始）
+     * @param message 错误原因
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.xander.lab.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+
+/**
+ * 批量导入的文章行（NDJSON 每行一个对象）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BlogPostImportDTO extends BlogPostDTO {
+
+    /** 是否发布，默认 true；false 导入为草稿 */
+    private Boolean publish;
+
+    /** 原发布日期（可选，迁移归档时保留），缺省为导入当天 */
+    private LocalDate publishedAt;
+}
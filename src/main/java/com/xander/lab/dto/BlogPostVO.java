@@ -1,6 +1,7 @@
 package com.xander.lab.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.time.LocalDate;
@@ -27,6 +28,14 @@ public class BlogPostVO {
     /** 文章正文（Markdown），列表接口不返回，详情接口返回 */
     private String content;
 
+    /** 服务端预渲染的正文 HTML，仅 format=html 时返回 */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String contentHtml;
+
+    /** 标题大纲，仅 format=html 时返回 */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<TocItemVO> toc;
+
     /** 分类ID（如 frontend） */
     private String category;
 
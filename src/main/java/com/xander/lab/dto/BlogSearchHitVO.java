@@ -0,0 +1,44 @@
+package com.xander.lab.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 全文检索命中项
+ * highlightedTitle / snippet 已做 HTML 转义，命中词以 &lt;mark&gt; 包裹
+ */
+@Data
+public class BlogSearchHitVO {
+
+    /** 文章ID */
+    private Long id;
+
+    /** 文章标题（原文） */
+    private String title;
+
+    /** 高亮后的标题 */
+    private String highlightedTitle;
+
+    /** 文章摘要（原文） */
+    private String summary;
+
+    /** 命中片段（优先正文，其次摘要） */
+    private String snippet;
+
+    /** 分类ID */
+    private String category;
+
+    /** 作者 */
+    private String author;
+
+    /** 发布日期 */
+    private LocalDate date;
+
+    /** 标签列表 */
+    private List<String> tags;
+
+    /** 相关度得分（BM25） */
+    private double score;
+}
@@ -0,0 +1,24 @@
+package com.xander.lab.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 全文检索结果
+ */
+@Data
+public class BlogSearchResultVO {
+
+    /** 原始查询 */
+    private String query;
+
+    /** 命中文章总数 */
+    private int total;
+
+    /** 索引内检索耗时（微秒），用于与 LIKE 查询路径对比 */
+    private long tookMicros;
+
+    /** 按相关度排序的命中项 */
+    private List<BlogSearchHitVO> hits;
+}
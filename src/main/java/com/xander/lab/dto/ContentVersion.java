@@ -0,0 +1,22 @@
+package com.xander.lab.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内容版本信息（条件请求校验器）
+ * 最后修改时间覆盖新增和修改，行数覆盖删除，校验和覆盖时间与行数都不变的变化（如计数修复）
+ */
+@Data
+public class ContentVersion {
+
+    /** 相关表中最大的 updated_at */
+    private LocalDateTime lastModified;
+
+    /** 相关表的总行数 */
+    private long totalRows;
+
+    /** 行ID与计数列的校验和，不需要时为 0 */
+    private long checksum;
+}
@@ -0,0 +1,28 @@
+package com.xander.lab.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页返回体
+ * 不依赖页码和总数，客户端用 nextCursor 请求下一页
+ */
+@Data
+public class CursorPageData<T> {
+
+    /** 数据列表 */
+    private List<T> records;
+
+    /** 下一页游标（不透明字符串），没有更多数据时为 null */
+    private String nextCursor;
+
+    /** 是否有更多数据 */
+    private boolean hasMore;
+
+    /** 每页大小 */
+    private long size;
+
+    /** 总记录数，仅在请求 withTotal=true 时返回 */
+    private Long total;
+}
@@ -0,0 +1,16 @@
+package com.xander.lab.dto;
+
+import lombok.Data;
+
+/**
+ * 文章-标签名称对（批量加载标签时使用）
+ */
+@Data
+public class PostTagVO {
+
+    /** 文章ID */
+    private Long postId;
+
+    /** 标签名称 */
+    private String name;
+}
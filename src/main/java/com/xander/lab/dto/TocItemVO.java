@@ -0,0 +1,23 @@
+package com.xander.lab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文章标题大纲条目
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TocItemVO {
+
+    /** 标题级别 1-6 */
+    private int level;
+
+    /** 标题纯文本 */
+    private String text;
+
+    /** 对应 HTML 中标题元素的 id，用于锚点跳转 */
+    private String anchor;
+}
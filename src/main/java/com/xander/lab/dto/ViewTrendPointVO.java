@@ -0,0 +1,22 @@
+package com.xander.lab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 阅读趋势数据点
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewTrendPointVO {
+
+    /** 时间段起点（小时粒度为整点，日粒度为当天 00:00） */
+    private LocalDateTime bucket;
+
+    /** 该时间段内的阅读数 */
+    private long views;
+}
@@ -0,0 +1,12 @@
+package com.xander.lab.dto.agent;
+
+import lombok.Data;
+
+/** A running agent task whose execution lease has expired. */
+@Data
+public class BlogAgentOrphanRun {
+    private Long id;
+    private Long userId;
+    private String runKind;
+    private Integer resumeCount;
+}
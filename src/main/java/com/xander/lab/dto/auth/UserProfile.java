@@ -0,0 +1,27 @@
+package com.xander.lab.dto.auth;
+
+import com.xander.lab.entity.User;
+
+/**
+ * 用户资料快照（进程内缓存的值，不含密码和邮箱，不可变以便多线程共享）
+ *
+ * @param status 1=正常 0=禁用
+ */
+public record UserProfile(Long id, String username, String nickname, String avatar, String role, Integer status) {
+
+    public static UserProfile from(User user) {
+        return new UserProfile(user.getId(), user.getUsername(), user.getNickname(), user.getAvatar(),
+                user.getRole(), user.getStatus());
+    }
+
+    public boolean disabled() {
+        return status != null && status == 0;
+    }
+
+    /** 展示名：昵称优先，其次用户名；都为空时返回 null */
+    public String displayName() {
+        if (nickname != null && !nickname.isBlank()) return nickname;
+        if (username != null && !username.isBlank()) return username;
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.xander.lab.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 博客正文预渲染结果实体
+ * 每篇文章一行，content_hash 与当前正文不一致时视为过期
+ */
+@Data
+@TableName("blog_post_render")
+public class BlogPostRender {
+
+    /** 文章ID */
+    @TableId(type = IdType.INPUT)
+    private Long postId;
+
+    /** 渲染器版本 + Markdown 正文的 SHA-256 */
+    private String contentHash;
+
+    /** 净化后的 HTML */
+    private String html;
+
+    /** 标题大纲（JSON 数组） */
+    private String toc;
+
+    private LocalDateTime renderedAt;
+}
@@ -0,0 +1,178 @@
+package com.xander.lab.filter;
+
+import com.xander.lab.config.BlogSnapshotProperties;
+import com.xander.lab.service.BlogSnapshotService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves pre-generated blog snapshots straight from disk.
+ * Only exact, parameter-free (or default-parameter) public reads are matched; anything
+ * else, and any snapshot that is not generated yet, falls through to the controllers.
+ * Runs ahead of RequestLoggingFilter so hits skip response buffering.
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "blog.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class BlogSnapshotFilter extends OncePerRequestFilter {
+
+    private static final Pattern DETAIL_PATH = Pattern.compile("/api/blog/posts/(\\d+)");
+
+    /** Mirrors the global mapping in WebConfig, which MVC would otherwise apply. */
+    private static final CorsConfiguration CORS = corsConfiguration();
+
+    private final BlogSnapshotService snapshotService;
+    private final BlogSnapshotProperties properties;
+    private final DefaultCorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method)) || !request.getRequestURI().startsWith("/api/blog/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String relativePath = resolve(request);
+        BlogSnapshotService.Snapshot snapshot = relativePath == null ? null : snapshotService.find(relativePath);
+        if (snapshot == null || CorsUtils.isPreFlightRequest(request) || !corsProcessor.processRequest(CORS, request, response)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String etag = "\"s-" + snapshot.etag() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(properties.getMaxAge()).cachePublic().getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        Path file = gzip ? snapshot.gzip() : snapshot.json();
+        byte[] body;
+        try {
+            body = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            // Deleted between lookup and read (post just unpublished): let the controller answer.
+            response.reset();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        if ("GET".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /** Maps a request to its snapshot path, or null when the request is not a snapshot shape. */
+    private String resolve(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        Map<String, String[]> params = request.getParameterMap();
+        switch (uri) {
+            case "/api/blog/posts" -> {
+                if (!onlyParams(params, Set.of("page", "size", "search", "category", "tag"))
+                        || !blank(params, "search") || !blank(params, "category") || !blank(params, "tag")) {
+                    return null;
+                }
+                Integer page = intParam(params, "page", 1);
+                Integer size = intParam(params, "size", 10);
+                if (page == null || size == null || size != properties.getPageSize()
+                        || page < 1 || page > properties.getListPages()) {
+                    return null;
+                }
+                return BlogSnapshotService.listPage(page);
+            }
+            case "/api/blog/posts/recent" -> {
+                Integer limit = intParam(params, "limit", 5);
+                return onlyParams(params, Set.of("limit")) && limit != null && limit == properties.getRecentLimit()
+                        ? BlogSnapshotService.RECENT : null;
+            }
+            case "/api/blog/categories" -> {
+                return params.isEmpty() ? BlogSnapshotService.CATEGORIES : null;
+            }
+            case "/api/blog/tags" -> {
+                return params.isEmpty() ? BlogSnapshotService.TAGS : null;
+            }
+            default -> {
+                Matcher matcher = DETAIL_PATH.matcher(uri);
+                if (!matcher.matches() || !onlyParams(params, Set.of("format"))) {
+                    return null;
+                }
+                String format = param(params, "format", "markdown");
+                if (!"markdown".equals(format) && !"html".equals(format)) {
+                    return null;
+                }
+                return BlogSnapshotService.detail(Long.parseLong(matcher.group(1)), "html".equals(format));
+            }
+        }
+    }
+
+    private static boolean onlyParams(Map<String, String[]> params, Set<String> allowed) {
+        return params.entrySet().stream().allMatch(e -> allowed.contains(e.getKey()) && e.getValue().length == 1);
+    }
+
+    private static boolean blank(Map<String, String[]> params, String name) {
+        return param(params, name, "").isEmpty();
+    }
+
+    private static String param(Map<String, String[]> params, String name, String defaultValue) {
+        String[] values = params.get(name);
+        return values == null ? defaultValue : values[0];
+    }
+
+    private static Integer intParam(Map<String, String[]> params, String name, int defaultValue) {
+        String value = param(params, name, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static CorsConfiguration corsConfiguration() {
+        CorsConfiguration config = new CorsConfiguration();
+        config.setAllowedOriginPatterns(List.of("*"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
+        config.setAllowedHeaders(List.of("*"));
+        config.setAllowCredentials(true);
+        config.setMaxAge(3600L);
+        return config;
+    }
+}
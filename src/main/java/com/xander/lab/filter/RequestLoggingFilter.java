@@ -32,7 +32,13 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         // ContentCachingResponseWrapper buffers output until the request returns,
         // which prevents an SseEmitter from flushing events after the controller
         // has switched to async processing.
-        return uri.startsWith("/api/blog-agent/tasks/") && uri.endsWith("/run/stream");
+        // Streamed post bodies are excluded for the same reason, and so that a long
+        // article is never copied into the logging buffer; bulk imports and exports are
+        // streamed for the same reason.
+        return (uri.startsWith("/api/blog-agent/tasks/") && uri.endsWith("/run/stream"))
+                || (uri.startsWith("/api/blog/posts/") && uri.endsWith("/content"))
+                || uri.equals("/api/blog/posts/import")
+                || uri.startsWith("/api/export/");
     }
 
     @Override
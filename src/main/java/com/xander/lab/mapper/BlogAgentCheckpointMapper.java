@@ -0,0 +1,25 @@
+package com.xander.lab.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/** Stage outputs of an unfinished agent run, keyed by (task_id, stage). */
+@Mapper
+public interface BlogAgentCheckpointMapper {
+
+    @Select("SELECT payload FROM blog_agent_checkpoint WHERE task_id = #{taskId} AND stage = #{stage}")
+    String selectPayload(@Param("taskId") Long taskId, @Param("stage") String stage);
+
+    @Insert("""
+            INSERT INTO blog_agent_checkpoint (task_id, stage, payload)
+            VALUES (#{taskId}, #{stage}, #{payload})
+            ON DUPLICATE KEY UPDATE payload = VALUES(payload), created_at = CURRENT_TIMESTAMP
+            """)
+    int upsert(@Param("taskId") Long taskId, @Param("stage") String stage, @Param("payload") String payload);
+
+    @Delete("DELETE FROM blog_agent_checkpoint WHERE task_id = #{taskId}")
+    int deleteByTask(@Param("taskId") Long taskId);
+}
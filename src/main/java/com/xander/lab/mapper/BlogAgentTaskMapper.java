@@ -1,8 +1,87 @@
 package com.xander.lab.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xander.lab.dto.agent.BlogAgentOrphanRun;
 import com.xander.lab.entity.BlogAgentTask;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
-public interface BlogAgentTaskMapper extends BaseMapper<BlogAgentTask> { }
+public interface BlogAgentTaskMapper extends BaseMapper<BlogAgentTask> {
+
+    /** Locks the task row for the rest of the transaction (used by publish). */
+    @Select("SELECT * FROM blog_agent_task WHERE id = #{id} FOR UPDATE")
+    BlogAgentTask selectByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Takes the execution lease for a run. Fails while another node holds an unexpired lease.
+     * A running row without a lease (written before leases existed, or mid-claim on an old node)
+     * is only taken over once it has not been touched for a full lease, i.e. updated_at &lt; staleBefore.
+     * The lease columns are written only here and in the statements below, never by updateById.
+     * Stage, checkpoint and result writes of a run are fenced on lease_owner by BlogAgentService.
+     */
+    @Update("""
+            UPDATE blog_agent_task
+            SET status = 'running',
+                run_kind = #{kind},
+                lease_owner = #{owner},
+                lease_until = #{leaseUntil},
+                resume_count = CASE WHEN #{resumed} THEN resume_count + 1 ELSE 0 END,
+                error_message = NULL,
+                updated_at = #{now}
+            WHERE id = #{id}
+              AND user_id = #{userId}
+              AND (status <> 'running'
+                   OR lease_until < #{now}
+                   OR (lease_until IS NULL AND updated_at < #{staleBefore}))
+            """)
+    int claimRun(@Param("id") Long id,
+                 @Param("userId") Long userId,
+                 @Param("kind") String kind,
+                 @Param("owner") String owner,
+                 @Param("resumed") boolean resumed,
+                 @Param("now") LocalDateTime now,
+                 @Param("leaseUntil") LocalDateTime leaseUntil,
+                 @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Update("""
+            <script>
+            UPDATE blog_agent_task
+            SET lease_until = #{leaseUntil}
+            WHERE lease_owner = #{owner}
+              AND id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    int renewLeases(@Param("owner") String owner,
+                    @Param("ids") Collection<Long> ids,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Update("""
+            UPDATE blog_agent_task
+            SET lease_owner = NULL, lease_until = NULL
+            WHERE id = #{id} AND lease_owner = #{owner}
+            """)
+    int releaseRun(@Param("id") Long id, @Param("owner") String owner);
+
+    /**
+     * Running tasks whose node went away: the lease has expired, or there is no lease and the row
+     * has not been touched for a full lease (updated_at &lt; staleBefore), same rule as claimRun.
+     */
+    @Select("""
+            SELECT id, user_id, run_kind, resume_count
+            FROM blog_agent_task
+            WHERE status = 'running'
+              AND (lease_until < #{now} OR (lease_until IS NULL AND updated_at < #{staleBefore}))
+            ORDER BY updated_at
+            LIMIT #{limit}
+            """)
+    List<BlogAgentOrphanRun> selectOrphans(@Param("now") LocalDateTime now,
+                                           @Param("staleBefore") LocalDateTime staleBefore,
+                                           @Param("limit") int limit);
+}
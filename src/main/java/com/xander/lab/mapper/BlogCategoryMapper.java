@@ -4,7 +4,9 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.xander.lab.dto.CategoryVO;
 import com.xander.lab.entity.BlogCategory;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
 
@@ -12,15 +14,41 @@ import java.util.List;
 public interface BlogCategoryMapper extends BaseMapper<BlogCategory> {
 
     /**
-     * 查询所有分类，并统计每个分类下已发布的文章数量
+     * 查询所有分类及其已发布文章数量
+     * 读取写入时维护的 post_count，不再聚合文章表
      */
     @Select("""
-            SELECT c.id, c.name,
-                   COUNT(p.id) AS count
-            FROM blog_category c
-            LEFT JOIN blog_post p ON p.category_id = c.id AND p.status = 1
-            GROUP BY c.id, c.name, c.sort
-            ORDER BY c.sort ASC
+            SELECT id, name, post_count AS count
+            FROM blog_category
+            ORDER BY sort ASC
             """)
     List<CategoryVO> selectCategoriesWithCount();
+
+    /**
+     * 调整分类的已发布文章计数（与文章写操作同一事务）
+     */
+    @Update("""
+            UPDATE blog_category
+            SET post_count = GREATEST(post_count + #{delta}, 0)
+            WHERE id = #{categoryId}
+            """)
+    int adjustPostCount(@Param("categoryId") String categoryId, @Param("delta") int delta);
+
+    /**
+     * 按文章表重新计算计数，只更新有偏差的行
+     *
+     * @return 被修复的分类数
+     */
+    @Update("""
+            UPDATE blog_category c
+            LEFT JOIN (
+                SELECT category_id, COUNT(*) AS cnt
+                FROM blog_post
+                WHERE status = 1
+                GROUP BY category_id
+            ) s ON s.category_id = c.id
+            SET c.post_count = COALESCE(s.cnt, 0)
+            WHERE c.post_count <> COALESCE(s.cnt, 0)
+            """)
+    int reconcilePostCounts();
 }
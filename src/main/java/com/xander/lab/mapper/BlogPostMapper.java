@@ -4,10 +4,19 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.xander.lab.dto.BlogPostVO;
+import com.xander.lab.dto.ContentVersion;
 import com.xander.lab.entity.BlogPost;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -21,6 +30,26 @@ public interface BlogPostMapper extends BaseMapper<BlogPost> {
                                      @Param("category") String category,
                                      @Param("tag") String tag);
 
+    /**
+     * 游标分页查询文章列表（不含 content，不统计总数）
+     * cursorDate 为 null 时返回第一页；否则返回排在 (cursorDate, cursorId) 之后的文章
+     * 对应 XML: BlogPostMapper.xml -> selectPostListAfter
+     */
+    List<BlogPostVO> selectPostListAfter(@Param("search") String search,
+                                         @Param("category") String category,
+                                         @Param("tag") String tag,
+                                         @Param("cursorDate") LocalDate cursorDate,
+                                         @Param("cursorId") Long cursorId,
+                                         @Param("limit") int limit);
+
+    /**
+     * 统计符合筛选条件的已发布文章数（游标分页按需调用）
+     * 对应 XML: BlogPostMapper.xml -> countPostList
+     */
+    long countPostList(@Param("search") String search,
+                       @Param("category") String category,
+                       @Param("tag") String tag);
+
     /**
      * 查询最新文章（前N条，不含 content）
      * 对应 XML: BlogPostMapper.xml -> selectRecentPosts
@@ -28,8 +57,118 @@ public interface BlogPostMapper extends BaseMapper<BlogPost> {
     List<BlogPostVO> selectRecentPosts(@Param("limit") int limit);
 
     /**
-     * 查询文章详情（含 content）
+     * 查询全部已发布文章ID（走 idx_status，不读正文）
+     */
+    @Select("SELECT id FROM blog_post WHERE status = 1")
+    List<Long> selectPublishedIds();
+
+    /**
+     * 查询最新的已发布文章（订阅源用，只取元数据列）
+     */
+    @Select("""
+            SELECT id, title, summary, author, published_at, updated_at
+            FROM blog_post
+            WHERE status = 1
+            ORDER BY published_at DESC, id DESC
+            LIMIT #{limit}
+            """)
+    List<BlogPost> selectFeedEntries(@Param("limit") int limit);
+
+    /**
+     * 查询单篇已发布文章的订阅源元数据，未发布或不存在时返回 null
+     */
+    @Select("""
+            SELECT id, title, summary, author, published_at, updated_at
+            FROM blog_post
+            WHERE id = #{id} AND status = 1
+            """)
+    BlogPost selectFeedEntry(@Param("id") Long id);
+
+    /**
+     * 查询全部已发布文章的ID与最后修改时间（站点地图用）
+     */
+    @Select("SELECT id, updated_at FROM blog_post WHERE status = 1 ORDER BY id")
+    List<BlogPost> selectSitemapEntries();
+
+    /**
+     * 公开列表的内容版本：已发布文章与分类的最大 updated_at、已发布文章数与标签数，
+     * 校验和由已发布文章ID的异或与分类/标签计数加权和组成（同一秒内删一篇发一篇、计数修复都会改变它）
+     * 阅读数回写保持 updated_at 不变，不影响版本；只扫描索引列和小表，不读正文
+     */
+    @Select("""
+            SELECT GREATEST(
+                       COALESCE((SELECT MAX(updated_at) FROM blog_post WHERE status = 1), '1970-01-01 00:00:00'),
+                       COALESCE((SELECT MAX(updated_at) FROM blog_category), '1970-01-01 00:00:00')
+                   ) AS last_modified,
+                   (SELECT COUNT(*) FROM blog_post WHERE status = 1)
+                       + (SELECT COUNT(*) FROM blog_tag) AS total_rows,
+                   (SELECT COALESCE(BIT_XOR(id), 0) FROM blog_post WHERE status = 1)
+                       + (SELECT COALESCE(SUM(CRC32(id) * post_count), 0) FROM blog_category)
+                       + (SELECT COALESCE(SUM(id * post_count), 0) FROM blog_tag) AS checksum
+            """)
+    ContentVersion selectListVersion();
+
+    /**
+     * 查询已发布文章的最后修改时间，用于条件请求校验（主键查询，不读正文）
+     */
+    @Select("SELECT updated_at FROM blog_post WHERE id = #{id} AND status = 1")
+    LocalDateTime selectPublishedUpdatedAt(@Param("id") Long id);
+
+    /**
+     * 查询文章详情元数据（不含 content）
      * 对应 XML: BlogPostMapper.xml -> selectPostDetail
      */
     BlogPostVO selectPostDetail(@Param("id") Long id);
+
+    /**
+     * 按ID批量查询已发布文章元数据（不含 content，结果无序）
+     * 对应 XML: BlogPostMapper.xml -> selectPostsByIds
+     */
+    List<BlogPostVO> selectPostsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询已发布文章的正文（主键读取，不参与任何 JOIN / GROUP BY）
+     */
+    @Select("SELECT content FROM blog_post WHERE id = #{id} AND status = 1")
+    String selectPostContent(@Param("id") Long id);
+
+    /**
+     * 按版本读取已发布文章的正文
+     * 带上 updated_at 条件：文章已被修改或下线时返回 null，避免输出与校验器不一致的版本
+     */
+    @Select("SELECT content FROM blog_post WHERE id = #{id} AND status = 1 AND updated_at = #{updatedAt}")
+    String selectPostContentAt(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 多行插入文章（批量导入），自增ID按顺序回填到每个对象
+     */
+    @Insert("""
+            <script>
+            INSERT INTO blog_post (title, summary, content, category_id, user_id, author, read_time, tips,
+                                   views, status, published_at, created_at, updated_at)
+            VALUES
+            <foreach collection="posts" item="p" separator=",">
+            (#{p.title}, #{p.summary}, #{p.content}, #{p.categoryId}, #{p.userId}, #{p.author}, #{p.readTime}, #{p.tips},
+             0, #{p.status}, #{p.publishedAt}, #{p.createdAt}, #{p.updatedAt})
+            </foreach>
+            </script>
+            """)
+    @Options(useGeneratedKeys = true, keyProperty = "posts.id", keyColumn = "id")
+    int insertBatch(@Param("posts") List<BlogPost> posts);
+
+    /**
+     * 流式读取已发布文章（导出用），MySQL 驱动逐行返回，不在内存中物化结果集
+     * 游标只能在事务（同一个 SqlSession）内迭代
+     *
+     * @param maxExecutionMs 服务端执行上限（含逐行发送），超时后 MySQL 中止查询
+     */
+    @Select("""
+            SELECT /*+ MAX_EXECUTION_TIME(${maxExecutionMs}) */ p.id, p.title, c.name AS category_name, p.author, p.published_at AS date, p.views
+            FROM blog_post p
+            LEFT JOIN blog_category c ON c.id = p.category_id
+            WHERE p.status = 1
+            ORDER BY p.id
+            """)
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<BlogPostVO> streamPublishedForExport(@Param("maxExecutionMs") long maxExecutionMs);
 }
@@ -0,0 +1,27 @@
+package com.xander.lab.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xander.lab.entity.BlogPostRender;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 博客正文预渲染结果 Mapper
+ */
+@Mapper
+public interface BlogPostRenderMapper extends BaseMapper<BlogPostRender> {
+
+    /**
+     * 写入或覆盖文章的渲染结果
+     */
+    @Insert("""
+            INSERT INTO blog_post_render (post_id, content_hash, html, toc, rendered_at)
+            VALUES (#{postId}, #{contentHash}, #{html}, #{toc}, #{renderedAt})
+            ON DUPLICATE KEY UPDATE
+                content_hash = VALUES(content_hash),
+                html = VALUES(html),
+                toc = VALUES(toc),
+                rendered_at = VALUES(rendered_at)
+            """)
+    int upsert(BlogPostRender render);
+}
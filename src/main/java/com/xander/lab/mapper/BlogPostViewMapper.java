@@ -1,12 +1,15 @@
 package com.xander.lab.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import com.xander.lab.entity.BlogPost;
 import com.xander.lab.entity.BlogPostView;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 博客阅读记录 Mapper
  */
@@ -14,10 +17,37 @@ import org.apache.ibatis.annotations.Update;
 public interface BlogPostViewMapper extends BaseMapper<BlogPostView> {
 
     /**
-     * 原子递增文章阅读次数
+     * 批量累加文章阅读次数（一条语句），阅读数变化不刷新 updated_at
+     *
+     * @param deltas 文章ID → 增量
+     * @return 更新的行数
+     */
+    @Update("""
+            <script>
+            UPDATE blog_post
+            SET views = views + CASE id
+            <foreach collection="deltas" index="postId" item="delta">WHEN #{postId} THEN #{delta} </foreach>
+            ELSE 0 END,
+                updated_at = updated_at
+            WHERE id IN
+            <foreach collection="deltas" index="postId" open="(" separator="," close=")">#{postId}</foreach>
+            </script>
+            """)
+    int addViewCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 多行插入阅读记录（一条语句）
      *
-     * @param postId 文章ID
+     * @param views 阅读记录
+     * @return 插入的行数
      */
-    @Update("UPDATE blog_post SET views = views + 1 WHERE id = #{postId}")
-    void incrementViewCount(@Param("postId") Long postId);
+    @Insert("""
+            <script>
+            INSERT INTO blog_post_view (post_id, user_id, ip_address, user_agent, created_at) VALUES
+            <foreach collection="views" item="v" separator=",">
+            (#{v.postId}, #{v.userId}, #{v.ipAddress}, #{v.userAgent}, #{v.createdAt})
+            </foreach>
+            </script>
+            """)
+    int insertBatch(@Param("views") List<BlogPostView> views);
 }
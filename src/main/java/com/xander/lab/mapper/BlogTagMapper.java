@@ -1,65 +1,154 @@
 package com.xander.lab.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xander.lab.dto.PostTagVO;
 import com.xander.lab.dto.TagVO;
 import com.xander.lab.entity.BlogTag;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface BlogTagMapper extends BaseMapper<BlogTag> {
 
     /**
-     * 查询所有标签及其文章数量，按数量降序
+     * 查询所有标签及其已发布文章数量，按数量降序
+     * 读取写入时维护的 post_count，不再聚合关联表
      */
     @Select("""
-            SELECT t.name, COUNT(pt.post_id) AS count
-            FROM blog_tag t
-            LEFT JOIN blog_post_tag pt ON pt.tag_id = t.id
-            LEFT JOIN blog_post p ON p.id = pt.post_id AND p.status = 1
-            GROUP BY t.id, t.name
-            ORDER BY count DESC
+            SELECT name, post_count AS count
+            FROM blog_tag
+            ORDER BY post_count DESC, id ASC
             """)
     List<TagVO> selectAllTagsWithCount();
 
     /**
-     * 查询热门标签（前N个）
+     * 查询文章当前关联的标签ID
+     */
+    @Select("SELECT tag_id FROM blog_post_tag WHERE post_id = #{postId}")
+    List<Long> selectTagIdsByPostId(@Param("postId") Long postId);
+
+    /**
+     * 调整标签的已发布文章计数（与文章写操作同一事务）
+     */
+    @Update("""
+            <script>
+            UPDATE blog_tag
+            SET post_count = GREATEST(post_count + #{delta}, 0)
+            WHERE id IN
+            <foreach collection="tagIds" item="tagId" open="(" separator="," close=")">#{tagId}</foreach>
+            </script>
+            """)
+    int adjustPostCount(@Param("tagIds") Collection<Long> tagIds, @Param("delta") int delta);
+
+    /**
+     * 按关联表重新计算计数，只更新有偏差的行
+     *
+     * @return 被修复的标签数
+     */
+    @Update("""
+            UPDATE blog_tag t
+            LEFT JOIN (
+                SELECT pt.tag_id, COUNT(*) AS cnt
+                FROM blog_post_tag pt
+                INNER JOIN blog_post p ON p.id = pt.post_id AND p.status = 1
+                GROUP BY pt.tag_id
+            ) s ON s.tag_id = t.id
+            SET t.post_count = COALESCE(s.cnt, 0)
+            WHERE t.post_count <> COALESCE(s.cnt, 0)
+            """)
+    int reconcilePostCounts();
+
+    /**
+     * 批量查询多篇文章的标签（一次 IN 查询，避免列表逐条查询）
      */
     @Select("""
-            SELECT t.name, COUNT(pt.post_id) AS count
-            FROM blog_tag t
-            LEFT JOIN blog_post_tag pt ON pt.tag_id = t.id
-            LEFT JOIN blog_post p ON p.id = pt.post_id AND p.status = 1
-            GROUP BY t.id, t.name
-            ORDER BY count DESC
-            LIMIT #{limit}
+            <script>
+            SELECT pt.post_id AS postId, t.name
+            FROM blog_post_tag pt
+            INNER JOIN blog_tag t ON t.id = pt.tag_id
+            WHERE pt.post_id IN
+            <foreach collection="postIds" item="postId" open="(" separator="," close=")">#{postId}</foreach>
+            ORDER BY pt.post_id, t.name
+            </script>
             """)
-    List<TagVO> selectPopularTags(@Param("limit") int limit);
+    List<PostTagVO> selectTagsByPostIds(@Param("postIds") Collection<Long> postIds);
 
+    /**
+     * 按名称批量查询标签（名称比较遵循列排序规则，不区分大小写）
+     */
     @Select("""
-            SELECT t.name
-            FROM blog_tag t
-            INNER JOIN blog_post_tag pt ON pt.tag_id = t.id
-            WHERE pt.post_id = #{postId}
+            <script>
+            SELECT id, name
+            FROM blog_tag
+            WHERE name IN
+            <foreach collection="names" item="name" open="(" separator="," close=")">#{name}</foreach>
+            </script>
+            """)
+    List<BlogTag> selectByNames(@Param("names") Collection<String> names);
+
+    /**
+     * 批量创建标签，已存在的名称保持不变（一条多行 INSERT）
+     */
+    @Insert("""
+            <script>
+            INSERT INTO blog_tag (name, created_at) VALUES
+            <foreach collection="names" item="name" separator=",">(#{name}, NOW())</foreach>
+            ON DUPLICATE KEY UPDATE id = id
+            </script>
+            """)
+    int upsertNames(@Param("names") Collection<String> names);
+
+    /**
+     * 批量插入文章标签关联（一条多行 INSERT）
+     */
+    @Insert("""
+            <script>
+            INSERT INTO blog_post_tag (post_id, tag_id) VALUES
+            <foreach collection="tagIds" item="tagId" separator=",">(#{postId}, #{tagId})</foreach>
+            </script>
+            """)
+    int insertPostTags(@Param("postId") Long postId, @Param("tagIds") Collection<Long> tagIds);
+
+    /**
+     * 批量插入多篇文章的标签关联（一条多行 INSERT，批量导入使用）
+     *
+     * @param links 文章ID → 标签ID（每篇至少一个）
+     */
+    @Insert("""
+            <script>
+            INSERT INTO blog_post_tag (post_id, tag_id) VALUES
+            <foreach collection="links" index="postId" item="tagIds" separator=",">
+            <foreach collection="tagIds" item="tagId" separator=",">(#{postId}, #{tagId})</foreach>
+            </foreach>
+            </script>
             """)
-    List<String> selectTagNamesByPostId(@Param("postId") Long postId);
+    int insertPostTagLinks(@Param("links") Map<Long, ? extends Collection<Long>> links);
 
     /**
-     * 插入文章标签关联
+     * 删除文章的指定标签关联
      */
-    @org.apache.ibatis.annotations.Insert("""
-            INSERT INTO blog_post_tag (post_id, tag_id)
-            VALUES (#{postId}, #{tagId})
+    @Delete("""
+            <script>
+            DELETE FROM blog_post_tag
+            WHERE post_id = #{postId}
+              AND tag_id IN
+            <foreach collection="tagIds" item="tagId" open="(" separator="," close=")">#{tagId}</foreach>
+            </script>
             """)
-    void insertPostTag(@Param("postId") Long postId, @Param("tagId") Long tagId);
+    int deletePostTagsByIds(@Param("postId") Long postId, @Param("tagIds") Collection<Long> tagIds);
 
     /**
      * 删除文章的所有标签关联
      */
-    @org.apache.ibatis.annotations.Delete("""
+    @Delete("""
             DELETE FROM blog_post_tag WHERE post_id = #{postId}
             """)
     void deletePostTags(@Param("postId") Long postId);
@@ -0,0 +1,120 @@
+package com.xander.lab.mapper;
+
+import com.xander.lab.dto.ViewTrendPointVO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 博客阅读汇总 Mapper（blog_post_view_hourly / blog_post_view_daily / blog_view_rollup_state）
+ */
+@Mapper
+public interface BlogViewRollupMapper {
+
+    /**
+     * 读取并锁定汇总进度（事务内调用，多实例串行汇总）
+     */
+    @Select("SELECT last_view_id FROM blog_view_rollup_state WHERE name = #{name} FOR UPDATE")
+    Long lockWatermark(@Param("name") String name);
+
+    @Select("SELECT last_view_id FROM blog_view_rollup_state WHERE name = #{name}")
+    Long selectWatermark(@Param("name") String name);
+
+    @Insert("INSERT IGNORE INTO blog_view_rollup_state (name, last_view_id) VALUES (#{name}, 0)")
+    int initWatermark(@Param("name") String name);
+
+    @Update("UPDATE blog_view_rollup_state SET last_view_id = #{lastViewId} WHERE name = #{name}")
+    int updateWatermark(@Param("name") String name, @Param("lastViewId") long lastViewId);
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM blog_post_view")
+    long selectMaxViewId();
+
+    /**
+     * 把 (fromId, toId] 范围内的阅读记录累加到小时汇总
+     */
+    @Insert("""
+            INSERT INTO blog_post_view_hourly (post_id, bucket_start, views)
+            SELECT post_id, DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00') AS bucket_start, COUNT(*)
+            FROM blog_post_view
+            WHERE id > #{fromId} AND id <= #{toId}
+            GROUP BY post_id, bucket_start
+            ON DUPLICATE KEY UPDATE views = views + VALUES(views)
+            """)
+    int rollUpHourly(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 把 (fromId, toId] 范围内的阅读记录累加到日汇总
+     */
+    @Insert("""
+            INSERT INTO blog_post_view_daily (post_id, bucket_date, views)
+            SELECT post_id, DATE(created_at) AS bucket_date, COUNT(*)
+            FROM blog_post_view
+            WHERE id > #{fromId} AND id <= #{toId}
+            GROUP BY post_id, bucket_date
+            ON DUPLICATE KEY UPDATE views = views + VALUES(views)
+            """)
+    int rollUpDaily(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 分块删除已汇总且超过保留期的阅读记录
+     */
+    @Delete("""
+            DELETE FROM blog_post_view
+            WHERE id <= #{maxId} AND created_at < #{before}
+            ORDER BY id
+            LIMIT #{limit}
+            """)
+    int purgeRawViews(@Param("maxId") long maxId, @Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 分块删除超过保留期的小时汇总
+     */
+    @Delete("""
+            DELETE FROM blog_post_view_hourly
+            WHERE bucket_start < #{before}
+            ORDER BY bucket_start
+            LIMIT #{limit}
+            """)
+    int purgeHourly(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    @Select("""
+            SELECT bucket_start AS bucket, views
+            FROM blog_post_view_hourly
+            WHERE post_id = #{postId} AND bucket_start >= #{from}
+            ORDER BY bucket_start
+            """)
+    List<ViewTrendPointVO> selectPostHourly(@Param("postId") Long postId, @Param("from") LocalDateTime from);
+
+    @Select("""
+            SELECT bucket_start AS bucket, SUM(views) AS views
+            FROM blog_post_view_hourly
+            WHERE bucket_start >= #{from}
+            GROUP BY bucket_start
+            ORDER BY bucket_start
+            """)
+    List<ViewTrendPointVO> selectSiteHourly(@Param("from") LocalDateTime from);
+
+    @Select("""
+            SELECT TIMESTAMP(bucket_date) AS bucket, views
+            FROM blog_post_view_daily
+            WHERE post_id = #{postId} AND bucket_date >= #{from}
+            ORDER BY bucket_date
+            """)
+    List<ViewTrendPointVO> selectPostDaily(@Param("postId") Long postId, @Param("from") LocalDate from);
+
+    @Select("""
+            SELECT TIMESTAMP(bucket_date) AS bucket, SUM(views) AS views
+            FROM blog_post_view_daily
+            WHERE bucket_date >= #{from}
+            GROUP BY bucket_date
+            ORDER BY bucket_date
+            """)
+    List<ViewTrendPointVO> selectSiteDaily(@Param("from") LocalDate from);
+}
@@ -1,9 +1,29 @@
 package com.xander.lab.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xander.lab.dto.ContentVersion;
 import com.xander.lab.entity.ComponentItem;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
 
 @Mapper
 public interface ComponentItemMapper extends BaseMapper<ComponentItem> {
+
+    /**
+     * 组件库整体版本：四张表的最大 updated_at 与总行数
+     * 组件库数据量很小，这里只扫描时间列，不读取 LONGTEXT 代码字段
+     */
+    @Select("""
+            SELECT GREATEST(
+                       COALESCE((SELECT MAX(updated_at) FROM component_category), '1970-01-01 00:00:00'),
+                       COALESCE((SELECT MAX(updated_at) FROM component_item), '1970-01-01 00:00:00'),
+                       COALESCE((SELECT MAX(updated_at) FROM component_scenario), '1970-01-01 00:00:00'),
+                       COALESCE((SELECT MAX(updated_at) FROM component_detail_page), '1970-01-01 00:00:00')
+                   ) AS last_modified,
+                   (SELECT COUNT(*) FROM component_category)
+                       + (SELECT COUNT(*) FROM component_item)
+                       + (SELECT COUNT(*) FROM component_scenario)
+                       + (SELECT COUNT(*) FROM component_detail_page) AS total_rows
+            """)
+    ContentVersion selectCatalogVersion();
 }
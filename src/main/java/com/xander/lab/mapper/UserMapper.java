@@ -3,10 +3,24 @@ package com.xander.lab.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.xander.lab.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
 /**
  * 用户 Mapper
  */
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * 流式读取用户（导出用，不含密码和邮箱），游标只能在事务内迭代
+     *
+     * @param maxExecutionMs 服务端执行上限（含逐行发送），超时后 MySQL 中止查询
+     */
+    @Select("SELECT /*+ MAX_EXECUTION_TIME(${maxExecutionMs}) */ id, username, nickname, role, created_at FROM sys_user ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<User> streamForExport(@Param("maxExecutionMs") long maxExecutionMs);
 }
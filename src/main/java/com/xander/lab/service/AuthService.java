@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.xander.lab.common.Constants;
 import com.xander.lab.dto.auth.LoginRequest;
 import com.xander.lab.dto.auth.TokenResponse;
+import com.xander.lab.dto.auth.UserProfile;
 import com.xander.lab.entity.User;
 import com.xander.lab.mapper.UserMapper;
 import com.xander.lab.util.JwtUtil;
@@ -30,6 +31,7 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final MailService mailService;
     private final UserMapper userMapper;
+    private final UserProfileCache userProfileCache;
     private final StringRedisTemplate redisTemplate;
 
     /**
@@ -88,7 +90,7 @@ public class AuthService {
             throw new IllegalArgumentException("账号已被禁用，请联系管理员");
         }
 
-        return generateTokenResponse(user);
+        return generateTokenResponse(UserProfile.from(user));
     }
 
     /**
@@ -112,6 +114,7 @@ public class AuthService {
     /**
      * 刷新 Access Token
      * 验证 refreshToken JWT 有效性，生成新的 token 对
+     * 用户状态直接查库：被禁用的账号不能在资料缓存过期前继续换发 token
      */
     public TokenResponse refresh(String refreshToken) {
         if (!jwtUtil.isValid(refreshToken) || !jwtUtil.isRefreshToken(refreshToken)) {
@@ -124,7 +127,7 @@ public class AuthService {
             throw new IllegalArgumentException("用户状态异常");
         }
 
-        return generateTokenResponse(user);
+        return generateTokenResponse(UserProfile.from(user));
     }
 
     /**
@@ -160,7 +163,7 @@ public class AuthService {
             throw new IllegalArgumentException("Token 无效或已过期");
         }
         String userId = jwtUtil.getSubject(token);
-        User user = userMapper.selectById(userId);
+        UserProfile user = userProfileCache.get(Long.valueOf(userId));
         if (user == null) {
             throw new IllegalArgumentException("用户不存在");
         }
@@ -168,9 +171,9 @@ public class AuthService {
         return buildUserInfo(user);
     }
 
-    private TokenResponse generateTokenResponse(User user) {
-        String userIdStr = String.valueOf(user.getId());
-        Map<String, Object> claims = Map.of("role", user.getRole(), "type", "access");
+    private TokenResponse generateTokenResponse(UserProfile user) {
+        String userIdStr = String.valueOf(user.id());
+        Map<String, Object> claims = Map.of("role", user.role(), "type", "access");
         String accessToken = jwtUtil.generateAccessToken(userIdStr, claims);
         String refreshToken = jwtUtil.generateRefreshToken(userIdStr);
 
@@ -193,12 +196,12 @@ public class AuthService {
                 .build();
     }
 
-    private TokenResponse.UserInfo buildUserInfo(User user) {
+    private TokenResponse.UserInfo buildUserInfo(UserProfile user) {
         return TokenResponse.UserInfo.builder()
-                .username(user.getUsername())
-                .nickname(user.getNickname())
-                .avatar(user.getAvatar())
-                .role(user.getRole())
+                .username(user.username())
+                .nickname(user.nickname())
+                .avatar(user.avatar())
+                .role(user.role())
                 .build();
     }
 
@@ -240,6 +243,6 @@ public class AuthService {
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.insert(user);
-        return generateTokenResponse(user);
+        return generateTokenResponse(UserProfile.from(user));
     }
 }
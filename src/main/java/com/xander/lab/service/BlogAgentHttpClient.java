@@ -0,0 +1,186 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogAgentProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Shared HTTP client for the blog agent: model calls, model streams, image generation and image downloads.
+ *
+ * <pre>
+ * Connections: one JDK HttpClient with a keep-alive pool; HTTP/2 is negotiated where the server supports it
+ * Timeouts:    connect timeout is shared, each operation has its own wait for the response headers
+ * Metrics:     blog.agent.http.requests{client,status} until the response is closed,
+ *              blog.agent.http.active{client} requests in flight, plus Spring's http.client.requests
+ * </pre>
+ */
+@Component
+public class BlogAgentHttpClient {
+
+    private final RestClient model;
+    private final RestClient stream;
+    private final RestClient image;
+    private final RestClient download;
+
+    public BlogAgentHttpClient(BlogAgentProperties properties, RestClient.Builder builder, MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.model = build(builder, httpClient, meterRegistry, "model", properties.getModelTimeout(), properties);
+        this.stream = build(builder, httpClient, meterRegistry, "stream", properties.getStreamTimeout(), properties);
+        this.image = build(builder, httpClient, meterRegistry, "image", properties.getImageTimeout(), properties);
+        // Downloads go to whatever host the image API returned, so they never carry the API key.
+        this.download = build(builder, httpClient, meterRegistry, "download", properties.getImageTimeout(), null);
+    }
+
+    /** Non-streaming calls to the model endpoint (base URL and credentials preset). */
+    public RestClient model() {
+        return model;
+    }
+
+    /** Streaming calls to the model endpoint; only the wait for the first response is limited. */
+    public RestClient stream() {
+        return stream;
+    }
+
+    /** Image generation calls to the model endpoint. */
+    public RestClient image() {
+        return image;
+    }
+
+    /** Anonymous downloads of generated images by absolute URL. */
+    public RestClient download() {
+        return download;
+    }
+
+    private static RestClient build(RestClient.Builder builder, HttpClient httpClient, MeterRegistry meterRegistry,
+                                    String name, Duration timeout, BlogAgentProperties endpoint) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(timeout);
+        RestClient.Builder client = builder.clone()
+                .requestFactory(requestFactory)
+                .requestInterceptor(new MeteredInterceptor(name, meterRegistry));
+        if (endpoint != null) {
+            client.baseUrl(trimTrailingSlash(endpoint.getBaseUrl()));
+            if (StringUtils.hasText(endpoint.getApiKey())) {
+                client.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + endpoint.getApiKey());
+            }
+        }
+        return client.build();
+    }
+
+    private static String trimTrailingSlash(String value) {
+        return value != null && value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+    }
+
+    /** Times each request until its response is closed, so streamed bodies are included. */
+    private static final class MeteredInterceptor implements ClientHttpRequestInterceptor {
+
+        private final String name;
+        private final MeterRegistry meterRegistry;
+        private final AtomicInteger active = new AtomicInteger();
+
+        MeteredInterceptor(String name, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.meterRegistry = meterRegistry;
+            Gauge.builder("blog.agent.http.active", active, AtomicInteger::get)
+                    .tag("client", name)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            long start = System.nanoTime();
+            active.incrementAndGet();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                finish(start, "IO_ERROR");
+                throw e;
+            }
+            return new MeteredResponse(response, status -> finish(start, status));
+        }
+
+        private void finish(long start, String status) {
+            active.decrementAndGet();
+            Timer.builder("blog.agent.http.requests")
+                    .tag("client", name)
+                    .tag("status", status)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private static final class MeteredResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Consumer<String> onClose;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        MeteredResponse(ClientHttpResponse delegate, Consumer<String> onClose) {
+            this.delegate = delegate;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            String status;
+            try {
+                status = String.valueOf(delegate.getStatusCode().value());
+            } catch (IOException e) {
+                status = "IO_ERROR";
+            }
+            try {
+                delegate.close();
+            } finally {
+                onClose.accept(status);
+            }
+        }
+    }
+}
@@ -5,15 +5,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xander.lab.config.BlogAgentProperties;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestClient;
 
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
 import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -23,6 +19,7 @@ import java.util.Map;
 public class BlogAgentImageClient {
     private final BlogAgentProperties properties;
     private final ObjectMapper objectMapper;
+    private final BlogAgentHttpClient httpClient;
 
     public boolean isEnabled() {
         return StringUtils.hasText(properties.getApiKey()) && StringUtils.hasText(properties.getImageModel());
@@ -37,10 +34,7 @@ public class BlogAgentImageClient {
         payload.put("size", properties.getImageSize());
         payload.put("n", 1);
 
-        JsonNode response = RestClient.builder()
-                .baseUrl(trimTrailingSlash(properties.getBaseUrl()))
-                .defaultHeader("Authorization", "Bearer " + properties.getApiKey())
-                .build()
+        JsonNode response = httpClient.image()
                 .post()
                 .uri("/images/generations")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -60,32 +54,26 @@ public class BlogAgentImageClient {
 
     private GeneratedImage download(String url) {
         try {
-            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
-                    .timeout(Duration.ofMinutes(3))
-                    .GET()
-                    .build();
-            HttpResponse<byte[]> response = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(15))
-                    .followRedirects(HttpClient.Redirect.NORMAL)
-                    .build()
-                    .send(request, HttpResponse.BodyHandlers.ofByteArray());
-            if (response.statusCode() < 200 || response.statusCode() >= 300 || response.body().length == 0) {
-                throw new IllegalStateException("下载生成图片失败（HTTP " + response.statusCode() + "）");
+            ResponseEntity<byte[]> response = httpClient.download()
+                    .get()
+                    .uri(URI.create(url))
+                    .retrieve()
+                    .onStatus(status -> true, (request, ignored) -> { })
+                    .toEntity(byte[].class);
+            byte[] body = response.getBody();
+            if (!response.getStatusCode().is2xxSuccessful() || body == null || body.length == 0) {
+                throw new IllegalStateException("下载生成图片失败（HTTP " + response.getStatusCode().value() + "）");
             }
-            String contentType = response.headers().firstValue("Content-Type").orElse("image/png").split(";")[0];
+            MediaType mediaType = response.getHeaders().getContentType();
+            String contentType = mediaType == null ? "image/png" : mediaType.getType() + "/" + mediaType.getSubtype();
             String extension = contentType.contains("jpeg") ? "jpg" : contentType.contains("webp") ? "webp" : "png";
-            return new GeneratedImage(response.body(), contentType, extension);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IllegalStateException("下载生成图片被中断", e);
+            return new GeneratedImage(body, contentType, extension);
+        } catch (IllegalStateException e) {
+            throw e;
         } catch (Exception e) {
             throw new IllegalStateException("下载生成图片失败：" + e.getMessage(), e);
         }
     }
 
-    private String trimTrailingSlash(String value) {
-        return value != null && value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
-    }
-
     public record GeneratedImage(byte[] bytes, String contentType, String extension) {}
 }
@@ -7,18 +7,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestClient;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /** Calls a Responses-compatible model endpoint. Model credentials are configuration only. */
 @Component
@@ -26,9 +25,11 @@ import java.util.Map;
 public class BlogAgentModelClient {
     private final BlogAgentProperties properties;
     private final ObjectMapper objectMapper;
+    private final BlogAgentHttpClient httpClient;
+    private final BlogAgentStageCache stageCache;
 
     public JsonNode analyze(String input) {
-        return requestJson(
+        return cachedJson("analyze",
                 "你是知识博客策划编辑。只分析用户真正想写什么、必须保留什么、哪些信息需要查证。"
                         + "不要写文章，不要搜索。仅返回 JSON："
                         + "{\"angle\":string,\"inputNature\":string,\"audience\":string,"
@@ -37,7 +38,7 @@ public class BlogAgentModelClient {
     }
 
     public JsonNode research(String input, JsonNode analysis) {
-        return requestJson(
+        return cachedJson("research",
                 "你是知识博客研究员。使用网页搜索核验和补全用户主题，只保留与文章主线直接相关的权威信息。"
                         + "不要写文章。仅返回 JSON："
                         + "{\"findings\":[{\"claim\":string,\"evidence\":string,\"url\":string,\"publisher\":string}],"
@@ -76,10 +77,7 @@ public class BlogAgentModelClient {
             payload.put("tools", List.of(Map.of("type", "web_search")));
         }
 
-        JsonNode response = RestClient.builder()
-                .baseUrl(trimTrailingSlash(properties.getBaseUrl()))
-                .defaultHeader("Authorization", "Bearer " + properties.getApiKey())
-                .build()
+        JsonNode response = httpClient.model()
                 .post()
                 .uri("/responses")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -106,59 +104,75 @@ public class BlogAgentModelClient {
 
     private JsonNode streamJson(Map<String, Object> payload, Consumer<String> onDelta) {
         payload.put("stream", true);
-        HttpURLConnection connection = null;
-        StringBuilder output = new StringBuilder();
         try {
-            connection = (HttpURLConnection) URI.create(trimTrailingSlash(properties.getBaseUrl()) + "/responses").toURL().openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Authorization", "Bearer " + properties.getApiKey());
-            connection.setRequestProperty("Content-Type", MediaType.APPLICATION_JSON_VALUE);
-            connection.setRequestProperty("Accept", MediaType.TEXT_EVENT_STREAM_VALUE);
-            connection.setDoOutput(true);
-            connection.setConnectTimeout(15_000);
-            connection.setReadTimeout(0);
-            connection.getOutputStream().write(objectMapper.writeValueAsBytes(payload));
-
-            int status = connection.getResponseCode();
-            if (status < 200 || status >= 300) {
-                throw new IllegalStateException("模型服务请求失败（HTTP " + status + "）：" + readError(connection.getErrorStream()));
-            }
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (!line.startsWith("data:")) continue;
-                    String data = line.substring(5).trim();
-                    if (data.isEmpty() || "[DONE]".equals(data)) continue;
-                    JsonNode event = objectMapper.readTree(data);
-                    String type = event.path("type").asText();
-                    if ("response.output_text.delta".equals(type)) {
-                        String delta = event.path("delta").asText("");
-                        output.append(delta);
-                        onDelta.accept(delta);
-                    } else if ("response.output_text.done".equals(type) && output.isEmpty()) {
-                        String text = event.path("text").asText("");
-                        output.append(text);
-                        onDelta.accept(text);
-                    } else if ("response.completed".equals(type) && output.isEmpty()) {
-                        String text = extractOutputText(event.path("response"));
-                        output.append(text == null ? "" : text);
-                    } else if ("error".equals(type)) {
-                        throw new IllegalStateException("模型服务返回错误：" + event.path("message").asText("未知错误"));
-                    }
-                }
-            }
+            String output = httpClient.stream()
+                    .post()
+                    .uri("/responses")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .body(payload)
+                    .exchange((request, response) -> {
+                        int status = response.getStatusCode().value();
+                        if (status < 200 || status >= 300) {
+                            throw new IllegalStateException("模型服务请求失败（HTTP " + status + "）：" + readError(response.getBody()));
+                        }
+                        return readStream(response.getBody(), onDelta);
+                    });
             if (!StringUtils.hasText(output)) throw new IllegalStateException("模型没有返回可读取的文章结果");
-            return objectMapper.readTree(stripCodeFence(output.toString()));
+            return objectMapper.readTree(stripCodeFence(output));
         } catch (IllegalStateException e) {
             throw e;
         } catch (Exception e) {
             throw new IllegalStateException("读取模型流式结果失败：" + e.getMessage(), e);
-        } finally {
-            if (connection != null) connection.disconnect();
         }
     }
 
+    private String readStream(InputStream body, Consumer<String> onDelta) throws IOException {
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) continue;
+                String data = line.substring(5).trim();
+                if (data.isEmpty() || "[DONE]".equals(data)) continue;
+                JsonNode event = objectMapper.readTree(data);
+                String type = event.path("type").asText();
+                if ("response.output_text.delta".equals(type)) {
+                    String delta = event.path("delta").asText("");
+                    output.append(delta);
+                    onDelta.accept(delta);
+                } else if ("response.output_text.done".equals(type) && output.isEmpty()) {
+                    String text = event.path("text").asText("");
+                    output.append(text);
+                    onDelta.accept(text);
+                } else if ("response.completed".equals(type) && output.isEmpty()) {
+                    String text = extractOutputText(event.path("response"));
+                    output.append(text == null ? "" : text);
+                } else if ("error".equals(type)) {
+                    throw new IllegalStateException("模型服务返回错误：" + event.path("message").asText("未知错误"));
+                }
+            }
+        }
+        return output.toString();
+    }
+
+    /** Stage calls whose answer depends only on model, instructions and input; retries and near-duplicate tasks reuse them. */
+    private JsonNode cachedJson(String stage, String instruction, String input, boolean webSearch) {
+        String model = properties.getModel() + (webSearch && properties.isWebSearchEnabled() ? "+web_search" : "");
+        return stageCache.get(stage, model, instruction, input, () -> {
+            long started = System.nanoTime();
+            JsonNode response = callModel(instruction, input, webSearch);
+            return new BlogAgentStageCache.StageResult(parseStageResult(response),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                    response == null ? 0 : response.path("usage").path("total_tokens").asLong(0));
+        });
+    }
+
     private JsonNode requestJson(String instruction, String input, boolean webSearch) {
+        return parseStageResult(callModel(instruction, input, webSearch));
+    }
+
+    private JsonNode callModel(String instruction, String input, boolean webSearch) {
         if (!StringUtils.hasText(properties.getApiKey()) || !StringUtils.hasText(properties.getModel())) {
             throw new IllegalStateException("博客智能体尚未配置模型服务");
         }
@@ -170,16 +184,16 @@ public class BlogAgentModelClient {
         if (webSearch && properties.isWebSearchEnabled()) {
             payload.put("tools", List.of(Map.of("type", "web_search")));
         }
-        JsonNode response = RestClient.builder()
-                .baseUrl(trimTrailingSlash(properties.getBaseUrl()))
-                .defaultHeader("Authorization", "Bearer " + properties.getApiKey())
-                .build()
+        return httpClient.model()
                 .post()
                 .uri("/responses")
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(payload)
                 .retrieve()
                 .body(JsonNode.class);
+    }
+
+    private JsonNode parseStageResult(JsonNode response) {
         String text = extractOutputText(response);
         if (!StringUtils.hasText(text)) throw new IllegalStateException("模型没有返回可读取的阶段结果");
         try {
@@ -249,8 +263,4 @@ public class BlogAgentModelClient {
         }
         return trimmed;
     }
-
-    private String trimTrailingSlash(String value) {
-        return value != null && value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
-    }
 }
@@ -0,0 +1,192 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogAgentProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for agent runs (run, run stream and revise stream).
+ *
+ * <pre>
+ * Limits:  at most max-concurrent-runs execute on this node, at most max-runs-per-user per user
+ * Queue:   FIFO; a waiting run only yields to later runs while its own user is at the per-user limit
+ * Events:  waiting runs are told their 1-based queue position whenever it changes
+ * Reject:  full queue, or a user who already has max-runs-per-user runs waiting, gets 429
+ * Metrics: blog.agent.runs.active, blog.agent.runs.queued
+ * </pre>
+ *
+ * Waiting runs hold no thread; the worker pool is sized to the run limit and only ever has
+ * admitted runs on it, so it never queues or rejects work itself.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlogAgentRunQueue {
+
+    private final BlogAgentProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final LinkedList<Entry<?>> waiting = new LinkedList<>();
+    private final Map<Long, Integer> runningByUser = new HashMap<>();
+    private int running;
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    void initialize() {
+        int slots = Math.max(1, properties.getMaxConcurrentRuns());
+        AtomicInteger threads = new AtomicInteger();
+        workers = new ThreadPoolExecutor(slots, slots, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable ->
+                new Thread(runnable, "blog-agent-" + threads.incrementAndGet()));
+        workers.allowCoreThreadTimeOut(true);
+        Gauge.builder("blog.agent.runs.active", this, queue -> queue.running()).register(meterRegistry);
+        Gauge.builder("blog.agent.runs.queued", this, queue -> queue.queued()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues a run and returns its result future. Cancelling the future before the run starts
+     * (e.g. the SSE client went away) removes it from the queue; a started run is never interrupted.
+     *
+     * @param onQueued receives the queue position while the run waits (not called if it starts at once)
+     * @throws ResponseStatusException 429 when the queue or the user's share of it is full
+     */
+    public <T> CompletableFuture<T> submit(Long userId, IntConsumer onQueued, Supplier<T> job) {
+        Entry<T> entry = new Entry<>(userId, onQueued, job);
+        synchronized (this) {
+            if (waiting.size() >= Math.max(0, properties.getMaxQueuedRuns())) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "智能体繁忙，排队人数已满，请稍后重试");
+            }
+            long mine = waiting.stream().filter(other -> other.userId.equals(userId)).count();
+            if (mine >= perUserLimit()) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "你已有任务在排队，请等待当前任务完成后再试");
+            }
+            waiting.addLast(entry);
+        }
+        entry.future.whenComplete((result, error) -> {
+            if (entry.future.isCancelled() && entry.cancel()) {
+                synchronized (this) {
+                    waiting.remove(entry);
+                }
+                dispatch();
+            }
+        });
+        dispatch();
+        return entry.future;
+    }
+
+    synchronized int running() {
+        return running;
+    }
+
+    synchronized int queued() {
+        return waiting.size();
+    }
+
+    private void dispatch() {
+        List<Entry<?>> admitted = new ArrayList<>();
+        List<Entry<?>> stillWaiting;
+        synchronized (this) {
+            Iterator<Entry<?>> iterator = waiting.iterator();
+            while (running < Math.max(1, properties.getMaxConcurrentRuns()) && iterator.hasNext()) {
+                Entry<?> entry = iterator.next();
+                if (runningByUser.getOrDefault(entry.userId, 0) >= perUserLimit()) {
+                    continue;
+                }
+                iterator.remove();
+                running++;
+                runningByUser.merge(entry.userId, 1, Integer::sum);
+                admitted.add(entry);
+            }
+            stillWaiting = List.copyOf(waiting);
+        }
+        admitted.forEach(entry -> workers.execute(() -> run(entry)));
+        for (int i = 0; i < stillWaiting.size(); i++) {
+            stillWaiting.get(i).notifyPosition(i + 1);
+        }
+    }
+
+    private <T> void run(Entry<T> entry) {
+        try {
+            if (entry.start()) {
+                entry.future.complete(entry.job.get());
+            }
+        } catch (Throwable e) {
+            entry.future.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                running--;
+                runningByUser.computeIfPresent(entry.userId, (user, count) -> count > 1 ? count - 1 : null);
+            }
+            dispatch();
+        }
+    }
+
+    private int perUserLimit() {
+        return Math.max(1, properties.getMaxRunsPerUser());
+    }
+
+    private static final class Entry<T> {
+
+        private final Long userId;
+        private final IntConsumer onQueued;
+        private final Supplier<T> job;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private boolean started;
+        private boolean cancelled;
+        private int position;
+
+        Entry(Long userId, IntConsumer onQueued, Supplier<T> job) {
+            this.userId = userId;
+            this.onQueued = onQueued;
+            this.job = job;
+        }
+
+        synchronized boolean start() {
+            if (cancelled) return false;
+            started = true;
+            return true;
+        }
+
+        synchronized boolean cancel() {
+            if (started) return false;
+            cancelled = true;
+            return true;
+        }
+
+        /** Sent under the entry lock so a stale position can never follow the run's own events. */
+        synchronized void notifyPosition(int newPosition) {
+            if (started || cancelled || position == newPosition) return;
+            position = newPosition;
+            try {
+                onQueued.accept(newPosition);
+            } catch (RuntimeException e) {
+                log.debug("[BlogAgent] 排队位置推送失败: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogAgentProperties;
+import com.xander.lab.dto.agent.BlogAgentOrphanRun;
+import com.xander.lab.mapper.BlogAgentTaskMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps agent run leases alive and recovers runs orphaned by a crashed or restarted node.
+ *
+ * <pre>
+ * Renew:  every lease-renew-interval, extends the leases of runs executing on this node;
+ *         runs on a dedicated thread, not the shared scheduler, so a slow job cannot let leases lapse
+ * Sweep:  every sweep-interval, finds running tasks whose lease expired
+ *         generation with resumes left → resumed through the run queue from its checkpoints
+ *         generation out of resumes    → failed (checkpoints kept for a manual rerun)
+ *         revision                     → back to ready, like a failed revision
+ * </pre>
+ *
+ * Every node sweeps; the lease claim in the task row decides which node takes an orphan, and a
+ * run that lost its lease anyway cannot write its result over the resumed run's.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlogAgentRunSweeper {
+
+    private static final int SWEEP_BATCH = 20;
+
+    private final BlogAgentTaskMapper taskMapper;
+    private final BlogAgentService agentService;
+    private final BlogAgentRunQueue runQueue;
+    private final BlogAgentProperties properties;
+
+    /** Orphans this node has queued for resume and not finished yet */
+    private final Set<Long> resuming = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService leaseRenewer;
+
+    @PostConstruct
+    void startLeaseRenewal() {
+        leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "blog-agent-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, properties.getLeaseRenewIntervalMs());
+        leaseRenewer.scheduleWithFixedDelay(this::renew, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopLeaseRenewal() {
+        leaseRenewer.shutdownNow();
+    }
+
+    public void renew() {
+        try {
+            agentService.renewLeases();
+        } catch (Exception e) {
+            log.warn("[BlogAgent] 续期执行租约失败: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${blog.agent.sweep-interval-ms:60000}",
+            initialDelayString = "${blog.agent.sweep-initial-delay-ms:60000}"
+    )
+    public void sweep() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (BlogAgentOrphanRun orphan : taskMapper.selectOrphans(now, now.minus(properties.getRunLease()),
+                    SWEEP_BATCH)) {
+                recover(orphan);
+            }
+        } catch (Exception e) {
+            log.error("[BlogAgent] 清理中断任务失败", e);
+        }
+    }
+
+    private void recover(BlogAgentOrphanRun orphan) {
+        Long taskId = orphan.getId();
+        if (!resuming.add(taskId)) {
+            return;
+        }
+        boolean revision = BlogAgentService.RUN_REVISE.equals(orphan.getRunKind());
+        int resumes = orphan.getResumeCount() == null ? 0 : orphan.getResumeCount();
+        try {
+            if (revision || resumes >= properties.getMaxResumes()) {
+                agentService.abandon(taskId, orphan.getUserId(),
+                        revision ? BlogAgentService.RUN_REVISE : BlogAgentService.RUN_GENERATE);
+                log.warn("[BlogAgent] 中断任务已结束: taskId={}, kind={}, resumes={}", taskId, orphan.getRunKind(), resumes);
+                resuming.remove(taskId);
+                return;
+            }
+            runQueue.submit(orphan.getUserId(), position -> { }, () -> agentService.resume(taskId))
+                    .whenComplete((task, error) -> {
+                        resuming.remove(taskId);
+                        if (error != null) {
+                            log.warn("[BlogAgent] 恢复中断任务失败: taskId={}, reason={}", taskId, error.getMessage());
+                        }
+                    });
+            log.info("[BlogAgent] 已排队恢复中断任务: taskId={}, resumes={}", taskId, resumes + 1);
+        } catch (ResponseStatusException e) {
+            // Queue saturated: the lease is still expired, so the next sweep tries again.
+            resuming.remove(taskId);
+        } catch (RuntimeException e) {
+            // Usually another node claimed the task first.
+            resuming.remove(taskId);
+            log.debug("[BlogAgent] 跳过中断任务: taskId={}, reason={}", taskId, e.getMessage());
+        }
+    }
+}
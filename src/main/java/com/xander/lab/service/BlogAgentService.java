@@ -20,7 +20,11 @@ import com.xander.lab.mapper.BlogAgentSourceMapper;
 import com.xander.lab.mapper.BlogAgentTaskMapper;
 import com.xander.lab.mapper.BlogAgentVersionMapper;
 import com.xander.lab.mapper.BlogAgentMessageMapper;
+import com.xander.lab.mapper.BlogAgentCheckpointMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -29,12 +33,31 @@ import org.springframework.util.StringUtils;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BlogAgentService {
+    static final String RUN_GENERATE = "generate";
+    static final String RUN_REVISE = "revise";
+    /** Marks an illustration still waiting for a pool thread. */
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
     private final BlogAgentTaskMapper taskMapper;
     private final BlogAgentSourceMapper sourceMapper;
     private final BlogAgentVersionMapper versionMapper;
@@ -42,10 +65,35 @@ public class BlogAgentService {
     private final ObjectMapper objectMapper;
     private final TransactionTemplate transactionTemplate;
     private final BlogService blogService;
+    private final IdempotencyGuard idempotencyGuard;
     private final BlogAgentImageClient imageClient;
     private final BlogMediaService mediaService;
     private final BlogAgentProperties properties;
     private final BlogAgentMessageMapper messageMapper;
+    private final BlogAgentCheckpointMapper checkpointMapper;
+
+    /** Lease owner written to blog_agent_task while this node executes a run. */
+    private final String nodeId = UUID.randomUUID().toString();
+    /** Runs executing on this node, whose leases {@link #renewLeases()} keeps alive. */
+    private final Set<Long> localRuns = ConcurrentHashMap.newKeySet();
+
+    /** Bounded pool shared by all tasks, so parallel illustrations stay within provider limits. */
+    private ExecutorService illustrationExecutor;
+
+    @PostConstruct
+    void startIllustrationPool() {
+        AtomicInteger threads = new AtomicInteger();
+        illustrationExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getIllustrationConcurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "blog-agent-illustrate-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopIllustrationPool() {
+        illustrationExecutor.shutdownNow();
+    }
 
     @Transactional
     public BlogAgentTask create(Long userId, BlogAgentTaskCreateRequest request) {
@@ -86,30 +134,139 @@ public class BlogAgentService {
         });
     }
 
+    /**
+     * Resumes a run orphaned by another node, skipping the stages it already checkpointed.
+     * Called by {@link BlogAgentRunSweeper}; fails if another node claimed the task first.
+     */
+    public BlogAgentTaskVO resume(Long taskId) {
+        BlogAgentTask task = taskMapper.selectById(taskId);
+        if (task == null) throw new IllegalArgumentException("智能体任务不存在");
+        return execute(taskId, task.getUserId(), false, (event, data) -> { }, true);
+    }
+
+    /**
+     * Settles an orphaned run that will not be resumed: a generation is marked failed (its
+     * checkpoints stay, so a manual rerun continues where it stopped), a revision returns to ready.
+     */
+    public void abandon(Long taskId, Long userId, String runKind) {
+        claimRun(taskId, userId, runKind, true);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (RUN_REVISE.equals(runKind)) {
+                    markRevisionFailed(taskId, userId, "服务节点中断，本轮修改未完成");
+                } else {
+                    markFailed(taskId, userId, "服务节点中断，已停止自动恢复，可重新运行继续");
+                }
+            });
+        } finally {
+            releaseRun(taskId);
+        }
+    }
+
+    /** Extends the leases of runs executing on this node; called by the sweeper's lease thread. */
+    public void renewLeases() {
+        if (localRuns.isEmpty()) return;
+        taskMapper.renewLeases(nodeId, List.copyOf(localRuns), LocalDateTime.now().plus(properties.getRunLease()));
+    }
+
     private BlogAgentTaskVO execute(Long taskId, Long userId, boolean streaming, BiConsumer<String, String> onEvent) {
-        transactionTemplate.executeWithoutResult(status -> markRunning(taskId, userId));
+        return execute(taskId, userId, streaming, onEvent, false);
+    }
 
+    /**
+     * Runs analyze → research → write → illustrate → review. Each finished stage is checkpointed,
+     * so a rerun after a failure or crash replays only the unfinished stages; the checkpoints are
+     * cleared together with the final result.
+     */
+    private BlogAgentTaskVO execute(Long taskId, Long userId, boolean streaming, BiConsumer<String, String> onEvent,
+                                    boolean resumed) {
+        claimRun(taskId, userId, RUN_GENERATE, resumed);
         try {
-            updateStage(taskId, userId, "analyze", "正在理解你的目标和文章边界", onEvent);
-            JsonNode analysis = modelClient.analyze(getInput(taskId, userId));
-            updateStage(taskId, userId, "research", "正在联网查找并核验相关资料", onEvent);
-            JsonNode research = modelClient.research(getInput(taskId, userId), analysis);
-            updateStage(taskId, userId, "write", "正在根据策划和调研结果撰写文章草稿", onEvent);
-            String writingInput = getInput(taskId, userId)
+            String input = getInput(taskId, userId);
+            JsonNode analysis = checkpointed(taskId, userId, "analyze", "正在理解你的目标和文章边界", onEvent,
+                    () -> modelClient.analyze(input), ignored -> { });
+            JsonNode research = checkpointed(taskId, userId, "research", "正在联网查找并核验相关资料", onEvent,
+                    () -> modelClient.research(input, analysis), ignored -> { });
+            String writingInput = input
                     + "\n\n策划结果：\n" + analysis
                     + "\n\n调研结果：\n" + research;
-            JsonNode result = streaming
-                    ? modelClient.createArticleStream(writingInput, delta -> onEvent.accept("delta", delta))
-                    : modelClient.createArticle(writingInput);
-            transactionTemplate.executeWithoutResult(status -> persistArticleDraft(taskId, userId, result));
-            updateStage(taskId, userId, "illustrate", "正在按需生成并保存知识插图", onEvent);
-            IllustrationOutcome outcome = generateIllustrations(taskId, userId, result.path("illustrations"));
+            JsonNode result = checkpointed(taskId, userId, "write", "正在根据策划和调研结果撰写文章草稿", onEvent,
+                    () -> streaming
+                            ? modelClient.createArticleStream(writingInput, delta -> onEvent.accept("delta", delta))
+                            : modelClient.createArticle(writingInput),
+                    draft -> persistArticleDraft(taskId, userId, draft));
+            JsonNode illustrated = checkpointed(taskId, userId, "illustrate", "正在按需生成并保存知识插图", onEvent,
+                    () -> objectMapper.valueToTree(
+                            generateIllustrations(taskId, userId, result.path("illustrations"), onEvent)),
+                    ignored -> { });
+            IllustrationOutcome outcome = readOutcome(illustrated);
             updateStage(taskId, userId, "review", "正在进行最终逻辑与表达审校", onEvent);
-            IllustrationOutcome reviewed = reviewOutcome(outcome, getInput(taskId, userId));
-            return transactionTemplate.execute(status -> finalizeResult(taskId, userId, reviewed));
+            IllustrationOutcome reviewed = reviewOutcome(outcome, input);
+            return transactionTemplate.execute(status -> {
+                checkpointMapper.deleteByTask(taskId);
+                return finalizeResult(taskId, userId, reviewed);
+            });
         } catch (RuntimeException e) {
             transactionTemplate.executeWithoutResult(status -> markFailed(taskId, userId, e.getMessage()));
             throw e;
+        } finally {
+            releaseRun(taskId);
+        }
+    }
+
+    /**
+     * Returns the stage's checkpointed output, or runs the stage and stores its output in the
+     * same transaction as {@code persist}.
+     */
+    private JsonNode checkpointed(Long taskId, Long userId, String stage, String message,
+                                  BiConsumer<String, String> onEvent, Supplier<JsonNode> work,
+                                  Consumer<JsonNode> persist) {
+        String saved = checkpointMapper.selectPayload(taskId, stage);
+        if (saved != null) {
+            onEvent.accept("stage", stage + "|已完成，沿用上次的结果");
+            try {
+                return objectMapper.readTree(saved);
+            } catch (Exception e) {
+                throw new IllegalStateException("智能体阶段记录已损坏：" + stage, e);
+            }
+        }
+        updateStage(taskId, userId, stage, message, onEvent);
+        JsonNode output = work.get();
+        String payload = writeNode(output);
+        transactionTemplate.executeWithoutResult(status -> {
+            persist.accept(output);
+            // A run that lost its lease leaves no checkpoint behind for the run that took over
+            BlogAgentTask fence = new BlogAgentTask();
+            fence.setId(taskId);
+            fence.setUpdatedAt(LocalDateTime.now());
+            requireLease(fence);
+            checkpointMapper.upsert(taskId, stage, payload);
+        });
+        return output;
+    }
+
+    private IllustrationOutcome readOutcome(JsonNode node) {
+        return new IllustrationOutcome(node.path("content").asText(""), node.path("status").asText("none"),
+                node.path("error").asText(""), node.path("generated").asInt());
+    }
+
+    /** Takes the task's execution lease; a second run of the same task is refused while one is live. */
+    private void claimRun(Long taskId, Long userId, String kind, boolean resumed) {
+        LocalDateTime now = LocalDateTime.now();
+        if (taskMapper.claimRun(taskId, userId, kind, nodeId, resumed, now, now.plus(properties.getRunLease()),
+                now.minus(properties.getRunLease())) == 0) {
+            requireOwnedTask(taskId, userId);
+            throw new IllegalStateException("该任务正在运行中，请稍后再试");
+        }
+        localRuns.add(taskId);
+    }
+
+    private void releaseRun(Long taskId) {
+        localRuns.remove(taskId);
+        try {
+            taskMapper.releaseRun(taskId, nodeId);
+        } catch (RuntimeException e) {
+            log.warn("[BlogAgent] 释放执行租约失败，将在租约到期后由清理任务处理: taskId={}", taskId, e);
         }
     }
 
@@ -120,7 +277,7 @@ public class BlogAgentService {
             task.setStatus("running");
             task.setStage(stage);
             task.setUpdatedAt(LocalDateTime.now());
-            taskMapper.updateById(task);
+            requireLease(task);
             saveMessage(taskId, "assistant", "process", stage, message);
         });
         onEvent.accept("stage", stage + "|" + message);
@@ -136,15 +293,6 @@ public class BlogAgentService {
         }
     }
 
-    private void markRunning(Long taskId, Long userId) {
-        BlogAgentTask task = requireOwnedTask(taskId, userId);
-        task.setStatus("running");
-        task.setStage("research");
-        task.setErrorMessage(null);
-        task.setUpdatedAt(LocalDateTime.now());
-        taskMapper.updateById(task);
-    }
-
     private String getInput(Long taskId, Long userId) {
         return requireOwnedTask(taskId, userId).getInput();
     }
@@ -158,7 +306,7 @@ public class BlogAgentService {
         task.setIllustrationStatus(imageClient.isEnabled() ? "running" : "disabled");
         task.setIllustrationError(null);
         task.setUpdatedAt(LocalDateTime.now());
-        taskMapper.updateById(task);
+        requireLease(task);
     }
 
     private BlogAgentTaskVO finalizeResult(Long taskId, Long userId, IllustrationOutcome outcome) {
@@ -172,18 +320,38 @@ public class BlogAgentService {
         task.setStatus("ready");
         task.setStage("review");
         task.setUpdatedAt(LocalDateTime.now());
-        taskMapper.updateById(task);
+        requireLease(task);
         saveMessage(taskId, "assistant", "result", "review", task.getTitle());
         return get(taskId, userId);
     }
 
+    /** A run that lost its lease leaves the task to the node that took it over. */
     private void markFailed(Long taskId, Long userId, String errorMessage) {
         BlogAgentTask task = requireOwnedTask(taskId, userId);
         task.setStatus("failed");
         task.setStage("analyze");
         task.setErrorMessage(limit(errorMessage, 1000));
         task.setUpdatedAt(LocalDateTime.now());
-        taskMapper.updateById(task);
+        updateLeased(task);
+    }
+
+    /**
+     * Writes the task only while this node still holds its lease. A run that stalled past its
+     * lease may have been resumed elsewhere; its late writes must not overwrite the new run.
+     *
+     * @return false when the lease now belongs to another node (or was released)
+     */
+    private boolean updateLeased(BlogAgentTask task) {
+        return taskMapper.update(task, new LambdaUpdateWrapper<BlogAgentTask>()
+                .eq(BlogAgentTask::getId, task.getId())
+                .apply("lease_owner = {0}", nodeId)) > 0;
+    }
+
+    /** Like {@link #updateLeased}, but rolls back the caller's transaction when the lease is gone. */
+    private void requireLease(BlogAgentTask task) {
+        if (!updateLeased(task)) {
+            throw new IllegalStateException("执行租约已失效，任务已由其他节点接管");
+        }
     }
 
     public BlogAgentTaskVO get(Long taskId, Long userId) {
@@ -226,28 +394,31 @@ public class BlogAgentService {
                                         BiConsumer<String, String> onEvent) {
         BlogAgentTask existing = requireOwnedTask(taskId, userId);
         if (!"ready".equals(existing.getStatus())) throw new IllegalStateException("当前文章尚未准备好，不能修改");
-        transactionTemplate.executeWithoutResult(status -> {
-            saveMessage(taskId, "user", "message", null, instruction.trim());
-            existing.setStatus("running");
-            existing.setStage("write");
-            existing.setErrorMessage(null);
-            existing.setUpdatedAt(LocalDateTime.now());
-            taskMapper.updateById(existing);
-        });
+        claimRun(taskId, userId, RUN_REVISE, false);
         try {
+            transactionTemplate.executeWithoutResult(status -> {
+                saveMessage(taskId, "user", "message", null, instruction.trim());
+                existing.setStatus("running");
+                existing.setStage("write");
+                existing.setErrorMessage(null);
+                existing.setUpdatedAt(LocalDateTime.now());
+                taskMapper.updateById(existing);
+            });
             updateStage(taskId, userId, "write", "正在根据你的新要求修改文章", onEvent);
             JsonNode result = modelClient.reviseArticleStream(
                     requireOwnedTask(taskId, userId).getContent(), instruction,
                     delta -> onEvent.accept("delta", delta));
             transactionTemplate.executeWithoutResult(status -> persistArticleDraft(taskId, userId, result));
             updateStage(taskId, userId, "illustrate", "正在同步调整文章插图", onEvent);
-            IllustrationOutcome outcome = generateIllustrations(taskId, userId, result.path("illustrations"));
+            IllustrationOutcome outcome = generateIllustrations(taskId, userId, result.path("illustrations"), onEvent);
             updateStage(taskId, userId, "review", "正在检查本轮修改", onEvent);
             IllustrationOutcome reviewed = reviewOutcome(outcome, instruction);
             return transactionTemplate.execute(status -> finalizeResult(taskId, userId, reviewed));
         } catch (RuntimeException e) {
             transactionTemplate.executeWithoutResult(status -> markRevisionFailed(taskId, userId, e.getMessage()));
             throw e;
+        } finally {
+            releaseRun(taskId);
         }
     }
 
@@ -257,7 +428,7 @@ public class BlogAgentService {
         task.setStage("review");
         task.setErrorMessage(limit(errorMessage, 1000));
         task.setUpdatedAt(LocalDateTime.now());
-        taskMapper.updateById(task);
+        if (!updateLeased(task)) return;
         saveMessage(taskId, "assistant", "process", "review", "本轮修改失败，已保留上一版文章");
     }
 
@@ -272,7 +443,14 @@ public class BlogAgentService {
         messageMapper.insert(message);
     }
 
-    private IllustrationOutcome generateIllustrations(Long taskId, Long userId, JsonNode plans) {
+    /**
+     * Generates up to three illustrations in parallel on the shared illustration pool. Each image
+     * gets illustration-timeout counted from when it starts running, so time spent queued behind
+     * other runs' images does not count; an "illustration" event fires as each one finishes, and
+     * placeholders are replaced in plan order once all of them have settled.
+     */
+    private IllustrationOutcome generateIllustrations(Long taskId, Long userId, JsonNode plans,
+                                                      BiConsumer<String, String> onEvent) {
         BlogAgentTask task = requireOwnedTask(taskId, userId);
         String content = task.getContent();
         if (!plans.isArray() || plans.isEmpty()) {
@@ -283,9 +461,8 @@ public class BlogAgentService {
                     "未配置 BLOG_AGENT_IMAGE_MODEL，已跳过插图生成", 0);
         }
 
-        int generatedCount = 0;
-        List<String> errors = new ArrayList<>();
         int limit = Math.max(0, Math.min(properties.getMaxIllustrations(), 3));
+        List<IllustrationPlan> planned = new ArrayList<>();
         for (int index = 0; index < Math.min(plans.size(), limit); index++) {
             JsonNode plan = plans.get(index);
             String placeholder = normalizePlaceholder(plan.path("placeholder").asText(), index);
@@ -296,31 +473,95 @@ public class BlogAgentService {
                 content = content.replace(placeholder, "");
                 continue;
             }
-            try {
-                BlogAgentImageClient.GeneratedImage generated = imageClient.generate(
-                        "为中文知识博客生成一张准确、克制、专业的知识插图。画面必须服务于理解，不要添加水印。"
-                                + "如果包含文字，确保文字简短清晰。插图要求：" + prompt);
-                String fileName = "agent-" + taskId + "-" + (index + 1) + "." + generated.extension();
-                String meta = objectMapper.writeValueAsString(java.util.Map.of(
-                        "title", title,
-                        "alt", alt,
-                        "prompt", prompt,
-                        "model", properties.getImageModel(),
-                        "size", properties.getImageSize()));
-                BlogMediaAsset asset = mediaService.saveAgentImage(userId, taskId, fileName, generated, meta);
-                String markdown = "![" + alt + "](" + asset.getUrl() + ")";
-                content = replaceOrAppend(content, placeholder, markdown);
+            planned.add(new IllustrationPlan(index, placeholder, title, alt, prompt));
+        }
+
+        String[] results = new String[planned.size()];
+        String[] failures = new String[planned.size()];
+        CompletionService<String> completion = new ExecutorCompletionService<>(illustrationExecutor);
+        List<Future<String>> futures = new ArrayList<>();
+        // Each image's budget starts when it leaves the shared pool's queue, not at submission.
+        AtomicLongArray startedAt = new AtomicLongArray(planned.size());
+        for (int i = 0; i < planned.size(); i++) {
+            int slot = i;
+            startedAt.set(slot, NOT_STARTED);
+            futures.add(completion.submit(() -> {
+                startedAt.set(slot, System.nanoTime());
+                return renderIllustration(taskId, userId, planned.get(slot));
+            }));
+        }
+        long timeout = properties.getIllustrationTimeout().toNanos();
+        try {
+            for (int pending = futures.size(); pending > 0; ) {
+                long wait = timeout;
+                long now = System.nanoTime();
+                for (int slot = 0; slot < futures.size(); slot++) {
+                    long started = startedAt.get(slot);
+                    if (results[slot] != null || failures[slot] != null || started == NOT_STARTED) continue;
+                    long left = started + timeout - now;
+                    if (left > 0) {
+                        wait = Math.min(wait, left);
+                        continue;
+                    }
+                    futures.get(slot).cancel(true);
+                    failures[slot] = "生成超时";
+                    pending--;
+                    onEvent.accept("illustration", (planned.get(slot).index() + 1) + "|failed|" + planned.get(slot).title());
+                }
+                if (pending == 0) break;
+                Future<String> done = completion.poll(wait, TimeUnit.NANOSECONDS);
+                if (done == null) continue;
+                int slot = futures.indexOf(done);
+                if (results[slot] != null || failures[slot] != null) continue;
+                try {
+                    results[slot] = done.get();
+                } catch (ExecutionException e) {
+                    failures[slot] = defaultText(e.getCause().getMessage(), "生成失败");
+                }
+                pending--;
+                IllustrationPlan plan = planned.get(slot);
+                onEvent.accept("illustration", (plan.index() + 1) + "|"
+                        + (failures[slot] == null ? "done" : "failed") + "|" + plan.title());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("插图生成被中断", e);
+        }
+
+        int generatedCount = 0;
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < planned.size(); i++) {
+            IllustrationPlan plan = planned.get(i);
+            if (results[i] != null) {
+                content = replaceOrAppend(content, plan.placeholder(), results[i]);
                 generatedCount++;
-            } catch (Exception e) {
-                errors.add(title + "：" + defaultText(e.getMessage(), "生成失败"));
-                content = content.replace(placeholder, "");
+                continue;
             }
+            errors.add(plan.title() + "：" + failures[i]);
+            content = content.replace(plan.placeholder(), "");
         }
         content = removeIllustrationPlaceholders(content);
         String status = errors.isEmpty() ? "complete" : generatedCount > 0 ? "partial" : "failed";
         return new IllustrationOutcome(content, status, String.join("；", errors), generatedCount);
     }
 
+    /** Generates and stores one image, returning its markdown. Runs on the illustration pool. */
+    private String renderIllustration(Long taskId, Long userId, IllustrationPlan plan) throws Exception {
+        BlogAgentImageClient.GeneratedImage generated = imageClient.generate(
+                "为中文知识博客生成一张准确、克制、专业的知识插图。画面必须服务于理解，不要添加水印。"
+                        + "如果包含文字，确保文字简短清晰。插图要求：" + plan.prompt());
+        String fileName = "agent-" + taskId + "-" + (plan.index() + 1) + "." + generated.extension();
+        String meta = objectMapper.writeValueAsString(java.util.Map.of(
+                "title", plan.title(),
+                "alt", plan.alt(),
+                "prompt", plan.prompt(),
+                "model", properties.getImageModel(),
+                "size", properties.getImageSize()));
+        BlogMediaAsset asset = mediaService.saveAgentImage(userId, taskId, fileName, generated, meta);
+        return "![" + plan.alt() + "](" + asset.getUrl() + ")";
+    }
+
     private String normalizePlaceholder(String value, int index) {
         if (StringUtils.hasText(value) && value.matches("<!-- illustration:[a-z0-9-]+ -->")) return value;
         return "<!-- illustration:auto-" + (index + 1) + " -->";
@@ -341,18 +582,31 @@ public class BlogAgentService {
         return limit(value.replace("[", "").replace("]", "").replace("\n", " "), 180);
     }
 
-    @Transactional
+    /**
+     * Publishes the finished article once. Double clicks and retries wait for and share the
+     * first publish; the task row is also locked so the post and published_post_id commit together.
+     */
     public BlogPostVO publish(Long taskId, Long userId) {
         BlogAgentTask task = requireOwnedTask(taskId, userId);
+        if (task.getPublishedPostId() != null) return blogService.getBlogById(task.getPublishedPostId());
         if (!"ready".equals(task.getStatus())) throw new IllegalStateException("文章尚未生成完成");
+        return idempotencyGuard.execute("blog-agent:publish:" + taskId,
+                () -> transactionTemplate.execute(status -> publishLocked(taskId, userId)),
+                BlogPostVO::getId, blogService::getBlogById);
+    }
+
+    private BlogPostVO publishLocked(Long taskId, Long userId) {
+        BlogAgentTask task = taskMapper.selectByIdForUpdate(taskId);
+        if (task == null || !userId.equals(task.getUserId())) throw new IllegalArgumentException("智能体任务不存在");
         if (task.getPublishedPostId() != null) return blogService.getBlogById(task.getPublishedPostId());
+        if (!"ready".equals(task.getStatus())) throw new IllegalStateException("文章尚未生成完成");
         BlogPostDTO post = new BlogPostDTO();
         post.setTitle(task.getTitle());
         post.setSummary(task.getSummary());
         post.setContent(task.getContent());
         post.setCategoryId(task.getCategoryId());
         post.setTags(readTags(task.getTagsJson()));
-        BlogPostVO published = blogService.createBlog(post, true, "agent-task-" + taskId);
+        BlogPostVO published = blogService.createBlog(post, true);
         task.setPublishedPostId(published.getId());
         task.setUpdatedAt(LocalDateTime.now());
         taskMapper.updateById(task);
@@ -464,4 +718,5 @@ public class BlogAgentService {
     private String excerpt(String content, int length) { return content.length() <= length ? content : content.substring(0, length - 1) + "…"; }
 
     private record IllustrationOutcome(String content, String status, String error, int generated) {}
+    private record IllustrationPlan(int index, String placeholder, String title, String alt, String prompt) {}
 }
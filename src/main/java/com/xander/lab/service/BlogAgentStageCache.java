@@ -0,0 +1,137 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xander.lab.config.BlogAgentStageCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache for deterministic agent stages (analyze, research).
+ *
+ * <pre>
+ * Key:     SHA-256 of model (with tools), instruction text and normalized input (NFKC, trimmed, whitespace collapsed)
+ * Storage: per-node Caffeine bounded by max-size, shared Redis copy, both expire after ttl
+ * Metrics: blog.agent.stage.cache{stage,result=hit|miss}
+ *          blog.agent.stage.cache.saved{stage}         original model latency of every hit
+ *          blog.agent.stage.cache.saved.tokens{stage}  tokens the hits did not spend
+ * </pre>
+ *
+ * Entries never change for a key, so there is nothing to invalidate. Failed calls are not cached,
+ * and concurrent misses for the same key each call the model. Redis errors degrade to local-only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlogAgentStageCache {
+
+    private static final String KEY_PREFIX = "blog-agent:stage:";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final BlogAgentStageCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, StageResult> local;
+
+    /** A stage's model output together with what producing it cost. */
+    public record StageResult(JsonNode result, long elapsedMs, long tokens) {}
+
+    @PostConstruct
+    void initialize() {
+        local = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Returns the cached result for this exact model call, or calls {@code loader} and caches its result.
+     *
+     * @param model the model plus anything else that changes the answer (e.g. enabled tools)
+     */
+    public JsonNode get(String stage, String model, String instruction, String input, Supplier<StageResult> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get().result();
+        }
+        String key = stage + ":" + hash(model, instruction, input);
+        StageResult cached = local.getIfPresent(key);
+        if (cached == null) {
+            cached = readShared(key);
+            if (cached != null) {
+                local.put(key, cached);
+            }
+        }
+        if (cached != null) {
+            Counter.builder("blog.agent.stage.cache").tag("stage", stage).tag("result", "hit")
+                    .register(meterRegistry).increment();
+            Timer.builder("blog.agent.stage.cache.saved").tag("stage", stage)
+                    .register(meterRegistry).record(Duration.ofMillis(cached.elapsedMs()));
+            Counter.builder("blog.agent.stage.cache.saved.tokens").tag("stage", stage)
+                    .register(meterRegistry).increment(cached.tokens());
+            return cached.result();
+        }
+        Counter.builder("blog.agent.stage.cache").tag("stage", stage).tag("result", "miss")
+                .register(meterRegistry).increment();
+        StageResult loaded = loader.get();
+        local.put(key, loaded);
+        writeShared(key, loaded);
+        return loaded.result();
+    }
+
+    static String hash(String model, String instruction, String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{model, instruction, normalize(input)}) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String normalize(String input) {
+        if (input == null) return "";
+        return WHITESPACE.matcher(Normalizer.normalize(input, Normalizer.Form.NFKC).strip()).replaceAll(" ");
+    }
+
+    private StageResult readShared(String key) {
+        try {
+            String cached = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            return cached == null ? null : objectMapper.readValue(cached, StageResult.class);
+        } catch (Exception e) {
+            log.warn("[BlogAgent] 读取阶段缓存失败: key={}, reason={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeShared(String key, StageResult result) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, objectMapper.writeValueAsString(result),
+                    properties.getTtl().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("[BlogAgent] 写入阶段缓存失败: key={}, reason={}", key, e.getMessage());
+        }
+    }
+}
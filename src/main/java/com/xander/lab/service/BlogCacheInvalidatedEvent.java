@@ -0,0 +1,30 @@
+package com.xander.lab.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 收到其他节点的缓存失效广播后在本节点发布的事件
+ * 检索索引、静态快照等节点本地的派生数据据此跟进其他节点上的文章写入
+ *
+ * @param keys 被失效的缓存 key
+ */
+public record BlogCacheInvalidatedEvent(List<String> keys) {
+
+    private static final Pattern POST_KEY = Pattern.compile("post:(\\d+)");
+
+    /** 被失效的文章ID（只识别文章详情 key） */
+    public Set<Long> postIds() {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String key : keys) {
+            Matcher matcher = POST_KEY.matcher(key);
+            if (matcher.matches()) {
+                ids.add(Long.valueOf(matcher.group(1)));
+            }
+        }
+        return ids;
+    }
+}
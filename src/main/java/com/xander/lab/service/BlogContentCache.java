@@ -0,0 +1,185 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xander.lab.config.BlogCacheProperties;
+import com.xander.lab.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 已发布博客内容的两级读缓存
+ *
+ * <pre>
+ * L1：每个节点进程内的 Caffeine 缓存，同一 key 的并发未命中只会有一个线程回源
+ * L2：Redis 共享缓存，节点重启或 L1 过期后优先从这里恢复
+ * 失效：写操作提交后删除 L1 + L2，并通过 Redis pub/sub 通知其他节点清理各自的 L1，
+ *       其他节点随后发布 {@link BlogCacheInvalidatedEvent}，供检索索引、静态快照跟进
+ * 回填：每个 key 有一个代数 blog:cache:gen:{key}，失效时与删除 L2 一起递增；
+ *       回源前读到的代数与写回时不一致（期间有写提交）就不写回 L2，
+ *       避免提交前读到旧数据的请求在失效之后把旧值写回 Redis
+ * </pre>
+ *
+ * Redis 不可用时自动降级为只用 L1 + 数据库，不影响读请求。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlogContentCache implements MessageListener {
+
+    private static final String KEY_PREFIX = "blog:cache:";
+    private static final String GENERATION_PREFIX = "blog:cache:gen:";
+    private static final String INVALIDATION_CHANNEL = "blog:cache:invalidate";
+
+    /** KEYS[1]=缓存 KEYS[2]=代数 ARGV[1]=回源前读到的代数 ARGV[2]=值 ARGV[3]=过期毫秒数；代数未变才写入 */
+    private static final RedisScript<Long> SET_IF_GENERATION_SCRIPT = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end
+            redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    /** KEYS 依次为（缓存, 代数）对：删除缓存并递增代数，代数保留 ARGV[1] 毫秒 */
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #KEYS, 2 do
+              redis.call('DEL', KEYS[i])
+              redis.call('INCR', KEYS[i + 1])
+              redis.call('PEXPIRE', KEYS[i + 1], ARGV[1])
+            end
+            return #KEYS / 2
+            """, Long.class);
+
+    /** 最新文章列表 */
+    public static final String RECENT = "recent";
+    /** 分类及文章数量 */
+    public static final String CATEGORIES = "categories";
+    /** 全部标签及文章数量 */
+    public static final String TAGS = "tags";
+    /** 公开列表的内容版本（条件请求校验器，由数据算出），任何文章写入后随缓存一起失效并重新查询 */
+    public static final String LIST_VERSION = "list-version:content";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlogCacheProperties properties;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 用于忽略本节点自己发出的失效广播 */
+    private final String nodeId = UUID.randomUUID().toString();
+    private Cache<String, Object> local;
+
+    @PostConstruct
+    void initialize() {
+        local = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxSize())
+                .expireAfterWrite(properties.getLocalTtl())
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /** 文章详情 key */
+    public static String post(Long id) {
+        return "post:" + id;
+    }
+
+    /** 文章详情（预渲染 HTML）key */
+    public static String postHtml(Long id) {
+        return "post:" + id + ":html";
+    }
+
+    /**
+     * 读取缓存，未命中时依次回源 Redis、loader
+     * loader 返回 null（如文章不存在）时不缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, TypeReference<T> type, Supplier<T> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        return (T) local.get(key, k -> loadShared(k, type, loader));
+    }
+
+    /**
+     * 失效指定 key
+     * 处于事务中时延迟到提交之后执行，避免其他请求在提交前把旧数据重新写回缓存
+     */
+    public void evict(String... keys) {
+        if (!properties.isEnabled() || keys.length == 0) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> evictNow(keys));
+    }
+
+    /** 其他节点的失效广播：只清理本地 L1（L2 已由发起节点删除），再通知本节点的其他监听方 */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        List<String> keys = Arrays.asList(body.substring(separator + 1).split(","));
+        local.invalidateAll(keys);
+        eventPublisher.publishEvent(new BlogCacheInvalidatedEvent(keys));
+    }
+
+    private <T> T loadShared(String key, TypeReference<T> type, Supplier<T> loader) {
+        String generation = null;
+        try {
+            List<String> cached = redisTemplate.opsForValue().multiGet(List.of(KEY_PREFIX + key, GENERATION_PREFIX + key));
+            if (cached != null && cached.get(0) != null) {
+                return objectMapper.readValue(cached.get(0), type);
+            }
+            generation = cached == null || cached.get(1) == null ? "0" : cached.get(1);
+        } catch (Exception e) {
+            log.warn("[BlogCache] 读取 Redis 缓存失败，回源数据库: key={}, reason={}", key, e.getMessage());
+        }
+        T value = loader.get();
+        // 读不到代数时无法判断回源期间是否有写入，不写回 L2
+        if (value != null && generation != null) {
+            try {
+                redisTemplate.execute(SET_IF_GENERATION_SCRIPT, List.of(KEY_PREFIX + key, GENERATION_PREFIX + key),
+                        generation, objectMapper.writeValueAsString(value),
+                        String.valueOf(properties.getRemoteTtl().toMillis()));
+            } catch (Exception e) {
+                log.warn("[BlogCache] 写入 Redis 缓存失败: key={}, reason={}", key, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    private void evictNow(String[] keys) {
+        List<String> keyList = Arrays.asList(keys);
+        local.invalidateAll(keyList);
+        try {
+            List<String> redisKeys = new ArrayList<>();
+            keyList.forEach(key -> {
+                redisKeys.add(KEY_PREFIX + key);
+                redisKeys.add(GENERATION_PREFIX + key);
+            });
+            redisTemplate.execute(EVICT_SCRIPT, redisKeys, String.valueOf(properties.getRemoteTtl().toMillis()));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "|" + String.join(",", keyList));
+        } catch (Exception e) {
+            log.warn("[BlogCache] 缓存失效广播失败，其他节点将在 L1 过期后自愈: keys={}, reason={}",
+                    keyList, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.xander.lab.service;
+
+import com.xander.lab.mapper.BlogCategoryMapper;
+import com.xander.lab.mapper.BlogTagMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分类/标签计数对账任务
+ * 计数在文章写入时增量维护，此任务按关联表重新计算并只修复有偏差的行，
+ * 用于兜底手工改库、历史数据或异常中断造成的漂移。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "blog.counter.reconcile-enabled", havingValue = "true", matchIfMissing = true)
+public class BlogCounterReconciler {
+
+    private final BlogCategoryMapper blogCategoryMapper;
+    private final BlogTagMapper blogTagMapper;
+    private final BlogContentCache contentCache;
+
+    @Scheduled(
+            fixedDelayString = "${blog.counter.reconcile-interval-ms:3600000}",
+            initialDelayString = "${blog.counter.reconcile-initial-delay-ms:60000}"
+    )
+    public void reconcile() {
+        try {
+            int categories = blogCategoryMapper.reconcilePostCounts();
+            int tags = blogTagMapper.reconcilePostCounts();
+            if (categories > 0 || tags > 0) {
+                log.warn("[BlogCounter] 已修复计数偏差：分类 {} 个，标签 {} 个", categories, tags);
+                contentCache.evict(BlogContentCache.CATEGORIES, BlogContentCache.TAGS,
+                        BlogContentCache.LIST_VERSION);
+            }
+        } catch (Exception e) {
+            log.error("[BlogCounter] 计数对账失败", e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogFeedProperties;
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.mapper.BlogPostMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * RSS / Atom 订阅源与站点地图
+ *
+ * <pre>
+ * 文档在内存中预先生成（字节 + ETag + 最后修改时间），爬虫请求不访问数据库
+ * 全量：启动时与定时校对（兜底其他节点的写入）
+ * 增量：文章写入提交后只查询该文章一行元数据；其他节点的写入经缓存失效广播
+ *       （{@link BlogCacheInvalidatedEvent}）同样按文章ID处理；
+ *       站点地图只更新对应条目，订阅源仅在该文章属于最新 N 篇（或原本在其中）时才重新查询
+ * </pre>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlogFeedService {
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+
+    /** 与列表接口一致：发布日期倒序，同日按 ID 倒序 */
+    private static final Comparator<BlogPost> NEWEST_FIRST = Comparator
+            .comparing(BlogPost::getPublishedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(BlogPost::getId, Comparator.reverseOrder());
+
+    private final BlogPostMapper blogPostMapper;
+    private final BlogFeedProperties properties;
+
+    /** 订阅源当前包含的最新文章 */
+    private List<BlogPost> feedEntries = List.of();
+    /** 站点地图条目：文章ID → 最后修改时间 */
+    private final TreeMap<Long, LocalDateTime> sitemapEntries = new TreeMap<>();
+
+    private volatile FeedDocument rss;
+    private volatile FeedDocument atom;
+    private volatile FeedDocument sitemap;
+
+    /**
+     * 预生成的文档
+     *
+     * @param body         UTF-8 XML
+     * @param etag         内容哈希
+     * @param lastModified 最后修改时间（毫秒）
+     */
+    public record FeedDocument(byte[] body, String etag, long lastModified) {
+    }
+
+    /** 尚未生成时返回 null */
+    public FeedDocument getRss() {
+        return rss;
+    }
+
+    public FeedDocument getAtom() {
+        return atom;
+    }
+
+    public FeedDocument getSitemap() {
+        return sitemap;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, BlogPostsImportedEvent.class})
+    @Scheduled(
+            fixedDelayString = "${blog.feed.resync-interval-ms:600000}",
+            initialDelayString = "${blog.feed.resync-interval-ms:600000}"
+    )
+    public synchronized void rebuild() {
+        try {
+            feedEntries = blogPostMapper.selectFeedEntries(properties.getEntries());
+            sitemapEntries.clear();
+            blogPostMapper.selectSitemapEntries().forEach(p -> sitemapEntries.put(p.getId(), p.getUpdatedAt()));
+            renderFeeds();
+            renderSitemap();
+            log.info("[BlogFeed] 订阅源与站点地图生成完成：{} 篇文章", sitemapEntries.size());
+        } catch (Exception e) {
+            log.error("[BlogFeed] 订阅源与站点地图生成失败", e);
+        }
+    }
+
+    /** 文章写入提交后增量更新 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPostChanged(BlogPostChangedEvent event) {
+        Long postId = event.postId();
+        try {
+            BlogPost post = blogPostMapper.selectFeedEntry(postId);
+
+            LocalDateTime previous = post == null
+                    ? sitemapEntries.remove(postId)
+                    : sitemapEntries.put(postId, post.getUpdatedAt());
+            if (post == null ? previous != null : !Objects.equals(previous, post.getUpdatedAt())) {
+                renderSitemap();
+            }
+
+            boolean wasInFeed = feedEntries.stream().anyMatch(e -> e.getId().equals(postId));
+            boolean belongsInFeed = post != null && (feedEntries.size() < properties.getEntries()
+                    || NEWEST_FIRST.compare(post, feedEntries.get(feedEntries.size() - 1)) < 0);
+            if (wasInFeed || belongsInFeed) {
+                feedEntries = blogPostMapper.selectFeedEntries(properties.getEntries());
+                renderFeeds();
+            }
+        } catch (Exception e) {
+            log.warn("[BlogFeed] 文章 {} 的订阅源增量更新失败，等待定时校对: {}", postId, e.getMessage());
+        }
+    }
+
+    /**
+     * 其他节点的文章写入：按失效广播中的文章ID增量更新
+     */
+    @EventListener
+    public void onRemoteInvalidation(BlogCacheInvalidatedEvent event) {
+        event.postIds().forEach(postId -> onPostChanged(new BlogPostChangedEvent(postId)));
+    }
+
+    private void renderFeeds() throws XMLStreamException {
+        LocalDateTime updated = feedEntries.stream().map(BlogPost::getUpdatedAt)
+                .filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+        rss = document(renderRss(updated), updated);
+        atom = document(renderAtom(updated), updated);
+    }
+
+    private void renderSitemap() throws XMLStreamException {
+        LocalDateTime updated = sitemapEntries.values().stream()
+                .filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter xml = writer(out);
+        xml.writeStartElement("urlset");
+        xml.writeDefaultNamespace(SITEMAP_NS);
+        writeUrl(xml, siteUrl() + "/", updated);
+        writeUrl(xml, siteUrl() + trimTrailingSlash(properties.getPostPath()), updated);
+        for (Map.Entry<Long, LocalDateTime> entry : sitemapEntries.entrySet()) {
+            writeUrl(xml, postUrl(entry.getKey()), entry.getValue());
+        }
+        xml.writeEndElement();
+        xml.writeEndDocument();
+        xml.close();
+        sitemap = document(out.toByteArray(), updated);
+    }
+
+    private byte[] renderRss(LocalDateTime updated) throws XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter xml = writer(out);
+        xml.writeStartElement("rss");
+        xml.writeAttribute("version", "2.0");
+        xml.writeStartElement("channel");
+        element(xml, "title", properties.getTitle());
+        element(xml, "link", siteUrl() + "/");
+        element(xml, "description", properties.getDescription());
+        element(xml, "language", "zh-CN");
+        if (updated != null) {
+            element(xml, "lastBuildDate", zoned(updated).format(DateTimeFormatter.RFC_1123_DATE_TIME));
+        }
+        for (BlogPost post : feedEntries) {
+            xml.writeStartElement("item");
+            element(xml, "title", post.getTitle());
+            element(xml, "link", postUrl(post.getId()));
+            xml.writeStartElement("guid");
+            xml.writeAttribute("isPermaLink", "true");
+            xml.writeCharacters(postUrl(post.getId()));
+            xml.writeEndElement();
+            if (post.getPublishedAt() != null) {
+                element(xml, "pubDate", post.getPublishedAt().atStartOfDay(ZoneId.systemDefault())
+                        .format(DateTimeFormatter.RFC_1123_DATE_TIME));
+            }
+            element(xml, "description", post.getSummary());
+            xml.writeEndElement();
+        }
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndDocument();
+        xml.close();
+        return out.toByteArray();
+    }
+
+    private byte[] renderAtom(LocalDateTime updated) throws XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter xml = writer(out);
+        xml.writeStartElement("feed");
+        xml.writeDefaultNamespace(ATOM_NS);
+        element(xml, "id", siteUrl() + "/");
+        element(xml, "title", properties.getTitle());
+        element(xml, "subtitle", properties.getDescription());
+        element(xml, "updated", atomTime(updated != null ? updated : LocalDateTime.now()));
+        link(xml, siteUrl() + "/");
+        for (BlogPost post : feedEntries) {
+            xml.writeStartElement("entry");
+            element(xml, "id", postUrl(post.getId()));
+            element(xml, "title", post.getTitle());
+            link(xml, postUrl(post.getId()));
+            if (post.getPublishedAt() != null) {
+                element(xml, "published", atomTime(post.getPublishedAt().atStartOfDay()));
+            }
+            element(xml, "updated", atomTime(post.getUpdatedAt() != null ? post.getUpdatedAt()
+                    : post.getPublishedAt().atStartOfDay()));
+            element(xml, "summary", post.getSummary());
+            xml.writeStartElement("author");
+            element(xml, "name", post.getAuthor());
+            xml.writeEndElement();
+            xml.writeEndElement();
+        }
+        xml.writeEndElement();
+        xml.writeEndDocument();
+        xml.close();
+        return out.toByteArray();
+    }
+
+    private void writeUrl(XMLStreamWriter xml, String loc, LocalDateTime lastModified) throws XMLStreamException {
+        xml.writeStartElement("url");
+        element(xml, "loc", loc);
+        if (lastModified != null) {
+            element(xml, "lastmod", lastModified.toLocalDate().toString());
+        }
+        xml.writeEndElement();
+    }
+
+    private static XMLStreamWriter writer(ByteArrayOutputStream out) throws XMLStreamException {
+        XMLStreamWriter xml = XMLOutputFactory.newFactory().createXMLStreamWriter(out, "UTF-8");
+        xml.writeStartDocument("UTF-8", "1.0");
+        return xml;
+    }
+
+    private static void element(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(text == null ? "" : text);
+        xml.writeEndElement();
+    }
+
+    private static void link(XMLStreamWriter xml, String href) throws XMLStreamException {
+        xml.writeEmptyElement("link");
+        xml.writeAttribute("href", href);
+    }
+
+    private static FeedDocument document(byte[] body, LocalDateTime updated) {
+        long lastModified = updated == null ? 0 : zoned(updated).toInstant().toEpochMilli();
+        return new FeedDocument(body, sha256(body), lastModified);
+    }
+
+    private static ZonedDateTime zoned(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault());
+    }
+
+    private static String atomTime(LocalDateTime time) {
+        return zoned(time).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+    }
+
+    private String siteUrl() {
+        return trimTrailingSlash(properties.getSiteUrl());
+    }
+
+    private String postUrl(Long id) {
+        String path = properties.getPostPath();
+        return siteUrl() + (path.endsWith("/") ? path : path + "/") + id;
+    }
+
+    private static String trimTrailingSlash(String value) {
+        return value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.xander.lab.common.UserContext;
+import com.xander.lab.dto.BlogImportReportVO;
+import com.xander.lab.dto.BlogPostImportDTO;
+import com.xander.lab.dto.CategoryVO;
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.mapper.BlogCategoryMapper;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.BlogTagMapper;
+import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 文章批量导入（NDJSON）
+ *
+ * <pre>
+ * 读取：按行流式读取请求体，每行用 Jackson 单独解析，坏行只影响自身；内存只保留当前分块，
+ *       单行超过 max-line-chars 时跳过该行剩余部分并记为失败
+ * 写入：每 chunk-size 行一个事务：多行 INSERT 文章（回填自增ID）、批量解析标签、
+ *       一条多行 INSERT 写入全部标签关联、按分类/标签聚合调整计数
+ * 失败：分块标签解析或事务失败时逐行重试，定位出错的行，其余行照常导入
+ * 收尾：全部完成后统一失效列表缓存，并在后台线程通知检索索引、订阅源和快照全量重建，不占用请求线程
+ * </pre>
+ *
+ * HTML 预渲染不在导入时进行，首次以 format=html 读取（或快照校对）时补渲染。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlogImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    /** 与 blog_tag.name 列长度一致 */
+    private static final int MAX_TAG_LENGTH = 64;
+
+    private final BlogPostMapper blogPostMapper;
+    private final BlogCategoryMapper blogCategoryMapper;
+    private final BlogTagMapper blogTagMapper;
+    private final BlogTagResolver tagResolver;
+    private final BlogService blogService;
+    private final BlogContentCache contentCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${blog.import.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${blog.import.max-line-chars:4194304}")
+    private int maxLineChars;
+
+    /** 导入完成后的全量重建在此线程执行，导入请求不等待 */
+    private final ExecutorService rebuildWorker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "blog-import-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 已解析、待写入的行 */
+    private record PendingRow(long line, BlogPostImportDTO row) {
+    }
+
+    /**
+     * 导入 NDJSON 文章流
+     *
+     * @param body 请求体，UTF-8，每行一个 JSON 对象，空行忽略
+     * @return 导入结果
+     */
+    public BlogImportReportVO importNdjson(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        BlogImportReportVO report = new BlogImportReportVO();
+        ObjectReader rowReader = objectMapper.readerFor(BlogPostImportDTO.class);
+        Set<String> categories = blogCategoryMapper.selectCategoriesWithCount().stream()
+                .map(CategoryVO::getId).collect(Collectors.toSet());
+        Long userId = UserContext.getUserId();
+        String author = blogService.resolveAuthor(userId);
+
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder buffer = new StringBuilder();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long lineNo = 0;
+        int length;
+        while ((length = readLine(reader, buffer, maxLineChars)) >= 0) {
+            lineNo++;
+            if (length > maxLineChars) {
+                report.setTotal(report.getTotal() + 1);
+                fail(report, lineNo, "单行超过 " + maxLineChars + " 个字符");
+                continue;
+            }
+            String line = buffer.toString();
+            if (line.isBlank()) continue;
+            report.setTotal(report.getTotal() + 1);
+            BlogPostImportDTO row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                fail(report, lineNo, "JSON 解析失败: " + e.getOriginalMessage());
+                continue;
+            }
+            String invalid = validate(row, categories);
+            if (invalid != null) {
+                fail(report, lineNo, invalid);
+                continue;
+            }
+            chunk.add(new PendingRow(lineNo, row));
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk, userId, author, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, userId, author, report);
+        }
+
+        report.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        report.setRowsPerSecond(report.getElapsedMs() == 0 ? report.getImported()
+                : report.getImported() * 1000.0 / report.getElapsedMs());
+        if (report.getImported() > 0) {
+            contentCache.evict(BlogContentCache.RECENT, BlogContentCache.CATEGORIES, BlogContentCache.TAGS,
+                    BlogContentCache.LIST_VERSION);
+            BlogPostsImportedEvent event = new BlogPostsImportedEvent(report.getImported());
+            rebuildWorker.execute(() -> {
+                try {
+                    eventPublisher.publishEvent(event);
+                } catch (Exception e) {
+                    log.error("[BlogImport] 导入后重建失败，等待定时校对", e);
+                }
+            });
+        }
+        log.info("[BlogImport] 导入完成：共 {} 行，成功 {}，失败 {}，耗时 {} ms（{} 行/秒）", report.getTotal(),
+                report.getImported(), report.getFailed(), report.getElapsedMs(), String.format("%.1f", report.getRowsPerSecond()));
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildWorker.shutdownNow();
+    }
+
+    /**
+     * 读取一行到 buffer（不含换行符，兼容 \n、\r\n、\r）
+     * 超过 maxChars 的部分不再保存，只继续读到行尾
+     *
+     * @return 行的实际长度（可能大于 maxChars），已到流末尾时返回 -1
+     */
+    static int readLine(Reader reader, StringBuilder buffer, int maxChars) throws IOException {
+        buffer.setLength(0);
+        int length = 0;
+        int c = reader.read();
+        if (c < 0) return -1;
+        while (c >= 0 && c != '\n') {
+            if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            }
+            if (length++ < maxChars) {
+                buffer.append((char) c);
+            }
+            c = reader.read();
+        }
+        return length;
+    }
+
+    private static String validate(BlogPostImportDTO row, Set<String> categories) {
+        if (row == null) return "空对象";
+        if (row.getTitle() == null || row.getTitle().isBlank()) return "缺少标题";
+        if (row.getTitle().length() > 255) return "标题超过 255 个字符";
+        if (row.getContent() == null || row.getContent().isBlank()) return "缺少正文";
+        if (!categories.contains(row.getCategoryId())) return "分类不存在: " + row.getCategoryId();
+        if (row.getTags() != null) {
+            for (String tag : row.getTags()) {
+                if (tag != null && tag.length() > MAX_TAG_LENGTH) return "标签超过 " + MAX_TAG_LENGTH + " 个字符: " + tag;
+            }
+        }
+        return null;
+    }
+
+    /** 分块写入；标签解析或事务失败时逐行重试以定位出错的行 */
+    private void writeChunk(List<PendingRow> chunk, Long userId, String author, BlogImportReportVO report) {
+        List<Set<Long>> tagIds;
+        try {
+            tagIds = resolveTags(chunk);
+        } catch (Exception chunkError) {
+            log.warn("[BlogImport] 第 {}~{} 行标签解析失败，逐行重试: {}", chunk.get(0).line(),
+                    chunk.get(chunk.size() - 1).line(), chunkError.getMessage());
+            List<PendingRow> resolvedRows = new ArrayList<>(chunk.size());
+            tagIds = new ArrayList<>(chunk.size());
+            for (PendingRow row : chunk) {
+                try {
+                    tagIds.add(tagResolver.resolveIds(row.row().getTags()));
+                    resolvedRows.add(row);
+                } catch (Exception e) {
+                    fail(report, row.line(), "标签解析失败: " + rootMessage(e));
+                }
+            }
+            if (resolvedRows.isEmpty()) return;
+            chunk = resolvedRows;
+        }
+        List<PendingRow> rows = chunk;
+        List<Set<Long>> rowTags = tagIds;
+        try {
+            List<BlogPost> posts = transactionTemplate.execute(status -> insertRows(rows, rowTags, userId, author));
+            imported(report, posts);
+        } catch (Exception chunkError) {
+            log.warn("[BlogImport] 第 {}~{} 行分块写入失败，逐行重试: {}", rows.get(0).line(),
+                    rows.get(rows.size() - 1).line(), chunkError.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                List<PendingRow> single = List.of(rows.get(i));
+                List<Set<Long>> singleTags = List.of(rowTags.get(i));
+                try {
+                    imported(report, transactionTemplate.execute(status -> insertRows(single, singleTags, userId, author)));
+                } catch (Exception e) {
+                    fail(report, single.get(0).line(), "写入失败: " + rootMessage(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * 在事务外解析标签：先用整块的标签名预热（最多一次查询 + 一次插入），逐行解析时全部命中缓存。
+     * 新建标签随即提交，分块回滚也不会让缓存里留下不存在的ID（代价是可能留下计数为 0 的标签）
+     */
+    private List<Set<Long>> resolveTags(List<PendingRow> chunk) {
+        List<String> allNames = chunk.stream()
+                .filter(r -> r.row().getTags() != null)
+                .flatMap(r -> r.row().getTags().stream())
+                .distinct().toList();
+        if (!allNames.isEmpty()) {
+            tagResolver.resolveIds(allNames);
+        }
+        return chunk.stream().map(r -> tagResolver.resolveIds(r.row().getTags())).toList();
+    }
+
+    private List<BlogPost> insertRows(List<PendingRow> rows, List<Set<Long>> tagIds, Long userId, String author) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BlogPost> posts = new ArrayList<>(rows.size());
+        for (PendingRow pending : rows) {
+            BlogPostImportDTO row = pending.row();
+            boolean publish = !Boolean.FALSE.equals(row.getPublish());
+            BlogPost post = new BlogPost();
+            post.setTitle(row.getTitle());
+            post.setSummary(row.getSummary() == null ? "" : row.getSummary());
+            post.setContent(row.getContent());
+            post.setCategoryId(row.getCategoryId());
+            post.setUserId(userId);
+            post.setAuthor(author);
+            post.setReadTime(Math.max(1, row.getContent().length() / 500) + " min");
+            post.setStatus(publish ? 1 : 0);
+            post.setPublishedAt(publish ? (row.getPublishedAt() != null ? row.getPublishedAt() : LocalDate.now()) : null);
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            posts.add(post);
+        }
+        blogPostMapper.insertBatch(posts);
+
+        Map<Long, Set<Long>> links = new LinkedHashMap<>();
+        Map<String, Integer> categoryDeltas = new HashMap<>();
+        Map<Long, Integer> tagDeltas = new HashMap<>();
+        for (int i = 0; i < posts.size(); i++) {
+            BlogPost post = posts.get(i);
+            Set<Long> ids = tagIds.get(i);
+            if (!ids.isEmpty()) {
+                links.put(post.getId(), ids);
+            }
+            if (post.getStatus() == 1) {
+                categoryDeltas.merge(post.getCategoryId(), 1, Integer::sum);
+                ids.forEach(tagId -> tagDeltas.merge(tagId, 1, Integer::sum));
+            }
+        }
+        if (!links.isEmpty()) {
+            blogTagMapper.insertPostTagLinks(links);
+        }
+
+        categoryDeltas.forEach(blogCategoryMapper::adjustPostCount);
+        // 增量相同的标签合并为一条 UPDATE
+        Map<Integer, Set<Long>> tagsByDelta = new TreeMap<>();
+        tagDeltas.forEach((tagId, delta) -> tagsByDelta.computeIfAbsent(delta, d -> new LinkedHashSet<>()).add(tagId));
+        tagsByDelta.forEach((delta, ids) -> blogTagMapper.adjustPostCount(ids, delta));
+        return posts;
+    }
+
+    private static void imported(BlogImportReportVO report, List<BlogPost> posts) {
+        report.setImported(report.getImported() + posts.size());
+        for (BlogPost post : posts) {
+            if (report.getFirstPostId() == null || post.getId() < report.getFirstPostId()) {
+                report.setFirstPostId(post.getId());
+            }
+            if (report.getLastPostId() == null || post.getId() > report.getLastPostId()) {
+                report.setLastPostId(post.getId());
+            }
+        }
+    }
+
+    private static void fail(BlogImportReportVO report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new BlogImportReportVO.RowError(line, message));
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
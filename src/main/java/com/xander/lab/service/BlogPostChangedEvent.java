@@ -0,0 +1,10 @@
+package com.xander.lab.service;
+
+/**
+ * 文章新增、修改或删除后发布的事件
+ * 监听方使用 {@code @TransactionalEventListener}，只在写事务提交后收到
+ *
+ * @param postId 文章ID
+ */
+public record BlogPostChangedEvent(Long postId) {
+}
@@ -0,0 +1,10 @@
+package com.xander.lab.service;
+
+/**
+ * 批量导入完成后发布的事件
+ * 导入不逐篇发布 {@link BlogPostChangedEvent}，监听方改为一次全量重建
+ *
+ * @param imported 导入的文章数
+ */
+public record BlogPostsImportedEvent(long imported) {
+}
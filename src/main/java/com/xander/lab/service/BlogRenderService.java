@@ -0,0 +1,176 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xander.lab.dto.TocItemVO;
+import com.xander.lab.entity.BlogPostRender;
+import com.xander.lab.mapper.BlogPostRenderMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.ext.heading.anchor.IdGenerator;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Code;
+import org.commonmark.node.Heading;
+import org.commonmark.node.Node;
+import org.commonmark.node.Text;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 博客正文服务端预渲染
+ *
+ * <pre>
+ * 渲染：Markdown → HTML + 标题大纲，原始 HTML 一律转义，链接/图片地址过滤危险协议
+ * 存储：blog_post_render 每篇一行，以 content_hash 标识对应的正文版本
+ * 时机：发布/更新时渲染一次；读取时发现缺失或 hash 不一致（历史数据、直接改库）才补渲染
+ * </pre>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlogRenderService {
+
+    /** 渲染规则变化时递增，使所有已存结果的 hash 失配并自动重渲染 */
+    private static final String RENDERER_VERSION = "md-v1";
+
+    private static final List<Extension> EXTENSIONS = List.of(
+            TablesExtension.create(), StrikethroughExtension.create());
+
+    private static final Parser PARSER = Parser.builder().extensions(EXTENSIONS).build();
+
+    private final BlogPostRenderMapper renderMapper;
+    private final ObjectMapper objectMapper;
+
+    /** 渲染结果 */
+    public record Rendered(String contentHash, String html, List<TocItemVO> toc) {
+    }
+
+    /**
+     * 渲染 Markdown 正文（纯计算，不读写数据库）
+     */
+    public Rendered render(String markdown) {
+        String source = markdown == null ? "" : markdown;
+        Node document = PARSER.parse(source);
+
+        // 先收集标题并分配锚点，渲染时按节点取 id，保证大纲与 HTML 一致
+        Map<Node, String> anchors = new IdentityHashMap<>();
+        List<TocItemVO> toc = new ArrayList<>();
+        IdGenerator idGenerator = IdGenerator.builder().defaultId("section").build();
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Heading heading) {
+                String text = plainText(heading).strip();
+                String anchor = idGenerator.generateId(text);
+                anchors.put(heading, anchor);
+                toc.add(new TocItemVO(heading.getLevel(), text, anchor));
+            }
+        });
+
+        HtmlRenderer renderer = HtmlRenderer.builder()
+                .extensions(EXTENSIONS)
+                .escapeHtml(true)
+                .sanitizeUrls(true)
+                .attributeProviderFactory(context -> (node, tagName, attributes) -> {
+                    String anchor = anchors.get(node);
+                    if (anchor != null) {
+                        attributes.put("id", anchor);
+                    }
+                })
+                .build();
+        return new Rendered(contentHash(source), renderer.render(document), toc);
+    }
+
+    /**
+     * 渲染并保存，发布/更新正文时在同一事务内调用
+     */
+    public Rendered store(Long postId, String markdown) {
+        Rendered rendered = render(markdown);
+        BlogPostRender row = new BlogPostRender();
+        row.setPostId(postId);
+        row.setContentHash(rendered.contentHash());
+        row.setHtml(rendered.html());
+        row.setToc(writeToc(rendered.toc()));
+        row.setRenderedAt(LocalDateTime.now());
+        renderMapper.upsert(row);
+        return rendered;
+    }
+
+    /**
+     * 读取已保存的渲染结果；缺失或与当前正文不一致时补渲染并保存
+     */
+    public Rendered getOrRender(Long postId, String markdown) {
+        BlogPostRender row = renderMapper.selectById(postId);
+        if (row != null && contentHash(markdown == null ? "" : markdown).equals(row.getContentHash())) {
+            List<TocItemVO> toc = readToc(row.getToc());
+            if (toc != null) {
+                return new Rendered(row.getContentHash(), row.getHtml(), toc);
+            }
+        }
+        log.info("[BlogRender] 渲染结果缺失或已过期，重新渲染：postId={}", postId);
+        return store(postId, markdown);
+    }
+
+    public void delete(Long postId) {
+        renderMapper.deleteById(postId);
+    }
+
+    static String contentHash(String markdown) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(RENDERER_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(markdown.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private static String plainText(Node node) {
+        StringBuilder text = new StringBuilder();
+        node.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Text t) {
+                text.append(t.getLiteral());
+            }
+
+            @Override
+            public void visit(Code code) {
+                text.append(code.getLiteral());
+            }
+        });
+        return text.toString();
+    }
+
+    private String writeToc(List<TocItemVO> toc) {
+        try {
+            return objectMapper.writeValueAsString(toc);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("标题大纲序列化失败", e);
+        }
+    }
+
+    private List<TocItemVO> readToc(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("[BlogRender] 标题大纲解析失败，将重新渲染", e);
+            return null;
+        }
+    }
+}
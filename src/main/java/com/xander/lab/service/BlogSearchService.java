@@ -0,0 +1,491 @@
+package com.xander.lab.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.xander.lab.dto.BlogSearchHitVO;
+import com.xander.lab.dto.BlogSearchResultVO;
+import com.xander.lab.dto.PostTagVO;
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.BlogTagMapper;
+import com.xander.lab.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 博客全文检索服务（进程内倒排索引）
+ *
+ * <pre>
+ * 分词：拉丁字母/数字按连续片段成词，中日韩文字按相邻二元组（bigram）切分
+ * 字段：标题、标签、摘要、正文，按权重累加词频后以 BM25 排序
+ * 同步：启动、批量导入后及定时任务只查询已发布文章的 ID 与 updated_at，与索引比对后
+ *       分批加载新增/修改的文章并逐批替换，移除已删除或下线的文章；不再整体重载正文，也不会有两份索引并存
+ * 更新：BlogService 写操作提交后按文章ID增量刷新；其他节点的写入经缓存失效广播
+ *       （{@link BlogCacheInvalidatedEvent}）同样按文章ID刷新
+ * </pre>
+ *
+ * 索引常驻内存，大小约为已发布文章正文总量的 2~3 倍。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlogSearchService {
+
+    private static final int LOAD_BATCH_SIZE = 200;
+    private static final int MAX_LIMIT = 50;
+    private static final int SNIPPET_LENGTH = 160;
+
+    private static final int TITLE_WEIGHT = 4;
+    private static final int TAG_WEIGHT = 3;
+    private static final int SUMMARY_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    /** BM25 参数 */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final BlogPostMapper blogPostMapper;
+    private final BlogTagMapper blogTagMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** 词项 -> (文章ID -> 加权词频)；TreeMap 便于单字查询按前缀展开 */
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedPost> documents = new HashMap<>();
+    private long totalLength;
+    /** 增量刷新序号及每篇文章最近一次刷新的序号，同步据此保留加载期间的刷新结果 */
+    private long refreshSequence;
+    private final Map<Long, Long> refreshedAt = new HashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * 启动后及批量导入后同步索引
+     * 失败时仅记录日志，首次同步完成前检索接口返回 503，不影响应用启动
+     */
+    @EventListener({ApplicationReadyEvent.class, BlogPostsImportedEvent.class})
+    public synchronized void sync() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<Long, LocalDateTime> published = new LinkedHashMap<>();
+            blogPostMapper.selectSitemapEntries().forEach(post -> published.put(post.getId(), post.getUpdatedAt()));
+
+            long startSequence;
+            List<Long> stale = new ArrayList<>();
+            List<Long> removed;
+            lock.readLock().lock();
+            try {
+                startSequence = refreshSequence;
+                published.forEach((postId, updatedAt) -> {
+                    IndexedPost indexed = documents.get(postId);
+                    if (indexed == null || !Objects.equals(indexed.updatedAt(), updatedAt)) {
+                        stale.add(postId);
+                    }
+                });
+                removed = documents.keySet().stream().filter(postId -> !published.containsKey(postId)).toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            for (int from = 0; from < stale.size(); from += LOAD_BATCH_SIZE) {
+                List<Long> ids = stale.subList(from, Math.min(from + LOAD_BATCH_SIZE, stale.size()));
+                List<BlogPost> batch = blogPostMapper.selectList(new LambdaQueryWrapper<BlogPost>()
+                        .eq(BlogPost::getStatus, 1)
+                        .in(BlogPost::getId, ids));
+                Map<Long, List<String>> tags = batch.isEmpty() ? Map.of()
+                        : loadTags(batch.stream().map(BlogPost::getId).toList());
+                Map<Long, IndexedPost> loaded = new HashMap<>();
+                batch.forEach(post -> loaded.put(post.getId(),
+                        toIndexedPost(post, tags.getOrDefault(post.getId(), List.of()))));
+                // 比对后才下线的文章在此批中查不到，一并移除
+                apply(ids, loaded, startSequence);
+            }
+            apply(removed, Map.of(), startSequence);
+
+            lock.writeLock().lock();
+            try {
+                refreshedAt.clear();
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("[BlogSearch] 索引同步完成：{} 篇文章（更新 {}，移除 {}），{} 个词项，耗时 {} ms",
+                    published.size(), stale.size(), removed.size(), postings.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("[BlogSearch] 索引同步失败", e);
+        }
+    }
+
+    /**
+     * 定时同步，兜底丢失的失效广播（Redis pub/sub 不保证送达）和其他节点的批量导入
+     */
+    @Scheduled(
+            fixedDelayString = "${blog.search.rebuild-interval-ms:600000}",
+            initialDelayString = "${blog.search.rebuild-interval-ms:600000}"
+    )
+    public void scheduledSync() {
+        sync();
+    }
+
+    /**
+     * 写入一批同步结果：loaded 中有的替换，没有的移除
+     * 同步开始后被增量刷新过的文章以刷新结果为准，不被较早读出的数据覆盖
+     */
+    private void apply(Collection<Long> ids, Map<Long, IndexedPost> loaded, long startSequence) {
+        lock.writeLock().lock();
+        try {
+            for (Long postId : ids) {
+                Long sequence = refreshedAt.get(postId);
+                if (sequence != null && sequence > startSequence) {
+                    continue;
+                }
+                removeDocument(postId);
+                IndexedPost post = loaded.get(postId);
+                if (post != null) {
+                    addDocument(post);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 其他节点的文章写入：按失效广播中的文章ID刷新
+     */
+    @EventListener
+    public void onRemoteInvalidation(BlogCacheInvalidatedEvent event) {
+        event.postIds().forEach(this::refresh);
+    }
+
+    /**
+     * 增量刷新单篇文章（事务提交后执行）
+     * 已发布则重建该文章的索引项，草稿或已删除则从索引中移除
+     */
+    public void refresh(Long postId) {
+        TransactionUtils.afterCommit(() -> {
+            try {
+                BlogPost post = blogPostMapper.selectById(postId);
+                IndexedPost indexed = post == null || !Integer.valueOf(1).equals(post.getStatus()) ? null
+                        : toIndexedPost(post, loadTags(List.of(postId)).getOrDefault(postId, List.of()));
+                lock.writeLock().lock();
+                try {
+                    removeDocument(postId);
+                    if (indexed != null) {
+                        addDocument(indexed);
+                    }
+                    refreshedAt.put(postId, ++refreshSequence);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (Exception e) {
+                log.warn("[BlogSearch] 刷新文章 {} 索引失败: {}", postId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 按相关度检索已发布文章
+     *
+     * @param query 查询词
+     * @param limit 返回条数
+     * @return 检索结果（含高亮片段和耗时）
+     */
+    public BlogSearchResultVO search(String query, int limit) {
+        if (!ready) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "搜索索引尚未就绪，请稍后重试");
+        }
+        long start = System.nanoTime();
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        List<BlogSearchHitVO> hits = new ArrayList<>();
+        int total;
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = score(terms);
+            total = scores.size();
+            Set<String> highlightTerms = expandTerms(terms);
+            scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(entry -> documents.get(entry.getKey()).date(),
+                                    Comparator.nullsLast(Comparator.reverseOrder())))
+                    .limit(size)
+                    .forEach(entry -> hits.add(toHit(documents.get(entry.getKey()), entry.getValue(), highlightTerms)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        BlogSearchResultVO result = new BlogSearchResultVO();
+        result.setQuery(query);
+        result.setTotal(total);
+        result.setHits(hits);
+        result.setTookMicros((System.nanoTime() - start) / 1_000);
+        return result;
+    }
+
+    // ==================== 索引维护（调用方持有写锁） ====================
+
+    private void addDocument(IndexedPost post) {
+        documents.put(post.id(), post);
+        totalLength += post.length();
+        post.termFrequencies().forEach((term, tf) ->
+                postings.computeIfAbsent(term, ignored -> new HashMap<>()).put(post.id(), tf));
+    }
+
+    private void removeDocument(Long postId) {
+        IndexedPost existing = documents.remove(postId);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length();
+        existing.termFrequencies().keySet().forEach(term -> {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(postId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        });
+    }
+
+    // ==================== 检索（调用方持有读锁） ====================
+
+    private Map<Long, Double> score(Set<String> terms) {
+        Map<Long, Double> scores = new HashMap<>();
+        int docCount = documents.size();
+        if (docCount == 0 || terms.isEmpty()) {
+            return scores;
+        }
+        double avgLength = Math.max(1.0, (double) totalLength / docCount);
+        for (String term : expandTerms(terms)) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            docs.forEach((postId, tf) -> {
+                double norm = K1 * (1 - B + B * documents.get(postId).length() / avgLength);
+                scores.merge(postId, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            });
+        }
+        return scores;
+    }
+
+    /**
+     * 单个中日韩字符在索引中没有独立词项，按前缀展开为以它开头的二元组
+     */
+    private Set<String> expandTerms(Set<String> terms) {
+        Set<String> expanded = new LinkedHashSet<>();
+        for (String term : terms) {
+            if (term.codePointCount(0, term.length()) == 1 && isCjk(term.codePointAt(0))) {
+                expanded.addAll(postings.subMap(term, true, term + Character.MAX_VALUE, false).keySet());
+            } else {
+                expanded.add(term);
+            }
+        }
+        return expanded;
+    }
+
+    private BlogSearchHitVO toHit(IndexedPost post, double score, Set<String> terms) {
+        BlogSearchHitVO hit = new BlogSearchHitVO();
+        hit.setId(post.id());
+        hit.setTitle(post.title());
+        hit.setHighlightedTitle(highlight(post.title(), terms, 0));
+        hit.setSummary(post.summary());
+        String snippet = highlight(post.content(), terms, SNIPPET_LENGTH);
+        hit.setSnippet(snippet.contains("<mark>") ? snippet : highlight(post.summary(), terms, SNIPPET_LENGTH));
+        hit.setCategory(post.categoryId());
+        hit.setAuthor(post.author());
+        hit.setDate(post.date());
+        hit.setTags(post.tags());
+        hit.setScore(score);
+        return hit;
+    }
+
+    // ==================== 分词与高亮 ====================
+
+    /**
+     * 分词：小写化后，拉丁字母/数字的连续片段为一个词，中日韩文字切成相邻二元组
+     * 仅一个字的中日韩片段保留为单字
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < lower.length()) {
+            int cp = lower.codePointAt(i);
+            if (isCjk(cp)) {
+                List<String> chars = new ArrayList<>();
+                while (i < lower.length() && isCjk(lower.codePointAt(i))) {
+                    int c = lower.codePointAt(i);
+                    chars.add(new String(Character.toChars(c)));
+                    i += Character.charCount(c);
+                }
+                if (chars.size() == 1) {
+                    tokens.add(chars.get(0));
+                }
+                for (int j = 0; j + 1 < chars.size(); j++) {
+                    tokens.add(chars.get(j) + chars.get(j + 1));
+                }
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < lower.length()) {
+                    int c = lower.codePointAt(i);
+                    if (!Character.isLetterOrDigit(c) || isCjk(c)) {
+                        break;
+                    }
+                    i += Character.charCount(c);
+                }
+                tokens.add(lower.substring(start, i));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 生成 HTML 转义后的高亮文本
+     *
+     * @param maxLength 大于 0 时截取以第一个命中为中心的片段
+     */
+    static String highlight(String text, Collection<String> terms, int maxLength) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        // lower 与 text 长度不一致时（极少数 Unicode 字符）无法按下标对齐，放弃高亮
+        boolean aligned = lower.length() == text.length();
+        TreeMap<Integer, Integer> matches = new TreeMap<>();
+        if (aligned) {
+            for (String term : terms) {
+                for (int from = lower.indexOf(term); from >= 0; from = lower.indexOf(term, from + 1)) {
+                    matches.merge(from, from + term.length(), Math::max);
+                }
+            }
+        }
+        // 合并重叠的命中区间（相邻二元组会互相覆盖）
+        TreeMap<Integer, Integer> ranges = new TreeMap<>();
+        matches.forEach((from, to) -> {
+            Map.Entry<Integer, Integer> last = ranges.lastEntry();
+            if (last != null && from <= last.getValue()) {
+                ranges.put(last.getKey(), Math.max(last.getValue(), to));
+            } else {
+                ranges.put(from, to);
+            }
+        });
+
+        int start = 0;
+        int end = text.length();
+        if (maxLength > 0 && text.length() > maxLength) {
+            int first = ranges.isEmpty() ? 0 : ranges.firstKey();
+            start = Math.max(0, Math.min(first - maxLength / 4, text.length() - maxLength));
+            end = start + maxLength;
+        }
+
+        StringBuilder out = new StringBuilder();
+        if (start > 0) {
+            out.append("…");
+        }
+        int cursor = start;
+        for (Map.Entry<Integer, Integer> range : ranges.entrySet()) {
+            int rangeStart = Math.max(range.getKey(), cursor);
+            int rangeEnd = Math.min(range.getValue(), end);
+            if (rangeStart >= end) {
+                break;
+            }
+            if (rangeEnd <= rangeStart) {
+                continue;
+            }
+            appendEscaped(out, text, cursor, rangeStart);
+            out.append("<mark>");
+            appendEscaped(out, text, rangeStart, rangeEnd);
+            out.append("</mark>");
+            cursor = rangeEnd;
+        }
+        appendEscaped(out, text, cursor, end);
+        if (end < text.length()) {
+            out.append("…");
+        }
+        return out.toString();
+    }
+
+    private static void appendEscaped(StringBuilder out, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                case '\n', '\r' -> out.append(' ');
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // ==================== 加载 ====================
+
+    private Map<Long, List<String>> loadTags(List<Long> postIds) {
+        return blogTagMapper.selectTagsByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(PostTagVO::getPostId,
+                        Collectors.mapping(PostTagVO::getName, Collectors.toList())));
+    }
+
+    private IndexedPost toIndexedPost(BlogPost post, List<String> tags) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        length += addTerms(frequencies, post.getTitle(), TITLE_WEIGHT);
+        length += addTerms(frequencies, String.join(" ", tags), TAG_WEIGHT);
+        length += addTerms(frequencies, post.getSummary(), SUMMARY_WEIGHT);
+        length += addTerms(frequencies, post.getContent(), CONTENT_WEIGHT);
+        return new IndexedPost(post.getId(), post.getTitle(), post.getSummary(), post.getContent(),
+                post.getCategoryId(), post.getAuthor(), post.getPublishedAt(), post.getUpdatedAt(), List.copyOf(tags),
+                frequencies, Math.max(1, length));
+    }
+
+    private int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> frequencies.merge(token, weight, Integer::sum));
+        return tokens.size();
+    }
+
+    private record IndexedPost(Long id, String title, String summary, String content, String categoryId,
+                               String author, LocalDate date, LocalDateTime updatedAt, List<String> tags,
+                               Map<String, Integer> termFrequencies, int length) {}
+}
@@ -2,33 +2,46 @@ package com.xander.lab.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.xander.lab.common.Constants;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.xander.lab.common.UserContext;
 import com.xander.lab.dto.BlogPostDTO;
 import com.xander.lab.dto.BlogPostVO;
 import com.xander.lab.dto.CategoryVO;
+import com.xander.lab.dto.ContentVersion;
+import com.xander.lab.dto.CursorPageData;
 import com.xander.lab.dto.TagVO;
 import com.xander.lab.dto.PageData;
+import com.xander.lab.dto.PostTagVO;
+import com.xander.lab.dto.auth.UserProfile;
 import com.xander.lab.entity.BlogCategory;
 import com.xander.lab.entity.BlogPost;
 import com.xander.lab.entity.BlogPostView;
-import com.xander.lab.entity.BlogTag;
-import com.xander.lab.entity.User;
 import com.xander.lab.mapper.BlogCategoryMapper;
 import com.xander.lab.mapper.BlogPostMapper;
 import com.xander.lab.mapper.BlogPostViewMapper;
 import com.xander.lab.mapper.BlogTagMapper;
-import com.xander.lab.mapper.UserMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -39,14 +52,35 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class BlogService {
-    private static final String PUBLISH_REQUEST_PREFIX = "blog:publish:request:";
+    private static final String PUBLISH_REQUEST_PREFIX = "blog:publish:";
+    /** 改用 IdempotencyGuard 之前的发布记录（值为文章ID，保留 24 小时），过期前仍按它识别客户端重试 */
+    private static final String LEGACY_PUBLISH_REQUEST_PREFIX = "blog:publish:request:";
+    /** 最新文章缓存条数，limit 不超过该值时从缓存截取 */
+    private static final int RECENT_CACHE_SIZE = 20;
+    /** 游标分页单页上限 */
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    /** 热门文章单次返回上限 */
+    private static final int MAX_TRENDING_SIZE = 50;
+    /** 流式输出正文时每次写出并 flush 的字符数 */
+    private static final int CONTENT_CHUNK_CHARS = 16 * 1024;
 
     private final BlogPostMapper blogPostMapper;
     private final BlogCategoryMapper blogCategoryMapper;
     private final BlogTagMapper blogTagMapper;
+    private final BlogTagResolver tagResolver;
     private final BlogPostViewMapper blogPostViewMapper;
-    private final UserMapper userMapper;
+    private final UserProfileCache userProfileCache;
+    private final IdempotencyGuard idempotencyGuard;
+    private final BlogContentCache contentCache;
+    private final BlogSearchService searchService;
+    private final BlogRenderService renderService;
+    private final BlogViewCounter viewCounter;
+    private final BlogViewIngestor viewIngestor;
+    private final BlogViewDeduplicator viewDeduplicator;
+    private final BlogTrendingService trendingService;
+    private final TransactionTemplate transactionTemplate;
     private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 创建博客
@@ -63,18 +97,6 @@ public class BlogService {
     /** Creates either a draft or a published post. */
     @Transactional
     public BlogPostVO createBlog(BlogPostDTO dto, boolean publish) {
-        return createBlog(dto, publish, null);
-    }
-
-    /** Reuses a completed publish request so a client retry cannot create a duplicate post. */
-    @Transactional
-    public BlogPostVO createBlog(BlogPostDTO dto, boolean publish, String requestId) {
-        String requestKey = publish && requestId != null && !requestId.isBlank()
-                ? PUBLISH_REQUEST_PREFIX + UserContext.getUserId() + ":" + requestId.trim() : null;
-        if (requestKey != null) {
-            Long existingId = getPublishedPostId(requestId);
-            if (existingId != null) return getBlogById(existingId);
-        }
         BlogPost post = new BlogPost();
         post.setTitle(dto.getTitle());
         post.setSummary(dto.getSummary());
@@ -88,47 +110,77 @@ public class BlogService {
         post.setCreatedAt(LocalDateTime.now());
         post.setUpdatedAt(LocalDateTime.now());
         blogPostMapper.insert(post);
+        renderService.store(post.getId(), post.getContent());
 
-        // 处理标签
-        if (dto.getTags() != null && !dto.getTags().isEmpty()) {
-            for (String tagName : dto.getTags()) {
-                BlogTag tag = blogTagMapper.selectOne(
-                        new LambdaQueryWrapper<BlogTag>().eq(BlogTag::getName, tagName));
-                if (tag == null) {
-                    tag = new BlogTag();
-                    tag.setName(tagName);
-                    tag.setCreatedAt(LocalDateTime.now());
-                    blogTagMapper.insert(tag);
-                }
-                blogTagMapper.insertPostTag(post.getId(), tag.getId());
-            }
+        // 处理标签：批量解析ID，一条多行 INSERT 写入关联
+        Set<Long> tagIds = tagResolver.resolveIds(dto.getTags());
+        if (!tagIds.isEmpty()) {
+            blogTagMapper.insertPostTags(post.getId(), tagIds);
+        }
+        if (publish) {
+            adjustCounters(post.getCategoryId(), tagIds, 1);
         }
 
-        if (requestKey != null) {
-            redisTemplate.opsForValue().set(requestKey, post.getId().toString(), 24, TimeUnit.HOURS);
+        afterPostWrite(post.getId());
+        return loadBlog(post.getId());
+    }
+
+    /**
+     * Publishes with an idempotency key: client retries and concurrent duplicates of the
+     * same request share the first request's post instead of creating another one.
+     * Must be called outside a transaction; the post commits before the key is recorded.
+     */
+    public BlogPostVO createBlog(BlogPostDTO dto, boolean publish, String requestId) {
+        String requestKey = publish ? publishRequestKey(requestId) : null;
+        if (requestKey == null) {
+            return transactionTemplate.execute(status -> createBlog(dto, publish));
         }
-        return getBlogById(post.getId());
+        Long legacyId = ownedPostId(legacyPublishedPostId(requestId));
+        if (legacyId != null) return loadBlog(legacyId);
+        return idempotencyGuard.execute(requestKey,
+                () -> transactionTemplate.execute(status -> createBlog(dto, publish)),
+                BlogPostVO::getId, this::loadBlog);
     }
 
     /** Returns the post created by this user's publish request, if it has committed. */
     public Long getPublishedPostId(String requestId) {
-        if (requestId == null || requestId.isBlank() || UserContext.getUserId() == null) return null;
-        String key = PUBLISH_REQUEST_PREFIX + UserContext.getUserId() + ":" + requestId.trim();
-        String postId = redisTemplate.opsForValue().get(key);
+        String requestKey = publishRequestKey(requestId);
+        if (requestKey == null) return null;
+        Long postId = idempotencyGuard.completedId(requestKey);
+        return ownedPostId(postId != null ? postId : legacyPublishedPostId(requestId));
+    }
+
+    private Long ownedPostId(Long postId) {
         if (postId == null) return null;
+        BlogPost post = blogPostMapper.selectById(postId);
+        return post != null && UserContext.getUserId().equals(post.getUserId()) ? post.getId() : null;
+    }
+
+    /** Reads a publish record written before the guard took over; they expire 24h after the upgrade. */
+    private Long legacyPublishedPostId(String requestId) {
+        String key = LEGACY_PUBLISH_REQUEST_PREFIX + UserContext.getUserId() + ":" + requestId.trim();
         try {
-            BlogPost post = blogPostMapper.selectById(Long.parseLong(postId));
-            if (post != null && UserContext.getUserId().equals(post.getUserId())) return post.getId();
-        } catch (NumberFormatException ignored) { }
-        redisTemplate.delete(key);
-        return null;
+            String postId = redisTemplate.opsForValue().get(key);
+            return postId == null ? null : Long.valueOf(postId);
+        } catch (NumberFormatException e) {
+            return null;
+        } catch (Exception e) {
+            log.warn("[Blog] 读取旧版发布记录失败: key={}, reason={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String publishRequestKey(String requestId) {
+        if (requestId == null || requestId.isBlank() || UserContext.getUserId() == null) return null;
+        return PUBLISH_REQUEST_PREFIX + UserContext.getUserId() + ":" + requestId.trim();
     }
 
     /** Updates only supplied fields. Passing tags replaces all existing tags for the post. */
     @Transactional
     public BlogPostVO updateBlog(Long id, String title, String summary, String content,
                                  String categoryId, List<String> tags) {
-        if (blogPostMapper.selectById(id) == null) {
+        BlogPost existing = blogPostMapper.selectById(id);
+        if (existing == null) {
             throw new IllegalArgumentException("文章不存在");
         }
         if (title == null && summary == null && content == null && categoryId == null && tags == null) {
@@ -145,43 +197,82 @@ public class BlogService {
         }
         update.setUpdatedAt(LocalDateTime.now());
         blogPostMapper.updateById(update);
+        if (content != null) {
+            renderService.store(id, content);
+        }
 
+        boolean published = Integer.valueOf(1).equals(existing.getStatus());
+        if (published && categoryId != null && !categoryId.equals(existing.getCategoryId())) {
+            adjustCounters(existing.getCategoryId(), Set.of(), -1);
+            adjustCounters(categoryId, Set.of(), 1);
+        }
         if (tags != null) {
-            blogTagMapper.deletePostTags(id);
-            for (String tagName : tags) {
-                BlogTag tag = blogTagMapper.selectOne(
-                        new LambdaQueryWrapper<BlogTag>().eq(BlogTag::getName, tagName));
-                if (tag == null) {
-                    tag = new BlogTag();
-                    tag.setName(tagName);
-                    tag.setCreatedAt(LocalDateTime.now());
-                    blogTagMapper.insert(tag);
-                }
-                blogTagMapper.insertPostTag(id, tag.getId());
+            // 按差异增删关联，未变化的关联和计数不动
+            Set<Long> oldTagIds = new LinkedHashSet<>(blogTagMapper.selectTagIdsByPostId(id));
+            Set<Long> newTagIds = tagResolver.resolveIds(tags);
+            Set<Long> removed = new LinkedHashSet<>(oldTagIds);
+            removed.removeAll(newTagIds);
+            Set<Long> added = new LinkedHashSet<>(newTagIds);
+            added.removeAll(oldTagIds);
+            if (!removed.isEmpty()) {
+                blogTagMapper.deletePostTagsByIds(id, removed);
+            }
+            if (!added.isEmpty()) {
+                blogTagMapper.insertPostTags(id, added);
+            }
+            if (published) {
+                adjustCounters(null, removed, -1);
+                adjustCounters(null, added, 1);
             }
         }
-        return getBlogById(id);
+        afterPostWrite(id);
+        return loadBlog(id);
     }
 
     /** Author is derived from the authenticated account, never from client or AI input. */
-    private String resolveAuthor(Long userId) {
+    String resolveAuthor(Long userId) {
         if (userId == null) return "Anonymous";
-        User user = userMapper.selectById(userId);
-        if (user == null) return "User " + userId;
-        if (user.getNickname() != null && !user.getNickname().isBlank()) return user.getNickname();
-        if (user.getUsername() != null && !user.getUsername().isBlank()) return user.getUsername();
-        return "User " + userId;
+        UserProfile user = userProfileCache.get(userId);
+        String name = user == null ? null : user.displayName();
+        return name != null ? name : "User " + userId;
     }
 
     /** Permanently deletes a post and its associated view and tag records. */
     @Transactional
     public void deleteBlog(Long id) {
-        if (blogPostMapper.selectById(id) == null) {
+        BlogPost existing = blogPostMapper.selectById(id);
+        if (existing == null) {
             throw new IllegalArgumentException("文章不存在");
         }
+        if (Integer.valueOf(1).equals(existing.getStatus())) {
+            adjustCounters(existing.getCategoryId(), blogTagMapper.selectTagIdsByPostId(id), -1);
+        }
         blogPostViewMapper.delete(new LambdaQueryWrapper<BlogPostView>().eq(BlogPostView::getPostId, id));
         blogTagMapper.deletePostTags(id);
+        renderService.delete(id);
         blogPostMapper.deleteById(id);
+        afterPostWrite(id);
+    }
+
+    /**
+     * 维护分类/标签上的已发布文章计数，与文章写操作在同一事务内提交
+     * 偏差由 {@link BlogCounterReconciler} 定期修复
+     */
+    private void adjustCounters(String categoryId, Collection<Long> tagIds, int delta) {
+        if (categoryId != null) {
+            blogCategoryMapper.adjustPostCount(categoryId, delta);
+        }
+        if (!tagIds.isEmpty()) {
+            blogTagMapper.adjustPostCount(tagIds, delta);
+        }
+    }
+
+    /** 写操作会影响详情、最新列表、分类/标签计数、检索索引和静态快照，统一在提交后失效 */
+    private void afterPostWrite(Long postId) {
+        contentCache.evict(BlogContentCache.post(postId), BlogContentCache.postHtml(postId), BlogContentCache.RECENT,
+                BlogContentCache.CATEGORIES, BlogContentCache.TAGS, BlogContentCache.LIST_VERSION);
+        searchService.refresh(postId);
+        eventPublisher.publishEvent(new BlogPostChangedEvent(postId));
     }
 
     /**
@@ -198,9 +289,7 @@ public class BlogService {
         Page<BlogPostVO> pageParam = new Page<>(page, size);
         blogPostMapper.selectPostList(pageParam, search, category, tag);
 
-        List<BlogPostVO> records = pageParam.getRecords().stream()
-                .peek(vo -> vo.setTags(blogTagMapper.selectTagNamesByPostId(vo.getId())))
-                .collect(Collectors.toList());
+        List<BlogPostVO> records = attachTags(pageParam.getRecords());
 
         PageData<BlogPostVO> result = new PageData<>();
         result.setRecords(records);
@@ -211,6 +300,69 @@ public class BlogService {
         return result;
     }
 
+    /**
+     * 游标分页获取博客列表
+     * 按 (published_at, id) 定位下一页，翻页深度不影响查询代价；默认不统计总数
+     *
+     * @param search    搜索关键词
+     * @param category  分类ID
+     * @param tag       标签名
+     * @param cursor    上一页返回的 nextCursor，为空表示第一页
+     * @param size      每页条数
+     * @param withTotal 是否额外统计总数
+     * @return 游标分页博客列表
+     */
+    public CursorPageData<BlogPostVO> getBlogsByCursor(String search, String category, String tag,
+                                                       String cursor, int size, boolean withTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        LocalDate cursorDate = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorDate = LocalDate.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
+
+        // 多取一条用于判断是否还有下一页
+        List<BlogPostVO> rows = blogPostMapper.selectPostListAfter(
+                search, category, tag, cursorDate, cursorId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<BlogPostVO> records = attachTags(hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows);
+
+        CursorPageData<BlogPostVO> result = new CursorPageData<>();
+        result.setRecords(records);
+        result.setSize(pageSize);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            BlogPostVO last = records.get(records.size() - 1);
+            result.setNextCursor(encodeCursor(last.getDate(), last.getId()));
+        }
+        if (withTotal) {
+            result.setTotal(blogPostMapper.countPostList(search, category, tag));
+        }
+        return result;
+    }
+
+    private String encodeCursor(LocalDate date, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8)
+                    .split("_", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDate.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
     /**
      * 获取最新博客列表
      *
@@ -218,9 +370,29 @@ public class BlogService {
      * @return 最新博客列表
      */
     public List<BlogPostVO> getRecentBlogs(int limit) {
-        List<BlogPostVO> posts = blogPostMapper.selectRecentPosts(limit);
-        posts.forEach(vo -> vo.setTags(blogTagMapper.selectTagNamesByPostId(vo.getId())));
-        return posts;
+        if (limit > RECENT_CACHE_SIZE) {
+            return attachTags(blogPostMapper.selectRecentPosts(limit));
+        }
+        List<BlogPostVO> recent = contentCache.get(BlogContentCache.RECENT, new TypeReference<>() {},
+                () -> attachTags(blogPostMapper.selectRecentPosts(RECENT_CACHE_SIZE)));
+        return recent.subList(0, Math.min(Math.max(limit, 0), recent.size()));
+    }
+
+    /**
+     * 热门文章（按时间衰减的阅读热度降序）
+     * 排行中可能有已下线的文章，多取一些再按已发布过滤
+     *
+     * @param limit 数量（1~50）
+     */
+    public List<BlogPostVO> getTrendingBlogs(int limit) {
+        limit = Math.max(1, Math.min(limit, MAX_TRENDING_SIZE));
+        List<Long> ids = trendingService.topIds(limit * 2);
+        if (ids.isEmpty()) return Collections.emptyList();
+        Map<Long, BlogPostVO> byId = blogPostMapper.selectPostsByIds(ids).stream()
+                .collect(Collectors.toMap(BlogPostVO::getId, vo -> vo));
+        List<BlogPostVO> posts = ids.stream().map(byId::get).filter(Objects::nonNull).limit(limit)
+                .collect(Collectors.toCollection(ArrayList::new));
+        return attachTags(posts);
     }
 
     /**
@@ -230,42 +402,132 @@ public class BlogService {
      * @return 博客详情VO
      */
     public BlogPostVO getBlogById(Long id) {
+        return contentCache.get(BlogContentCache.post(id), new TypeReference<>() {}, () -> loadBlog(id));
+    }
+
+    /**
+     * 公开列表（文章列表、分类、标签、检索）的内容版本，用作条件请求校验器
+     * 版本由数据本身算出，缓存是否启用、由哪个节点生成都得到相同的值；
+     * 经两级缓存在各节点间共享，文章写入或计数修复后失效并重新查询
+     *
+     * @return 最大修改时间、行数与校验和
+     */
+    public ContentVersion getListVersion() {
+        return contentCache.get(BlogContentCache.LIST_VERSION, new TypeReference<>() {},
+                blogPostMapper::selectListVersion);
+    }
+
+    /**
+     * 已发布文章的最后修改时间，用作详情接口的条件请求校验器
+     *
+     * @return 最后修改时间，文章不存在或未发布时返回 null
+     */
+    public LocalDateTime getPostUpdatedAt(Long id) {
+        return blogPostMapper.selectPublishedUpdatedAt(id);
+    }
+
+    /**
+     * 获取博客详情（正文为服务端预渲染的 HTML + 标题大纲）
+     * 渲染在发布/更新时完成，这里只读取已保存的结果
+     *
+     * @param id 博客ID
+     * @return 博客详情VO，content 置空，contentHtml/toc 有值
+     */
+    public BlogPostVO getBlogHtmlById(Long id) {
+        return contentCache.get(BlogContentCache.postHtml(id), new TypeReference<>() {}, () -> {
+            BlogPostVO post = loadBlog(id);
+            if (post == null) return null;
+            BlogRenderService.Rendered rendered = renderService.getOrRender(id, post.getContent());
+            post.setContentHtml(rendered.html());
+            post.setToc(rendered.toc());
+            post.setContent(null);
+            return post;
+        });
+    }
+
+    /** 直接查询数据库，写操作返回结果时使用，避免读到本事务之前缓存的旧数据 */
+    private BlogPostVO loadBlog(Long id) {
         BlogPostVO post = blogPostMapper.selectPostDetail(id);
         if (post != null) {
-            post.setTags(blogTagMapper.selectTagNamesByPostId(post.getId()));
+            post.setContent(blogPostMapper.selectPostContent(id));
+            attachTags(List.of(post));
         }
         return post;
     }
 
+    /**
+     * 分段输出文章正文（Markdown）
+     * 正文经一次主键查询整篇读出（MySQL 驱动本身也会把 LONGTEXT 整体读入内存），查询结束即归还连接，
+     * 之后按段写出并 flush，慢客户端不会占住数据库连接；内存占用与正文长度成正比。
+     * 文章已被修改或下线时中止，不输出与校验器不一致的版本
+     *
+     * @param id        文章ID
+     * @param updatedAt 开始输出前读到的版本（{@link #getPostUpdatedAt}）
+     * @param writer    输出目标，每段写入后 flush
+     */
+    public void streamPostContent(Long id, LocalDateTime updatedAt, Writer writer) throws IOException {
+        String content = blogPostMapper.selectPostContentAt(id, updatedAt);
+        if (content == null) {
+            throw new IllegalStateException("文章在输出前被修改或下线: " + id);
+        }
+        for (int start = 0; start < content.length(); start += CONTENT_CHUNK_CHARS) {
+            writer.write(content, start, Math.min(CONTENT_CHUNK_CHARS, content.length() - start));
+            writer.flush();
+        }
+    }
+
+    /**
+     * 批量填充文章标签
+     * 整页文章只发一条 IN 查询，避免逐条查询带来的 N+1 往返
+     *
+     * @param posts 文章列表
+     * @return 同一列表（便于链式返回）
+     */
+    private List<BlogPostVO> attachTags(List<BlogPostVO> posts) {
+        if (posts == null || posts.isEmpty()) {
+            return posts;
+        }
+        Set<Long> postIds = posts.stream().map(BlogPostVO::getId).collect(Collectors.toSet());
+        Map<Long, List<String>> tagsByPost = blogTagMapper.selectTagsByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(PostTagVO::getPostId,
+                        Collectors.mapping(PostTagVO::getName, Collectors.toList())));
+        posts.forEach(vo -> vo.setTags(tagsByPost.getOrDefault(vo.getId(), Collections.emptyList())));
+        return posts;
+    }
+
     /**
      * 记录博客阅读（含防刷机制）
-     * 登录用户按 userId 去重，未登录用户按 IP 去重，冷却时间 24 小时。
+     * 登录用户按 userId 去重，未登录用户按 IP 去重；去重方式见 {@link BlogViewDeduplicator}。
+     * 文章不存在或未发布时不计数，也不在 Redis 中登记任何去重数据（主键查询，不读正文）。
      * 每次有效阅读都会：
-     * 1. 原子递增 blog_post.views
-     * 2. 写入 blog_post_view 阅读记录
-     * 3. 在 Redis 设置去重 key
+     * 1. 通过去重器判断是否首次阅读（同时登记独立访客），重复阅读直接返回
+     * 2. 阅读数累加到内存缓冲，由 {@link BlogViewCounter} 定时批量写回 blog_post.views；
+     *    同时为热门排行加分（{@link BlogTrendingService}）
+     * 3. 阅读记录交给 {@link BlogViewIngestor} 异步批量写入 blog_post_view
      *
      * @param postId    文章ID
      * @param userId    当前登录用户ID（可为null）
      * @param ip        客户端IP
      * @param userAgent 浏览器UA
-     * @return true=有效阅读（已计数），false=冷却期内重复阅读（未计数）
+     * @return true=有效阅读（已计数），false=冷却期内重复阅读或文章未发布（未计数）
      */
-    @Transactional
     public boolean recordView(Long postId, Long userId, String ip, String userAgent) {
-        // 构建去重 key：登录用户按userId，未登录按IP
+        if (blogPostMapper.selectPublishedUpdatedAt(postId) == null) {
+            return false;
+        }
+        // 去重标识：登录用户按userId，未登录按IP
         String identifier = (userId != null) ? "user:" + userId : "ip:" + ip;
-        String dedupKey = Constants.REDIS_VIEW_PREFIX + postId + ":" + identifier;
 
-        // 冷却期内不重复计数
-        if (Boolean.TRUE.equals(redisTemplate.hasKey(dedupKey))) {
+        // 1. 冷却期内不重复计数
+        if (!viewDeduplicator.firstView(postId, identifier)) {
             return false;
         }
 
-        // 1. 原子递增阅读次数
-        blogPostViewMapper.incrementViewCount(postId);
+        // 2. 阅读次数写回缓冲
+        viewCounter.increment(postId);
+        trendingService.record(postId);
 
-        // 2. 写入阅读记录（保留数据，功能暂不开放）
+        // 3. 异步写入阅读记录（保留数据，功能暂不开放）
         BlogPostView view = new BlogPostView();
         view.setPostId(postId);
         view.setUserId(userId);
@@ -273,22 +535,27 @@ public class BlogService {
         view.setUserAgent(userAgent != null && userAgent.length() > 500
                 ? userAgent.substring(0, 500) : userAgent);
         view.setCreatedAt(LocalDateTime.now());
-        blogPostViewMapper.insert(view);
-
-        // 3. 设置 Redis 去重 key（24小时过期）
-        redisTemplate.opsForValue().set(dedupKey, "1", Constants.VIEW_DEDUP_HOURS, TimeUnit.HOURS);
+        viewIngestor.submit(view);
 
-        log.info("[BlogView] 文章 {} 阅读 +1 ({})", postId, identifier);
+        log.debug("[BlogView] 文章 {} 阅读 +1 ({})", postId, identifier);
         return true;
     }
 
+    /**
+     * 最近 days 天（含今天）的独立访客数（HyperLogLog 估算）
+     */
+    public long getUniqueVisitors(Long postId, int days) {
+        return viewDeduplicator.uniqueVisitors(postId, days);
+    }
+
     /**
      * 获取所有分类（含文章数量）
      *
      * @return 分类列表
      */
     public List<CategoryVO> getCategories() {
-        return blogCategoryMapper.selectCategoriesWithCount();
+        return contentCache.get(BlogContentCache.CATEGORIES, new TypeReference<>() {},
+                blogCategoryMapper::selectCategoriesWithCount);
     }
 
     /**
@@ -297,16 +564,19 @@ public class BlogService {
      * @return 标签列表
      */
     public List<TagVO> getAllTags() {
-        return blogTagMapper.selectAllTagsWithCount();
+        return contentCache.get(BlogContentCache.TAGS, new TypeReference<>() {},
+                blogTagMapper::selectAllTagsWithCount);
     }
 
     /**
      * 获取热门标签
+     * 与全部标签同序（按数量降序），直接截取缓存中的全部标签
      *
      * @param limit 数量限制
      * @return 热门标签列表
      */
     public List<TagVO> getPopularTags(int limit) {
-        return blogTagMapper.selectPopularTags(limit);
+        List<TagVO> tags = getAllTags();
+        return tags.subList(0, Math.min(Math.max(limit, 0), tags.size()));
     }
 }
@@ -0,0 +1,268 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xander.lab.common.Result;
+import com.xander.lab.config.BlogSnapshotProperties;
+import com.xander.lab.mapper.BlogPostMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 公开博客接口的静态快照
+ *
+ * <pre>
+ * 内容：列表前 N 页、最新文章、每篇已发布文章详情（markdown / html 两种格式）、分类、标签，
+ *       均为完整的 Result 响应体 JSON，另存一份 .gz 预压缩版本
+ * 生成：启动后全量生成；文章写入提交后只重算该文章详情和共享的列表类快照，字节未变化的文件不重写；
+ *       其他节点的写入经缓存失效广播（{@link BlogCacheInvalidatedEvent}）同样处理；
+ *       定时全量校对，兜底丢失的广播和阅读数变化
+ * 服务：{@link com.xander.lab.filter.BlogSnapshotFilter} 命中时直接发送文件，未命中回落到控制器；
+ *       也可让 Nginx 以快照目录为 root，配合 gzip_static 直接服务
+ * </pre>
+ *
+ * 生成在单线程上串行执行，文件先写临时文件再原子替换，读者不会看到半个文件。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "blog.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class BlogSnapshotService {
+
+    public static final String CATEGORIES = "categories.json";
+    public static final String TAGS = "tags.json";
+    public static final String RECENT = "posts/recent.json";
+
+    private static final Pattern DETAIL_FILE = Pattern.compile("(\\d+)(\\.html)?\\.json");
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final BlogService blogService;
+    private final BlogPostMapper blogPostMapper;
+    private final ObjectMapper objectMapper;
+    private final BlogSnapshotProperties properties;
+
+    /** 已生成的快照：相对路径 → ETag；只有登记在此的文件才会被对外服务 */
+    private final Map<String, String> published = new ConcurrentHashMap<>();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "blog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 已生成的快照 */
+    public record Snapshot(Path json, Path gzip, String etag) {
+    }
+
+    /**
+     * 查找可对外服务的快照，不存在时返回 null
+     *
+     * @param relativePath 相对快照目录的路径，如 posts/12.json
+     */
+    public Snapshot find(String relativePath) {
+        String etag = published.get(relativePath);
+        if (etag == null) return null;
+        Path json = resolve(relativePath);
+        return new Snapshot(json, json.resolveSibling(json.getFileName() + GZIP_SUFFIX), etag);
+    }
+
+    public static String listPage(int page) {
+        return "posts/page-" + page + ".json";
+    }
+
+    public static String detail(Long postId, boolean html) {
+        return "posts/" + postId + (html ? ".html" : "") + ".json";
+    }
+
+    @EventListener({ApplicationReadyEvent.class, BlogPostsImportedEvent.class})
+    public void onReady() {
+        worker.execute(this::syncAll);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${blog.snapshot.resync-interval-ms:600000}",
+            initialDelayString = "${blog.snapshot.resync-interval-ms:600000}"
+    )
+    public void scheduledResync() {
+        worker.execute(this::syncAll);
+    }
+
+    /**
+     * 文章写入提交后：只重算该文章详情和列表类快照
+     * 详情快照立即下线，重新生成前由控制器动态响应，避免读到刚修改文章的旧内容
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(BlogPostChangedEvent event) {
+        postChanged(event.postId());
+    }
+
+    /**
+     * 其他节点的文章写入：同样先下线详情快照再重算，已删除或撤回的文章不会等到全量校对才下线
+     */
+    @EventListener
+    public void onRemoteInvalidation(BlogCacheInvalidatedEvent event) {
+        event.postIds().forEach(this::postChanged);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void postChanged(Long postId) {
+        published.remove(detail(postId, false));
+        published.remove(detail(postId, true));
+        worker.execute(() -> {
+            try {
+                int written = writePost(postId) + writeShared();
+                log.debug("[BlogSnapshot] 文章 {} 写入后更新了 {} 个快照", postId, written);
+            } catch (Exception e) {
+                log.warn("[BlogSnapshot] 文章 {} 的快照更新失败: {}", postId, e.getMessage());
+            }
+        });
+    }
+
+    /** 全量校对：生成全部快照并删除已不存在文章的详情快照 */
+    void syncAll() {
+        long start = System.currentTimeMillis();
+        try {
+            Files.createDirectories(resolve("posts"));
+            int written = writeShared();
+            Set<Long> ids = new HashSet<>();
+            for (Long postId : blogPostMapper.selectPublishedIds()) {
+                ids.add(postId);
+                written += writePost(postId);
+            }
+            int removed = removeOrphans(ids);
+            log.info("[BlogSnapshot] 全量校对完成：{} 篇文章，写入 {} 个、删除 {} 个快照，耗时 {} ms",
+                    ids.size(), written, removed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("[BlogSnapshot] 全量校对失败", e);
+        }
+    }
+
+    private int writeShared() throws IOException {
+        int written = 0;
+        for (int page = 1; page <= properties.getListPages(); page++) {
+            int current = page;
+            written += write(listPage(page), () -> blogService.getBlogs("", "", "", current, properties.getPageSize()));
+        }
+        written += write(RECENT, () -> blogService.getRecentBlogs(properties.getRecentLimit()));
+        written += write(CATEGORIES, blogService::getCategories);
+        written += write(TAGS, blogService::getAllTags);
+        return written;
+    }
+
+    /** 已发布则写入两种格式的详情快照，否则删除 */
+    private int writePost(Long postId) throws IOException {
+        return write(detail(postId, false), () -> blogService.getBlogById(postId))
+                + write(detail(postId, true), () -> blogService.getBlogHtmlById(postId));
+    }
+
+    /**
+     * 序列化并写入一个快照，内容未变化时跳过
+     * loader 返回 null 表示资源已不存在，删除对应快照
+     *
+     * @return 实际写入的文件数（0 或 1）
+     */
+    private int write(String relativePath, Supplier<?> loader) throws IOException {
+        Object data = loader.get();
+        if (data == null) {
+            delete(relativePath);
+            return 0;
+        }
+        byte[] body = objectMapper.writeValueAsBytes(Result.success(data));
+        String etag = sha256(body);
+        if (etag.equals(published.get(relativePath))) {
+            return 0;
+        }
+        Path json = resolve(relativePath);
+        Files.createDirectories(json.getParent());
+        replace(json.resolveSibling(json.getFileName() + GZIP_SUFFIX), gzip(body));
+        replace(json, body);
+        published.put(relativePath, etag);
+        return 1;
+    }
+
+    private void delete(String relativePath) throws IOException {
+        published.remove(relativePath);
+        Path json = resolve(relativePath);
+        Files.deleteIfExists(json);
+        Files.deleteIfExists(json.resolveSibling(json.getFileName() + GZIP_SUFFIX));
+    }
+
+    private int removeOrphans(Set<Long> publishedIds) throws IOException {
+        int removed = 0;
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(resolve("posts"))) {
+            files = stream.toList();
+        }
+        for (Path file : files) {
+            Matcher matcher = DETAIL_FILE.matcher(file.getFileName().toString());
+            if (matcher.matches() && !publishedIds.contains(Long.parseLong(matcher.group(1)))) {
+                delete(detail(Long.parseLong(matcher.group(1)), matcher.group(2) != null));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private Path resolve(String relativePath) {
+        return properties.getDirectory().resolve(relativePath);
+    }
+
+    private static void replace(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".snapshot", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
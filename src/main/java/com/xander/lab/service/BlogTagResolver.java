@@ -0,0 +1,108 @@
+package com.xander.lab.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xander.lab.entity.BlogTag;
+import com.xander.lab.mapper.BlogTagMapper;
+import com.xander.lab.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 标签名 → 标签ID 解析
+ *
+ * <pre>
+ * 缓存：进程内 名称 → ID 缓存，常用标签不访问数据库（标签不会被应用删除，过期时间兜底手工改库）；
+ *       处于事务中时提交后才写入缓存，回滚的事务里新建的标签ID不会留在缓存中
+ * 未命中：一次 IN 查询批量取ID；仍不存在的名称用一条多行 INSERT ... ON DUPLICATE KEY 创建后再查一次
+ * </pre>
+ *
+ * name 列排序规则不区分大小写，"Redis" 与 "redis" 是同一个标签，结果按不区分大小写匹配回输入名称；
+ * 排序规则还会把重音等字符视为相同，这类极少数名称逐个按数据库规则查询。
+ */
+@Component
+@RequiredArgsConstructor
+public class BlogTagResolver {
+
+    private final BlogTagMapper blogTagMapper;
+
+    private final Cache<String, Long> idsByName = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    /**
+     * 解析标签ID，不存在的标签自动创建
+     *
+     * @param names 标签名（忽略空白，重复名称只保留一次）
+     * @return 与输入顺序一致、去重后的标签ID
+     */
+    public Set<Long> resolveIds(List<String> names) {
+        Set<String> wanted = new LinkedHashSet<>();
+        if (names != null) {
+            names.stream().filter(n -> n != null && !n.isBlank()).forEach(wanted::add);
+        }
+        Map<String, Long> resolved = new LinkedHashMap<>();
+        Map<String, Long> fetched = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : wanted) {
+            Long id = idsByName.getIfPresent(name);
+            if (id != null) {
+                resolved.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<String> absent = lookup(missing, fetched);
+            if (!absent.isEmpty()) {
+                blogTagMapper.upsertNames(absent);
+                absent = lookup(absent, fetched);
+            }
+            for (String name : absent) {
+                BlogTag tag = blogTagMapper.selectOne(new LambdaQueryWrapper<BlogTag>().eq(BlogTag::getName, name));
+                if (tag == null) {
+                    throw new IllegalStateException("标签创建失败: " + name);
+                }
+                fetched.put(name, tag.getId());
+            }
+            resolved.putAll(fetched);
+            TransactionUtils.afterCommit(() -> idsByName.putAll(fetched));
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        wanted.forEach(name -> ids.add(resolved.get(name)));
+        return ids;
+    }
+
+    /**
+     * 批量查询并写入 fetched
+     *
+     * @return 查询后仍未匹配的名称
+     */
+    private List<String> lookup(List<String> names, Map<String, Long> fetched) {
+        Map<String, Long> found = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        blogTagMapper.selectByNames(names).forEach(tag -> found.put(tag.getName(), tag.getId()));
+        List<String> unmatched = new ArrayList<>();
+        for (String name : names) {
+            Long id = found.get(name);
+            if (id == null) {
+                unmatched.add(name);
+            } else {
+                fetched.put(name, id);
+            }
+        }
+        return unmatched;
+    }
+}
@@ -0,0 +1,116 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogTrendingProperties;
+import com.xander.lab.mapper.BlogPostMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 热门文章排行（按时间衰减的阅读热度）
+ *
+ * <pre>
+ * 热度：每次有效阅读的权重随时间指数衰减，半衰期 half-life-hours；
+ *       采用前向衰减，按 exp((now - epoch) / τ) 加分，已有分数无需逐个更新，排序不变
+ * 存储：Redis 有序集合 blog:trending（成员为文章ID），基准时间 blog:trending:epoch
+ * 读取：ZREVRANGE 取前 N，O(log n + N)
+ * 重定基准：定时把全部分数乘以 exp((epoch - now) / τ) 并把基准移到当前时刻，
+ *           分数保持在“当前有效阅读数”量级，避免权重指数增长溢出；同时清理低分和超出 max-size 的成员
+ * </pre>
+ *
+ * 加分和重定基准都在 Lua 中读取基准时间，二者交错执行也不会混用新旧基准。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlogTrendingService {
+
+    static final String KEY = "blog:trending";
+    static final String EPOCH_KEY = "blog:trending:epoch";
+
+    /** KEYS[1]=有序集合 KEYS[2]=基准时间；ARGV[1]=当前毫秒 ARGV[2]=τ毫秒 ARGV[3]=文章ID */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local epoch = tonumber(redis.call('GET', KEYS[2]))
+            if not epoch then
+              epoch = now
+              redis.call('SET', KEYS[2], ARGV[1])
+            end
+            redis.call('ZINCRBY', KEYS[1], math.exp((now - epoch) / tonumber(ARGV[2])), ARGV[3])
+            return 1
+            """, Long.class);
+
+    /** ARGV[1]=当前毫秒 ARGV[2]=τ毫秒 ARGV[3]=保留成员数 ARGV[4]=最低分数；返回剩余成员数 */
+    private static final RedisScript<Long> REBASE_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local epoch = tonumber(redis.call('GET', KEYS[2]))
+            if epoch and redis.call('EXISTS', KEYS[1]) == 1 then
+              local factor = math.exp((epoch - now) / tonumber(ARGV[2]))
+              redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', string.format('%.17g', factor))
+              redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[4])
+              redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 1))
+            end
+            redis.call('SET', KEYS[2], ARGV[1])
+            return redis.call('ZCARD', KEYS[1])
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final BlogPostMapper blogPostMapper;
+    private final BlogTrendingProperties properties;
+
+    /**
+     * 记录一次有效阅读
+     */
+    public void record(Long postId) {
+        redisTemplate.execute(INCREMENT_SCRIPT, List.of(KEY, EPOCH_KEY),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(tauMillis()), postId.toString());
+    }
+
+    /**
+     * 热度最高的文章ID（按热度降序）
+     */
+    public List<Long> topIds(int limit) {
+        Set<String> members = redisTemplate.opsForZSet().reverseRange(KEY, 0, limit - 1L);
+        return members == null ? List.of() : members.stream().map(Long::valueOf).toList();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${blog.trending.rebase-interval-ms:3600000}",
+            initialDelayString = "${blog.trending.rebase-interval-ms:3600000}"
+    )
+    public void rebase() {
+        try {
+            Long size = redisTemplate.execute(REBASE_SCRIPT, List.of(KEY, EPOCH_KEY),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(tauMillis()),
+                    String.valueOf(properties.getMaxSize()), String.valueOf(properties.getMinScore()));
+            log.debug("[BlogTrending] 热度重定基准完成，保留 {} 篇文章", size);
+        } catch (Exception e) {
+            log.error("[BlogTrending] 热度重定基准失败", e);
+        }
+    }
+
+    /** 文章删除或下线后移出排行 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(BlogPostChangedEvent event) {
+        try {
+            if (blogPostMapper.selectPublishedUpdatedAt(event.postId()) == null) {
+                redisTemplate.opsForZSet().remove(KEY, event.postId().toString());
+            }
+        } catch (Exception e) {
+            log.warn("[BlogTrending] 文章 {} 移出排行失败: {}", event.postId(), e.getMessage());
+        }
+    }
+
+    /** 衰减时间常数 τ = 半衰期 / ln 2 */
+    private long tauMillis() {
+        return Math.round(properties.getHalfLifeHours() * 3_600_000 / Math.log(2));
+    }
+}
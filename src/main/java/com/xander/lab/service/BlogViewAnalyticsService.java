@@ -0,0 +1,158 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import com.xander.lab.dto.ViewTrendPointVO;
+import com.xander.lab.mapper.BlogViewRollupMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 博客阅读统计
+ *
+ * <pre>
+ * 汇总：按 blog_post_view.id 增量推进，每块 (上次进度, 进度 + rollup-chunk-size] 在一个事务内
+ *       累加到小时/日汇总并更新进度；进度行加锁，多实例不会重复累加
+ * 上界：自增 ID 的提交顺序与分配顺序不一致（其他节点的批量插入、并发事务），进度只推进到
+ *       rollup-settle-ms 之前观察到的 MAX(id)：比它小的 ID 都在那之前分配，届时已提交，
+ *       不会有未汇总的行被进度越过、随后又被保留任务删除
+ * 保留：原始记录只删除已汇总且超过 raw-retention-days 的行，小时汇总保留 hourly-retention-days，
+ *       日汇总长期保留；删除均按块进行，避免长事务和大范围锁
+ * 查询：趋势只读汇总表，缺失的时间段补 0；数据滞后约一个汇总周期
+ * </pre>
+ */
+@Service
+@RequiredArgsConstructor
+public class BlogViewAnalyticsService {
+
+    static final String ROLLUP_NAME = "blog_post_view";
+
+    /** 日粒度趋势最多查询天数 */
+    private static final int MAX_DAILY_DAYS = 366;
+
+    private final BlogViewRollupMapper rollupMapper;
+    private final BlogViewProperties properties;
+    private final Clock clock;
+
+    /** 本节点观察到的 MAX(id) 及观察时间，按时间升序 */
+    private final Deque<Observation> observations = new ArrayDeque<>();
+
+    private record Observation(long observedAt, long maxViewId) {
+    }
+
+    /**
+     * 汇总下一块阅读记录
+     *
+     * @return 本块覆盖的阅读记录 ID 跨度，0 表示已追平
+     */
+    @Transactional
+    public long rollUpChunk() {
+        Long last = rollupMapper.lockWatermark(ROLLUP_NAME);
+        if (last == null) {
+            rollupMapper.initWatermark(ROLLUP_NAME);
+            last = rollupMapper.lockWatermark(ROLLUP_NAME);
+        }
+        long max = settledMaxViewId();
+        if (max <= last) return 0;
+
+        long to = Math.min(max, last + Math.max(1, properties.getRollupChunkSize()));
+        rollupMapper.rollUpHourly(last, to);
+        rollupMapper.rollUpDaily(last, to);
+        rollupMapper.updateWatermark(ROLLUP_NAME, to);
+        return to - last;
+    }
+
+    /**
+     * 记录当前 MAX(id)，返回 rollup-settle-ms 之前最近一次观察到的值（尚无足够早的观察时为 0）
+     * 观察只在本节点内存中保留，任何节点的观察对所有节点都成立
+     */
+    private synchronized long settledMaxViewId() {
+        long now = clock.millis();
+        observations.addLast(new Observation(now, rollupMapper.selectMaxViewId()));
+        long cutoff = now - properties.getRollupSettleMs();
+        Observation settled = null;
+        while (!observations.isEmpty() && observations.peekFirst().observedAt() <= cutoff) {
+            settled = observations.pollFirst();
+        }
+        if (settled == null) return 0;
+        observations.addFirst(settled);
+        return settled.maxViewId();
+    }
+
+    /**
+     * 删除一块超过保留期的原始阅读记录（只删除已汇总的行）
+     *
+     * @return 删除的行数
+     */
+    public int purgeRawChunk() {
+        Long watermark = rollupMapper.selectWatermark(ROLLUP_NAME);
+        if (watermark == null || watermark == 0) return 0;
+        LocalDateTime before = LocalDateTime.now().minusDays(properties.getRawRetentionDays());
+        return rollupMapper.purgeRawViews(watermark, before, properties.getPurgeChunkSize());
+    }
+
+    /**
+     * 删除一块超过保留期的小时汇总
+     *
+     * @return 删除的行数
+     */
+    public int purgeHourlyChunk() {
+        LocalDateTime before = LocalDateTime.now().minusDays(properties.getHourlyRetentionDays());
+        return rollupMapper.purgeHourly(before, properties.getPurgeChunkSize());
+    }
+
+    /**
+     * 阅读趋势
+     *
+     * @param postId      文章ID，null 表示全站
+     * @param granularity hour / day
+     * @param days        最近天数（含今天），小时粒度不超过小时汇总保留期
+     * @return 按时间升序、无缺口的数据点
+     */
+    public List<ViewTrendPointVO> getTrend(Long postId, String granularity, int days) {
+        boolean hourly = switch (granularity) {
+            case "hour" -> true;
+            case "day" -> false;
+            default -> throw new IllegalArgumentException("不支持的粒度: " + granularity);
+        };
+        int maxDays = hourly ? properties.getHourlyRetentionDays() : MAX_DAILY_DAYS;
+        days = Math.max(1, Math.min(days, maxDays));
+
+        List<ViewTrendPointVO> rows;
+        LocalDateTime from;
+        LocalDateTime end;
+        ChronoUnit step;
+        if (hourly) {
+            end = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+            from = end.minusHours(days * 24L - 1);
+            step = ChronoUnit.HOURS;
+            rows = postId == null ? rollupMapper.selectSiteHourly(from) : rollupMapper.selectPostHourly(postId, from);
+        } else {
+            LocalDate today = LocalDate.now();
+            end = today.atStartOfDay();
+            from = today.minusDays(days - 1L).atStartOfDay();
+            step = ChronoUnit.DAYS;
+            rows = postId == null ? rollupMapper.selectSiteDaily(from.toLocalDate())
+                    : rollupMapper.selectPostDaily(postId, from.toLocalDate());
+        }
+
+        Map<LocalDateTime, Long> views = new HashMap<>();
+        rows.forEach(row -> views.put(row.getBucket(), row.getViews()));
+        List<ViewTrendPointVO> points = new ArrayList<>();
+        for (LocalDateTime bucket = from; !bucket.isAfter(end); bucket = bucket.plus(1, step)) {
+            points.add(new ViewTrendPointVO(bucket, views.getOrDefault(bucket, 0L)));
+        }
+        return points;
+    }
+}
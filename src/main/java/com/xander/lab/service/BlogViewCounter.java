@@ -0,0 +1,100 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import com.xander.lab.mapper.BlogPostViewMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 文章阅读数写回缓冲
+ *
+ * <pre>
+ * 记录：请求线程只对内存中的计数原子递增，不访问数据库，热门文章不再在 views 行锁上排队
+ * 刷新：定时逐篇原子取走累计增量，按批合并成一条 UPDATE 写回 blog_post；失败的增量加回缓冲，下次重试
+ * 停机：容器销毁时（早于数据源关闭）做最后一次刷新
+ * </pre>
+ *
+ * 数据库中的阅读数最多落后一个刷新周期，详情接口的校验器已按 5 分钟窗口容忍阅读数变化。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlogViewCounter {
+
+    private final BlogPostViewMapper blogPostViewMapper;
+    private final BlogViewProperties properties;
+
+    /**
+     * 文章ID → 未写回的阅读增量
+     * 递增和取走都是对同一 key 的原子 map 操作：不存在刷新线程已移出、请求线程仍在递增的游离计数器
+     */
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 阅读数 +1
+     */
+    public void increment(Long postId) {
+        pending.merge(postId, 1L, Long::sum);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${blog.view.flush-interval-ms:5000}",
+            initialDelayString = "${blog.view.flush-interval-ms:5000}"
+    )
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("[BlogView] 阅读数写回失败", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        int flushed = flush();
+        log.info("[BlogView] 停机前写回 {} 篇文章的阅读数", flushed);
+    }
+
+    /**
+     * 写回全部累计增量
+     *
+     * @return 写回的文章数
+     */
+    synchronized int flush() {
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        for (Long postId : pending.keySet()) {
+            // remove 原子取走增量并移出缓冲，之后的递增会新建条目计入下次
+            Long delta = pending.remove(postId);
+            if (delta != null && delta > 0) {
+                deltas.put(postId, delta);
+            }
+        }
+        if (deltas.isEmpty()) return 0;
+
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        int batchSize = Math.max(1, properties.getFlushBatchSize());
+        int flushed = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            Map<Long, Long> batch = new LinkedHashMap<>();
+            ids.subList(from, Math.min(from + batchSize, ids.size())).forEach(id -> batch.put(id, deltas.get(id)));
+            try {
+                blogPostViewMapper.addViewCounts(batch);
+                flushed += batch.size();
+            } catch (Exception e) {
+                batch.forEach((id, delta) -> pending.merge(id, delta, Long::sum));
+                log.warn("[BlogView] {} 篇文章的阅读数写回失败，已放回缓冲等待重试: {}", batch.size(), e.getMessage());
+            }
+        }
+        log.debug("[BlogView] 写回 {} 篇文章的阅读数", flushed);
+        return flushed;
+    }
+}
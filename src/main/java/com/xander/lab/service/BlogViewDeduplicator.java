@@ -0,0 +1,180 @@
+package com.xander.lab.service;
+
+import com.xander.lab.common.Constants;
+import com.xander.lab.config.BlogViewProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 阅读去重与独立访客统计
+ *
+ * <pre>
+ * BLOOM（默认）：每篇文章每天一个可扩展布隆过滤器，建在普通 Redis 位图上（不依赖 RedisBloom 模块）。
+ *   第 i 片（从 0 开始）容量 n·2^i、误判率 p/2^(i+1)，前面各片写满后新访客写入下一片，
+ *   因此访客数远超 n 时各片误判率之和仍低于 p；最多 bloom-max-slices 片，写满后继续写最后一片。
+ *   一次 Lua 调用依次检查已启用的分片（全部 k 位为 1 即重复），否则写入当前分片并累加计数，
+ *   同时 PFADD 和设置过期；去重周期为自然日，约有不到 p 比例的首次阅读被当作重复而少计
+ * KEY：原有方式，每个访客每篇文章一个 24 小时 key（SET NX EX），精确但 key 数量随访客线性增长
+ * 两种模式都向 HyperLogLog（每篇文章每天一个）写入访客标识，用于独立访客数统计（误差约 0.81%）
+ * </pre>
+ *
+ * 内存（BLOOM）：第 i 片位图 m_i = ⌈-n_i·ln p_i / (ln 2)²⌉ 位，n = bloom-expected-visitors；
+ * 默认 n=2000、p=1% 时首片 m≈22053 位≈2.7 KB、k=8，之后每片约为前一片的 2 倍多，
+ * 只有访客数超过前面各片容量之和时才会分配。日访客 ≤2000 的文章约 2.7 KB/天，1 万访客约 23 KB/天，保留 2 天。
+ * HyperLogLog 稀疏编码时很小，稠密后固定约 12 KB，保留 unique-visitor-retention-days 天。
+ * KEY 模式每个（文章, 访客）约 80~100 字节，单篇日访客超过约 100 时 BLOOM 更省，访客越多差距越大。
+ */
+@Component
+@RequiredArgsConstructor
+public class BlogViewDeduplicator {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * KEYS[1]=HyperLogLog KEYS[2]=已写入访客数 KEYS[3..]=各分片位图
+     * ARGV[1]=位图过期秒数 ARGV[2]=HLL过期秒数 ARGV[3]=访客标识 ARGV[4]=h1 ARGV[5]=h2
+     * 之后每片三个参数：位数 m、哈希个数 k、到该片为止的累计容量；第 j 个位偏移为 (h1 + j·h2) mod m
+     */
+    private static final RedisScript<Long> BLOOM_SCRIPT = new DefaultRedisScript<>("""
+            local h1, h2 = tonumber(ARGV[4]), tonumber(ARGV[5])
+            local added = tonumber(redis.call('GET', KEYS[2]) or '0')
+            local active = #KEYS - 2
+            for s = 1, #KEYS - 2 do
+              if added < tonumber(ARGV[5 + s * 3]) then active = s break end
+            end
+            redis.call('PFADD', KEYS[1], ARGV[3])
+            if redis.call('TTL', KEYS[1]) < 0 then redis.call('EXPIRE', KEYS[1], ARGV[2]) end
+            for s = 1, active do
+              local bits, seen = tonumber(ARGV[3 + s * 3]), true
+              for j = 0, tonumber(ARGV[4 + s * 3]) - 1 do
+                if redis.call('GETBIT', KEYS[2 + s], (h1 + j * h2) % bits) == 0 then seen = false break end
+              end
+              if seen then return 0 end
+            end
+            local bits = tonumber(ARGV[3 + active * 3])
+            for j = 0, tonumber(ARGV[4 + active * 3]) - 1 do
+              redis.call('SETBIT', KEYS[2 + active], (h1 + j * h2) % bits, 1)
+            end
+            redis.call('INCR', KEYS[2])
+            if redis.call('TTL', KEYS[2 + active]) < 0 then redis.call('EXPIRE', KEYS[2 + active], ARGV[1]) end
+            if redis.call('TTL', KEYS[2]) < 0 then redis.call('EXPIRE', KEYS[2], ARGV[1]) end
+            return 1
+            """, Long.class);
+
+    /** 布隆过滤器的一个分片：位数、哈希个数、到该片为止的累计容量 */
+    record Slice(long bits, int hashes, long capacity) {}
+
+    private final StringRedisTemplate redisTemplate;
+    private final BlogViewProperties properties;
+
+    /**
+     * 判断是否首次阅读并登记
+     *
+     * @param identifier 访客标识（user:{id} / ip:{ip}）
+     * @return true=首次阅读（应计数）
+     */
+    public boolean firstView(Long postId, String identifier) {
+        String day = LocalDate.now(ZoneId.systemDefault()).format(DAY);
+        if (properties.getDedupMode() == BlogViewProperties.DedupMode.KEY) {
+            String dedupKey = Constants.REDIS_VIEW_PREFIX + postId + ":" + identifier;
+            boolean fresh = Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(dedupKey, "1", Constants.VIEW_DEDUP_HOURS, TimeUnit.HOURS));
+            if (fresh) {
+                String hll = visitorsKey(postId, day);
+                redisTemplate.opsForHyperLogLog().add(hll, identifier);
+                redisTemplate.expire(hll, properties.getUniqueVisitorRetentionDays(), TimeUnit.DAYS);
+            }
+            return fresh;
+        }
+
+        String filter = Constants.REDIS_VIEW_BLOOM_PREFIX + postId + ":" + day + ":";
+        List<String> keys = new ArrayList<>(List.of(visitorsKey(postId, day), filter + "n"));
+        long[] hashes = hashes(identifier);
+        List<String> args = new ArrayList<>(List.of(
+                String.valueOf(TimeUnit.DAYS.toSeconds(2)),
+                String.valueOf(TimeUnit.DAYS.toSeconds(properties.getUniqueVisitorRetentionDays())),
+                identifier, String.valueOf(hashes[0]), String.valueOf(hashes[1])));
+        List<Slice> slices = bloomSlices();
+        for (int i = 0; i < slices.size(); i++) {
+            Slice slice = slices.get(i);
+            keys.add(filter + i);
+            Stream.of(slice.bits(), slice.hashes(), slice.capacity()).map(String::valueOf).forEach(args::add);
+        }
+        Long fresh = redisTemplate.execute(BLOOM_SCRIPT, keys, args.toArray());
+        return fresh != null && fresh == 1L;
+    }
+
+    /**
+     * 最近 days 天（含今天）的独立访客数，days 限制在 [1, 保留天数]
+     */
+    public long uniqueVisitors(Long postId, int days) {
+        days = Math.max(1, Math.min(days, properties.getUniqueVisitorRetentionDays()));
+        LocalDate today = LocalDate.now(ZoneId.systemDefault());
+        String[] keys = new String[days];
+        for (int i = 0; i < days; i++) {
+            keys[i] = visitorsKey(postId, today.minusDays(i).format(DAY));
+        }
+        Long count = redisTemplate.opsForHyperLogLog().size(keys);
+        return count == null ? 0 : count;
+    }
+
+    private static String visitorsKey(Long postId, String day) {
+        return Constants.REDIS_VIEW_VISITORS_PREFIX + postId + ":" + day;
+    }
+
+    /** 各分片参数：第 i 片容量 n·2^i、误判率 p/2^(i+1)，误判率之和低于 p */
+    List<Slice> bloomSlices() {
+        long n = Math.max(1, properties.getBloomExpectedVisitors());
+        double p = properties.getBloomFalsePositiveRate();
+        List<Slice> slices = new ArrayList<>();
+        long capacity = 0;
+        for (int i = 0; i < Math.max(1, properties.getBloomMaxSlices()); i++) {
+            double sliceVisitors = (double) n * (1L << i);
+            double sliceRate = p / (1L << (i + 1));
+            long bits = (long) Math.ceil(-sliceVisitors * Math.log(sliceRate) / (Math.log(2) * Math.log(2)));
+            int hashes = Math.max(1, (int) Math.round(bits / sliceVisitors * Math.log(2)));
+            capacity += (long) sliceVisitors;
+            slices.add(new Slice(bits, hashes, capacity));
+        }
+        return slices;
+    }
+
+    /** 双重哈希的 h1、h2（各 32 位，Lua 的双精度数可精确计算 h1 + j·h2） */
+    static long[] hashes(String identifier) {
+        ByteBuffer digest = ByteBuffer.wrap(sha256(identifier));
+        return new long[]{Integer.toUnsignedLong(digest.getInt()), Integer.toUnsignedLong(digest.getInt()) | 1};
+    }
+
+    /** 双重哈希（Kirsch–Mitzenmacher）：g_j = h1 + j·h2 mod m，与 Lua 脚本中的计算一致 */
+    static long[] bitOffsets(String identifier, long bits, int hashes) {
+        long[] h = hashes(identifier);
+        long[] offsets = new long[hashes];
+        for (int j = 0; j < hashes; j++) {
+            offsets[j] = (h[0] + j * h[1]) % bits;
+        }
+        return offsets;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import com.xander.lab.entity.BlogPostView;
+import com.xander.lab.mapper.BlogPostViewMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 阅读记录异步批量写入
+ *
+ * <pre>
+ * 入队：请求线程把阅读记录放入有界无锁队列后立即返回；队列满时丢弃并计数，不阻塞请求
+ * 写入：单个写线程攒够一批（或等待 insert-linger-ms）后用一条多行 INSERT 写入 blog_post_view
+ * 停机：容器销毁时停止写线程并写完队列中剩余的记录
+ * 指标：blog.view.queue.depth / blog.view.events.dropped / blog.view.events.failed /
+ *       blog.view.insert.batch.size / blog.view.insert.latency
+ * </pre>
+ *
+ * 阅读记录只用于统计，写入失败的批次记录日志和指标后丢弃，不重试。
+ */
+@Slf4j
+@Component
+public class BlogViewIngestor {
+
+    private final BlogPostViewMapper blogPostViewMapper;
+    private final BlogViewProperties properties;
+
+    /** ConcurrentLinkedQueue 本身无界，容量由 size 计数控制 */
+    private final Queue<BlogPostView> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Counter dropped;
+    private final Counter failed;
+    private final DistributionSummary batchSize;
+    private final Timer insertLatency;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public BlogViewIngestor(BlogPostViewMapper blogPostViewMapper, BlogViewProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.blogPostViewMapper = blogPostViewMapper;
+        this.properties = properties;
+        Gauge.builder("blog.view.queue.depth", size, AtomicInteger::get)
+                .description("Buffered blog_post_view rows waiting for the writer")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("blog.view.events.dropped")
+                .description("View rows dropped because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("blog.view.events.failed")
+                .description("View rows lost because their batch insert failed")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("blog.view.insert.batch.size")
+                .description("Rows per multi-row INSERT into blog_post_view")
+                .register(meterRegistry);
+        this.insertLatency = Timer.builder("blog.view.insert.latency")
+                .description("Latency of one multi-row INSERT into blog_post_view")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交一条阅读记录，不阻塞
+     *
+     * @return false=队列已满，记录被丢弃
+     */
+    public boolean submit(BlogPostView view) {
+        int depth = size.incrementAndGet();
+        if (depth > properties.getQueueCapacity()) {
+            size.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(view);
+        if (depth >= properties.getInsertBatchSize()) {
+            Thread current = writer;
+            if (current != null) LockSupport.unpark(current);
+        }
+        return true;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "blog-view-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        log.info("[BlogView] 阅读记录写线程已停止，剩余 {} 条未写入", size.get());
+    }
+
+    private void run() {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(properties.getInsertLingerMs());
+        while (running) {
+            try {
+                if (writeBatch() < properties.getInsertBatchSize()) {
+                    LockSupport.parkNanos(this, lingerNanos);
+                }
+            } catch (Exception e) {
+                log.error("[BlogView] 阅读记录写线程异常", e);
+            }
+        }
+        // 停机：写完剩余记录
+        while (writeBatch() > 0) {
+            // continue
+        }
+    }
+
+    /**
+     * 从队列取出最多一批记录并写入
+     *
+     * @return 本批取出的记录数
+     */
+    int writeBatch() {
+        int limit = Math.max(1, properties.getInsertBatchSize());
+        List<BlogPostView> batch = new ArrayList<>(Math.min(limit, Math.max(size.get(), 1)));
+        BlogPostView view;
+        while (batch.size() < limit && (view = queue.poll()) != null) {
+            batch.add(view);
+        }
+        if (batch.isEmpty()) return 0;
+        size.addAndGet(-batch.size());
+
+        batchSize.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            blogPostViewMapper.insertBatch(batch);
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.warn("[BlogView] {} 条阅读记录写入失败，已丢弃: {}", batch.size(), e.getMessage());
+        } finally {
+            insertLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return batch.size();
+    }
+}
@@ -0,0 +1,58 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntSupplier;
+
+/**
+ * 阅读汇总与保留任务
+ * 每轮最多处理 max-chunks-per-run 块汇总和删除，积压在后续轮次中继续追平。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "blog.view.rollup-enabled", havingValue = "true", matchIfMissing = true)
+public class BlogViewRollupScheduler {
+
+    private final BlogViewAnalyticsService analyticsService;
+    private final BlogViewProperties properties;
+
+    @Scheduled(
+            fixedDelayString = "${blog.view.rollup-interval-ms:300000}",
+            initialDelayString = "${blog.view.rollup-initial-delay-ms:60000}"
+    )
+    public void run() {
+        try {
+            long rolledUp = 0;
+            for (int i = 0; i < properties.getMaxChunksPerRun(); i++) {
+                long span = analyticsService.rollUpChunk();
+                rolledUp += span;
+                if (span < properties.getRollupChunkSize()) break;
+            }
+
+            int purgedRaw = purge(analyticsService::purgeRawChunk);
+            int purgedHourly = purge(analyticsService::purgeHourlyChunk);
+            if (rolledUp > 0 || purgedRaw > 0 || purgedHourly > 0) {
+                log.info("[BlogViewRollup] 汇总阅读记录 ID 跨度 {}，删除原始记录 {} 行、小时汇总 {} 行",
+                        rolledUp, purgedRaw, purgedHourly);
+            }
+        } catch (Exception e) {
+            log.error("[BlogViewRollup] 阅读汇总失败", e);
+        }
+    }
+
+    private int purge(IntSupplier chunk) {
+        int total = 0;
+        for (int i = 0; i < properties.getMaxChunksPerRun(); i++) {
+            int deleted = chunk.getAsInt();
+            total += deleted;
+            if (deleted < properties.getPurgeChunkSize()) break;
+        }
+        return total;
+    }
+}
@@ -3,6 +3,7 @@ package com.xander.lab.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.xander.lab.common.UserContext;
 import com.xander.lab.dto.*;
+import com.xander.lab.dto.auth.UserProfile;
 import com.xander.lab.entity.*;
 import com.xander.lab.mapper.*;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +24,7 @@ public class ComponentService {
     private final ComponentItemMapper itemMapper;
     private final ComponentScenarioMapper scenarioMapper;
     private final ComponentDetailPageMapper detailPageMapper;
-    private final UserMapper userMapper;
+    private final UserProfileCache userProfileCache;
 
     /**
      * 获取侧边栏菜单结构
@@ -75,6 +76,15 @@ public class ComponentService {
         return menu;
     }
 
+    /**
+     * 组件库内容版本，用作菜单/详情接口的条件请求校验器
+     *
+     * @return 最大修改时间与总行数
+     */
+    public ContentVersion getCatalogVersion() {
+        return itemMapper.selectCatalogVersion();
+    }
+
     /**
      * 获取组件完整详情（包含场景和子页面）
      *
@@ -150,9 +160,9 @@ public class ComponentService {
         Long userId = UserContext.getUserId();
         String authorName = "匿名用户" + userId;
         if (userId != null) {
-            User user = userMapper.selectById(userId);
+            UserProfile user = userProfileCache.get(userId);
             if (user != null) {
-                authorName = user.getNickname() != null ? user.getNickname() : user.getUsername();
+                authorName = user.nickname() != null ? user.nickname() : user.username();
             }
         }
 
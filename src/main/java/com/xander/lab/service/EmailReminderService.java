@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Clock;
@@ -32,6 +33,8 @@ public class EmailReminderService {
 
     private final EmailReminderTaskMapper taskMapper;
     private final Clock clock;
+    private final IdempotencyGuard idempotencyGuard;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${mail.from}")
     private String senderEmail;
@@ -58,14 +61,33 @@ public class EmailReminderService {
                 .toList();
     }
 
-    @Transactional
+    /**
+     * Creates a reminder. With a client request id, retries and concurrent duplicates wait for
+     * and share the first request's task instead of all queueing on the user-row lock.
+     */
     public EmailReminderTaskVO create(Long userId, EmailReminderCreateRequest request) {
         requireUser(userId);
+        String clientRequestId = normalizeClientRequestId(request.getClientRequestId());
+        if (clientRequestId == null) {
+            return transactionTemplate.execute(status -> createLocked(userId, null, request));
+        }
+        return idempotencyGuard.execute("email-reminder:create:" + userId + ":" + clientRequestId,
+                () -> transactionTemplate.execute(status -> createLocked(userId, clientRequestId, request)),
+                EmailReminderTaskVO::getId,
+                taskId -> {
+                    EmailReminderTask existing = taskMapper.selectById(taskId);
+                    if (existing == null || existing.getDeletedAt() != null) {
+                        throw conflict("该幂等请求标识已被删除任务使用，请生成新的标识");
+                    }
+                    return toVO(existing);
+                });
+    }
+
+    private EmailReminderTaskVO createLocked(Long userId, String clientRequestId, EmailReminderCreateRequest request) {
         if (taskMapper.lockUserForReminderCreation(userId) == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, UNAUTHORIZED_MESSAGE);
         }
 
-        String clientRequestId = normalizeClientRequestId(request.getClientRequestId());
         if (clientRequestId != null) {
             EmailReminderTask existing = findByClientRequestId(userId, clientRequestId);
             if (existing != null) {
@@ -0,0 +1,152 @@
+package com.xander.lab.service;
+
+import com.xander.lab.dto.BlogPostVO;
+import com.xander.lab.config.ExportProperties;
+import com.xander.lab.entity.User;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.UserMapper;
+import com.xander.lab.util.CsvTableWriter;
+import com.xander.lab.util.TableWriter;
+import com.xander.lab.util.XlsxTableWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PostConstruct;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 数据导出（CSV / XLSX）
+ *
+ * <pre>
+ * 读取：MyBatis Cursor 在只读事务内逐行读取（MySQL 流式结果集），不物化整张表
+ * 限流：每个导出在写完前占用一个连接，同时进行的导出不超过 max-concurrent，超出时接口返回 429；
+ *       事务超时与查询的 MAX_EXECUTION_TIME 均为 timeout，慢客户端也不会无限期占用连接
+ * 写出：每行直接写入响应输出流；XLSX 只在内存中保留固定行数窗口，其余落临时文件
+ * 类型：blog 已发布文章；user 用户（不含密码和邮箱，仅管理员可导出）
+ * </pre>
+ *
+ * 导出大小只受磁盘与网络限制，堆占用与行数无关。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    public enum Format {
+        CSV, XLSX
+    }
+
+    private static final List<String> BLOG_HEADER = List.of("ID", "标题", "分类", "作者", "发布日期", "浏览量");
+    private static final List<String> USER_HEADER = List.of("ID", "用户名", "昵称", "角色", "注册时间");
+
+    private final BlogPostMapper blogPostMapper;
+    private final UserMapper userMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ExportProperties properties;
+
+    private Semaphore permits;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void initialize() {
+        permits = new Semaphore(Math.max(1, properties.getMaxConcurrent()));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setTimeout((int) Math.max(1, properties.getTimeout().toSeconds()));
+    }
+
+    /**
+     * 是否支持该导出类型
+     */
+    public boolean supports(String type) {
+        return "blog".equals(type) || "user".equals(type);
+    }
+
+    /**
+     * 当前用户能否导出该类型：用户数据仅管理员可导出
+     * 角色直接查库，不读资料缓存
+     */
+    public boolean canExport(String type, Long userId) {
+        if (!"user".equals(type)) {
+            return true;
+        }
+        User user = userId == null ? null : userMapper.selectById(userId);
+        return user != null && "ADMIN".equals(user.getRole());
+    }
+
+    /**
+     * 占用一个导出名额
+     * 成功后必须在导出结束（含失败）时调用 {@link #release()}
+     *
+     * @return false 表示同时进行的导出已达上限
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * 归还 {@link #tryAcquire()} 占用的名额
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * 导出到输出流（在响应线程中调用，写完返回）
+     *
+     * @return 导出的数据行数
+     */
+    public long export(String type, Format format, OutputStream out) {
+        long start = System.currentTimeMillis();
+        Long rows = transactionTemplate.execute(status -> {
+            try (TableWriter writer = format == Format.XLSX
+                    ? new XlsxTableWriter(out, "blog".equals(type) ? "文章" : "用户")
+                    : new CsvTableWriter(out)) {
+                long count = switch (type) {
+                    case "blog" -> writeBlogs(writer);
+                    case "user" -> writeUsers(writer);
+                    default -> throw new IllegalArgumentException("不支持的导出类型：" + type);
+                };
+                writer.finish();
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("[Export] {} 导出完成（{}）：{} 行，耗时 {} ms", type, format, rows, System.currentTimeMillis() - start);
+        return rows == null ? 0 : rows;
+    }
+
+    private long writeBlogs(TableWriter writer) throws IOException {
+        writer.header(BLOG_HEADER);
+        long count = 0;
+        try (Cursor<BlogPostVO> cursor = blogPostMapper.streamPublishedForExport(properties.getTimeout().toMillis())) {
+            for (BlogPostVO post : cursor) {
+                writer.row(post.getId(), post.getTitle(), post.getCategoryName(), post.getAuthor(), post.getDate(),
+                        post.getViews());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeUsers(TableWriter writer) throws IOException {
+        writer.header(USER_HEADER);
+        long count = 0;
+        try (Cursor<User> cursor = userMapper.streamForExport(properties.getTimeout().toMillis())) {
+            for (User user : cursor) {
+                writer.row(user.getId(), user.getUsername(), user.getNickname(), user.getRole(), user.getCreatedAt());
+                count++;
+            }
+        }
+        return count;
+    }
+}
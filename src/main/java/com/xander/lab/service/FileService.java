@@ -17,14 +17,12 @@ import java.util.UUID;
 
 /**
  * 文件上传 / 下载服务
- * 对应前端 axios 封装中的 upload() 和 download() 方法
+ * 对应前端 axios 封装中的 upload() 和 download() 方法，数据导出见 {@link ExportService}
  *
  * <pre>
  * 上传接口：POST /api/upload          单文件上传
  *           POST /api/upload/batch    多文件上传
  * 下载接口：GET  /api/download/{filename}  文件下载
- *           GET  /api/export/excel         导出 Excel（模拟）
- *           GET  /api/export/csv           导出 CSV（模拟）
  * </pre>
  */
 @Slf4j
@@ -107,32 +105,6 @@ public class FileService {
         return Paths.get(uploadDir).toAbsolutePath().normalize().resolve(filename);
     }
 
-    /**
-     * 生成模拟 CSV 内容（对应前端 download() 测试）
-     */
-    public byte[] generateCsvContent(String type) {
-        StringBuilder sb = new StringBuilder();
-        switch (type) {
-            case "blog" -> {
-                sb.append("ID,标题,分类,作者,发布日期,浏览量\n");
-                sb.append("1,Spring Boot 入门指南,后端开发,Xander,2024-01-15,1280\n");
-                sb.append("2,React 18 新特性详解,前端开发,Xander,2024-02-20,980\n");
-                sb.append("3,MySQL 性能优化实践,数据库,Xander,2024-03-10,756\n");
-            }
-            case "user" -> {
-                sb.append("ID,用户名,昵称,角色,注册时间\n");
-                sb.append("1,admin,管理员,ADMIN,2024-01-01\n");
-                sb.append("2,xander,Xander,USER,2024-01-02\n");
-                sb.append("3,demo,演示用户,GUEST,2024-01-03\n");
-            }
-            default -> {
-                sb.append("导出类型,导出时间\n");
-                sb.append(type).append(",").append(java.time.LocalDateTime.now()).append("\n");
-            }
-        }
-        return sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
-    }
-
     // ─── 私有工具方法 ───────────────────────────────────────
 
     private void validateFile(MultipartFile file) {
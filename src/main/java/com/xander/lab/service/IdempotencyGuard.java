@@ -0,0 +1,189 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.IdempotencyProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 幂等执行：相同幂等键的重复请求（含并发重试）只执行一次，共享第一次请求的结果
+ *
+ * <pre>
+ * 本节点：single-flight，并发的重复请求等待同一个 CompletableFuture，直接拿到首个请求的返回值（或异常）
+ * 跨节点：Redis 标记 idempotency:{key}
+ *   P:{token}  处理中（SET NX，租约 pending-ttl），其他节点轮询等待
+ *   D:{id}     已完成（保留 result-ttl），重复请求按ID重新加载结果
+ * 失败：首个请求抛出异常时删除处理中标记，之后的重试重新执行
+ * </pre>
+ *
+ * 必须在事务之外调用：动作自己的事务提交后才记录完成，重复请求不会读到未提交或回滚的ID。
+ * Redis 不可用时只保留本节点 single-flight，由调用方的数据库约束兜底。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyGuard {
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String PENDING = "P:";
+    private static final String DONE = "D:";
+
+    /** 只删除自己的处理中标记 */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final IdempotencyProperties properties;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 幂等执行
+     *
+     * @param key      幂等键（调用方负责包含作用域和用户，如 blog:publish:{userId}:{requestId}）
+     * @param action   实际操作（自行开启并提交事务）
+     * @param idOf     从结果取出实体ID，用于跨节点和后续重试共享
+     * @param loadById 按ID重新加载结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> action, Function<T, Long> idOf, Function<Long, T> loadById) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("幂等执行必须在事务之外调用: " + key);
+        }
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            return (T) await(key, leader);
+        }
+        try {
+            T result = executeShared(key, action, idOf, loadById);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 已完成请求的结果ID，未完成或不存在时返回 null
+     */
+    public Long completedId(String key) {
+        try {
+            return parseDone(redisTemplate.opsForValue().get(KEY_PREFIX + key));
+        } catch (Exception e) {
+            log.warn("[Idempotency] 读取幂等记录失败: key={}, reason={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T executeShared(String key, Supplier<T> action, Function<T, Long> idOf, Function<Long, T> loadById) {
+        String redisKey = KEY_PREFIX + key;
+        String token = PENDING + UUID.randomUUID();
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (true) {
+            String state;
+            boolean acquired;
+            try {
+                state = redisTemplate.opsForValue().get(redisKey);
+                Long doneId = parseDone(state);
+                if (doneId != null) {
+                    return loadById.apply(doneId);
+                }
+                acquired = state == null && Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(
+                        redisKey, token, properties.getPendingTtl().toMillis(), TimeUnit.MILLISECONDS));
+            } catch (RuntimeException e) {
+                log.warn("[Idempotency] Redis 不可用，仅做本节点去重: key={}, reason={}", key, e.getMessage());
+                return action.get();
+            }
+            if (acquired) {
+                return runAsLeader(key, redisKey, token, action, idOf);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "相同的请求正在处理中，请稍后重试");
+            }
+            sleep(properties.getPollInterval().toMillis());
+        }
+    }
+
+    private <T> T runAsLeader(String key, String redisKey, String token, Supplier<T> action, Function<T, Long> idOf) {
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey), token);
+            } catch (Exception releaseError) {
+                log.warn("[Idempotency] 释放处理中标记失败，将在租约到期后自动释放: key={}", key);
+            }
+            throw e;
+        }
+        Long id = idOf.apply(result);
+        try {
+            redisTemplate.opsForValue().set(redisKey, DONE + id,
+                    properties.getResultTtl().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("[Idempotency] 记录完成状态失败: key={}, id={}, reason={}", key, id, e.getMessage());
+        }
+        return result;
+    }
+
+    private Object await(String key, CompletableFuture<Object> leader) {
+        try {
+            return leader.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "相同的请求正在处理中，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待重复请求结果时被中断: " + key, e);
+        }
+    }
+
+    private static Long parseDone(String state) {
+        if (state == null || !state.startsWith(DONE)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(state.substring(DONE.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待重复请求结果时被中断", e);
+        }
+    }
+}
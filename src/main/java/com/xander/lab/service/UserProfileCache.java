@@ -0,0 +1,117 @@
+package com.xander.lab.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xander.lab.config.UserProfileCacheProperties;
+import com.xander.lab.dto.auth.UserProfile;
+import com.xander.lab.entity.User;
+import com.xander.lab.mapper.UserMapper;
+import com.xander.lab.util.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 用户资料近端缓存（作者名解析、当前用户信息等展示数据）
+ *
+ * <pre>
+ * 缓存：每个节点进程内的 Caffeine 缓存，容量和 TTL 有上限，同一用户的并发未命中只回源一次
+ * 失效：用户资料变更后调用 {@link #evict(Long)}，删除本地条目并通过 Redis pub/sub 通知其他节点
+ * 指标：cache.gets{cache=user.profile,result=hit|miss}、cache.evictions 等；默认不对外暴露，开放方式
+ *       （MANAGEMENT_SERVER_PORT / MANAGEMENT_SERVER_ADDRESS / MANAGEMENT_ENDPOINTS_INCLUDE）见 application.yml
+ * </pre>
+ *
+ * 不存在的用户不缓存；绕过应用直接改库时以 TTL 为陈旧上界。
+ * 条目可能落后 TTL，禁用状态、角色等鉴权判断必须直接查库，不读本缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserProfileCache implements MessageListener {
+
+    private static final String INVALIDATION_CHANNEL = "user:profile:invalidate";
+
+    private final UserMapper userMapper;
+    private final UserProfileCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    /** 用于忽略本节点自己发出的失效广播 */
+    private final String nodeId = UUID.randomUUID().toString();
+    private Cache<Long, UserProfile> local;
+
+    @PostConstruct
+    void initialize() {
+        local = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "user.profile");
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 按ID读取用户资料
+     *
+     * @return 用户不存在时返回 null
+     */
+    public UserProfile get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        if (!properties.isEnabled()) {
+            return load(userId);
+        }
+        return local.get(userId, this::load);
+    }
+
+    /**
+     * 用户资料变更后失效（处于事务中时延迟到提交之后）
+     */
+    public void evict(Long userId) {
+        if (userId == null || !properties.isEnabled()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            local.invalidate(userId);
+            try {
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "|" + userId);
+            } catch (Exception e) {
+                log.warn("[UserCache] 失效广播失败，其他节点将在 TTL 后自愈: userId={}, reason={}", userId, e.getMessage());
+            }
+        });
+    }
+
+    /** 其他节点的失效广播 */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        try {
+            local.invalidate(Long.valueOf(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("[UserCache] 忽略无法解析的失效广播: {}", body);
+        }
+    }
+
+    private UserProfile load(Long userId) {
+        User user = userMapper.selectById(userId);
+        return user == null ? null : UserProfile.from(user);
+    }
+}
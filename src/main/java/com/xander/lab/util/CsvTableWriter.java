@@ -0,0 +1,77 @@
+package com.xander.lab.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+
+/**
+ * CSV 写出器（RFC 4180）
+ *
+ * <pre>
+ * 编码：UTF-8 带 BOM，Excel 直接打开不乱码
+ * 转义：含逗号、引号、换行的单元格加双引号，引号写成两个
+ * 公式注入：以 = + - @ 开头的文本单元格前加单引号，避免在表格软件中被当作公式执行
+ * </pre>
+ */
+public class CsvTableWriter implements TableWriter {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Writer writer;
+
+    public CsvTableWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void header(List<String> names) throws IOException {
+        row(names.toArray());
+    }
+
+    @Override
+    public void row(Object... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) writer.write(',');
+            writeCell(cells[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        // 底层输出流由调用方管理
+    }
+
+    private void writeCell(Object cell) throws IOException {
+        if (cell == null) return;
+        if (cell instanceof Number) {
+            writer.write(cell.toString());
+            return;
+        }
+        String text = cell instanceof TemporalAccessor t && t.isSupported(ChronoField.HOUR_OF_DAY)
+                ? DATE_TIME.format(t) : cell.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+}
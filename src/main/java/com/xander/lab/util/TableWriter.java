@@ -0,0 +1,22 @@
+package com.xander.lab.util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 表格导出写出器：逐行写出，不缓存已写出的行
+ * 单元格支持 String / Number / 日期时间，null 写为空
+ */
+public interface TableWriter extends AutoCloseable {
+
+    void header(List<String> names) throws IOException;
+
+    void row(Object... cells) throws IOException;
+
+    /** 写完剩余内容并刷出（不关闭底层输出流） */
+    void finish() throws IOException;
+
+    /** 释放临时资源 */
+    @Override
+    void close() throws IOException;
+}
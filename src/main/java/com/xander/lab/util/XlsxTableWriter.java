@@ -0,0 +1,123 @@
+package com.xander.lab.util;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * XLSX 写出器（POI SXSSF 流式写出）
+ *
+ * <pre>
+ * 内存：只在内存中保留最近 window 行，更早的行压缩写入临时文件，导出大小受磁盘限制而非堆
+ * 字符串：写为内联字符串，不维护共享字符串表（共享表会随不同字符串数量增长）
+ * 分表：单表达到 Excel 行数上限（1,048,576）后自动新建工作表并重复表头
+ * </pre>
+ *
+ * 工作簿在 {@link #finish()} 时一次性打包写入输出流，{@link #close()} 删除临时文件。
+ */
+public class XlsxTableWriter implements TableWriter {
+
+    /** 内存中保留的行数 */
+    public static final int DEFAULT_WINDOW = 100;
+
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final String sheetName;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle dateTimeStyle;
+
+    private List<String> header;
+    private SXSSFSheet sheet;
+    private int rowIndex;
+
+    public XlsxTableWriter(OutputStream out, String sheetName) {
+        this(out, sheetName, DEFAULT_WINDOW);
+    }
+
+    public XlsxTableWriter(OutputStream out, String sheetName, int window) {
+        this.out = out;
+        this.sheetName = sheetName;
+        this.workbook = new SXSSFWorkbook(null, window, true, false);
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        this.headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(bold);
+        this.dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+        this.dateTimeStyle = workbook.createCellStyle();
+        dateTimeStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+    }
+
+    @Override
+    public void header(List<String> names) {
+        this.header = List.copyOf(names);
+        newSheet();
+    }
+
+    @Override
+    public void row(Object... cells) {
+        if (sheet == null || rowIndex >= MAX_ROWS) {
+            newSheet();
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < cells.length; i++) {
+            Object value = cells[i];
+            if (value == null) continue;
+            Cell cell = row.createCell(i);
+            if (value instanceof Number n) {
+                cell.setCellValue(n.doubleValue());
+            } else if (value instanceof LocalDateTime t) {
+                cell.setCellValue(t);
+                cell.setCellStyle(dateTimeStyle);
+            } else if (value instanceof LocalDate d) {
+                cell.setCellValue(d);
+                cell.setCellStyle(dateStyle);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheet == null) {
+            newSheet();
+        }
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void newSheet() {
+        int index = workbook.getNumberOfSheets();
+        sheet = workbook.createSheet(index == 0 ? sheetName : sheetName + " (" + (index + 1) + ")");
+        rowIndex = 0;
+        if (header != null) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < header.size(); i++) {
+                Cell cell = row.createCell(i);
+                cell.setCellValue(header.get(i));
+                cell.setCellStyle(headerStyle);
+            }
+            sheet.createFreezePane(0, 1);
+        }
+    }
+}
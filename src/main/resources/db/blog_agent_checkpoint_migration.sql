@@ -0,0 +1,21 @@
+-- Run once for databases where blog_agent_schema.sql was already applied.
+-- Tasks already in status 'running' keep lease_until NULL after this migration. They are not
+-- orphans straight away: claimRun and the sweeper only take over a lease-less running task once
+-- its updated_at is older than blog.agent.run-lease, so a run still executing on a node that
+-- predates leases is not started a second time while it keeps advancing stages.
+ALTER TABLE `blog_agent_task`
+  ADD COLUMN `run_kind` VARCHAR(16) NULL COMMENT 'generate 或 revise' AFTER `error_message`,
+  ADD COLUMN `lease_owner` VARCHAR(64) NULL COMMENT '正在执行该任务的节点' AFTER `run_kind`,
+  ADD COLUMN `lease_until` DATETIME NULL COMMENT '执行租约到期时间，过期视为节点已中断' AFTER `lease_owner`,
+  ADD COLUMN `resume_count` INT NOT NULL DEFAULT 0 COMMENT '自动恢复次数' AFTER `lease_until`,
+  ADD KEY `idx_blog_agent_task_status_lease` (`status`, `lease_until`);
+
+CREATE TABLE IF NOT EXISTS `blog_agent_checkpoint` (
+  `task_id` BIGINT NOT NULL,
+  `stage` VARCHAR(16) NOT NULL,
+  `payload` LONGTEXT NOT NULL,
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`task_id`, `stage`),
+  CONSTRAINT `fk_blog_agent_checkpoint_task`
+    FOREIGN KEY (`task_id`) REFERENCES `blog_agent_task` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -21,10 +21,15 @@ CREATE TABLE IF NOT EXISTS `blog_agent_task` (
   `illustration_error` VARCHAR(1000) NULL,
   `published_post_id` BIGINT NULL,
   `error_message` VARCHAR(1000) NULL,
+  `run_kind` VARCHAR(16) NULL COMMENT 'generate 或 revise',
+  `lease_owner` VARCHAR(64) NULL COMMENT '正在执行该任务的节点',
+  `lease_until` DATETIME NULL COMMENT '执行租约到期时间，过期视为节点已中断',
+  `resume_count` INT NOT NULL DEFAULT 0 COMMENT '自动恢复次数',
   `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
-  KEY `idx_blog_agent_task_user_created` (`user_id`, `created_at`)
+  KEY `idx_blog_agent_task_user_created` (`user_id`, `created_at`),
+  KEY `idx_blog_agent_task_status_lease` (`status`, `lease_until`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 CREATE TABLE IF NOT EXISTS `blog_agent_source` (
@@ -68,3 +73,14 @@ CREATE TABLE IF NOT EXISTS `blog_agent_message` (
   CONSTRAINT `fk_blog_agent_message_task`
     FOREIGN KEY (`task_id`) REFERENCES `blog_agent_task` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Finished stage outputs of the current run; a rerun skips every stage found here.
+CREATE TABLE IF NOT EXISTS `blog_agent_checkpoint` (
+  `task_id` BIGINT NOT NULL,
+  `stage` VARCHAR(16) NOT NULL,
+  `payload` LONGTEXT NOT NULL,
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`task_id`, `stage`),
+  CONSTRAINT `fk_blog_agent_checkpoint_task`
+    FOREIGN KEY (`task_id`) REFERENCES `blog_agent_task` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
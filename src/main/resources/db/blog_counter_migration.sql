@@ -0,0 +1,17 @@
+-- Run once for databases where blog_schema.sql was already applied.
+-- Published-post counters maintained on write; BlogCounterReconciler repairs drift.
+ALTER TABLE `blog_category`
+  ADD COLUMN `post_count` INT NOT NULL DEFAULT 0 COMMENT '已发布文章数（写入时维护）' AFTER `sort`;
+
+ALTER TABLE `blog_tag`
+  ADD COLUMN `post_count` INT NOT NULL DEFAULT 0 COMMENT '已发布文章数（写入时维护）' AFTER `name`;
+
+-- 初始化分类/标签的已发布文章计数
+UPDATE `blog_category` c
+SET c.`post_count` = (SELECT COUNT(*) FROM `blog_post` p WHERE p.`category_id` = c.`id` AND p.`status` = 1);
+
+UPDATE `blog_tag` t
+SET t.`post_count` = (
+  SELECT COUNT(*) FROM `blog_post_tag` pt
+  INNER JOIN `blog_post` p ON p.`id` = pt.`post_id` AND p.`status` = 1
+  WHERE pt.`tag_id` = t.`id`);
@@ -0,0 +1,4 @@
+-- Run once for databases where blog_schema.sql was already applied.
+-- Supports cursor pagination on published posts ordered by (published_at, id).
+ALTER TABLE `blog_post`
+  ADD KEY `idx_status_published_id` (`status`, `published_at`, `id`);
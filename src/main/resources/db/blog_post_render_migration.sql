@@ -0,0 +1,11 @@
+-- Run once for databases where blog_schema.sql was already applied.
+-- Existing posts are rendered lazily on their first format=html read.
+CREATE TABLE IF NOT EXISTS `blog_post_render` (
+  `post_id`      BIGINT        NOT NULL COMMENT '文章ID',
+  `content_hash` CHAR(64)      NOT NULL COMMENT '渲染器版本 + 正文的 SHA-256',
+  `html`         MEDIUMTEXT    NOT NULL COMMENT '净化后的 HTML',
+  `toc`          TEXT          NOT NULL COMMENT '标题大纲 JSON',
+  `rendered_at`  DATETIME      NOT NULL COMMENT '渲染时间',
+  PRIMARY KEY (`post_id`),
+  CONSTRAINT `fk_render_post` FOREIGN KEY (`post_id`) REFERENCES `blog_post` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文章正文预渲染表';
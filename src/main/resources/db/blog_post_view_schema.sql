@@ -12,3 +12,31 @@ CREATE TABLE IF NOT EXISTS `blog_post_view` (
     KEY `idx_view_ip` (`ip_address`),
     KEY `idx_view_created_at` (`created_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='博客阅读记录';
+
+-- 阅读数小时汇总（由 blog_post_view 增量汇总，保留期见 blog.view.hourly-retention-days）
+CREATE TABLE IF NOT EXISTS `blog_post_view_hourly` (
+    `post_id`      BIGINT   NOT NULL COMMENT '文章ID',
+    `bucket_start` DATETIME NOT NULL COMMENT '小时起点',
+    `views`        INT      NOT NULL DEFAULT 0 COMMENT '阅读数',
+    PRIMARY KEY (`post_id`, `bucket_start`),
+    KEY `idx_view_hourly_bucket` (`bucket_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='博客阅读小时汇总';
+
+-- 阅读数日汇总（长期保留）
+CREATE TABLE IF NOT EXISTS `blog_post_view_daily` (
+    `post_id`     BIGINT NOT NULL COMMENT '文章ID',
+    `bucket_date` DATE   NOT NULL COMMENT '日期',
+    `views`       INT    NOT NULL DEFAULT 0 COMMENT '阅读数',
+    PRIMARY KEY (`post_id`, `bucket_date`),
+    KEY `idx_view_daily_bucket` (`bucket_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='博客阅读日汇总';
+
+-- 汇总进度：已汇总到的 blog_post_view.id（汇总时加行锁，多实例串行）
+CREATE TABLE IF NOT EXISTS `blog_view_rollup_state` (
+    `name`         VARCHAR(64) NOT NULL COMMENT '汇总名称',
+    `last_view_id` BIGINT      NOT NULL DEFAULT 0 COMMENT '已汇总的最大阅读记录ID',
+    `updated_at`   DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='阅读汇总进度';
+
+INSERT IGNORE INTO `blog_view_rollup_state` (`name`, `last_view_id`) VALUES ('blog_post_view', 0);
@@ -33,6 +33,7 @@ CREATE TABLE IF NOT EXISTS `blog_category` (
   `id`          VARCHAR(64)   NOT NULL COMMENT '分类ID（英文标识，如 frontend）',
   `name`        VARCHAR(64)   NOT NULL COMMENT '分类名称（中文）',
   `sort`        INT           NOT NULL DEFAULT 0 COMMENT '排序权重，越小越靠前',
+  `post_count`  INT           NOT NULL DEFAULT 0 COMMENT '已发布文章数（写入时维护）',
   `created_at`  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at`  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`)
@@ -59,6 +60,7 @@ CREATE TABLE IF NOT EXISTS `blog_post` (
   KEY `idx_category_id` (`category_id`),
   KEY `idx_published_at` (`published_at`),
   KEY `idx_status` (`status`),
+  KEY `idx_status_published_id` (`status`, `published_at`, `id`),
   CONSTRAINT `fk_post_category` FOREIGN KEY (`category_id`) REFERENCES `blog_category` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='博客文章表';
 
@@ -68,6 +70,7 @@ CREATE TABLE IF NOT EXISTS `blog_post` (
 CREATE TABLE IF NOT EXISTS `blog_tag` (
   `id`          BIGINT        NOT NULL AUTO_INCREMENT COMMENT '标签ID',
   `name`        VARCHAR(64)   NOT NULL COMMENT '标签名称',
+  `post_count`  INT           NOT NULL DEFAULT 0 COMMENT '已发布文章数（写入时维护）',
   `created_at`  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_name` (`name`)
@@ -85,6 +88,19 @@ CREATE TABLE IF NOT EXISTS `blog_post_tag` (
   CONSTRAINT `fk_pt_tag`  FOREIGN KEY (`tag_id`)  REFERENCES `blog_tag`  (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文章标签关联表';
 
+-- ------------------------------------------------------------
+-- 5. 文章正文预渲染表 blog_post_render
+-- ------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS `blog_post_render` (
+  `post_id`      BIGINT        NOT NULL COMMENT '文章ID',
+  `content_hash` CHAR(64)      NOT NULL COMMENT '渲染器版本 + 正文的 SHA-256',
+  `html`         MEDIUMTEXT    NOT NULL COMMENT '净化后的 HTML',
+  `toc`          TEXT          NOT NULL COMMENT '标题大纲 JSON',
+  `rendered_at`  DATETIME      NOT NULL COMMENT '渲染时间',
+  PRIMARY KEY (`post_id`),
+  CONSTRAINT `fk_render_post` FOREIGN KEY (`post_id`) REFERENCES `blog_post` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文章正文预渲染表';
+
 -- ============================================================
 -- 初始化数据
 -- ============================================================
@@ -160,3 +176,13 @@ INSERT INTO `blog_post_tag` (`post_id`, `tag_id`) VALUES
   (6, 16),(6, 17),(6, 18),
   (7, 19),(7, 20),(7, 21),
   (8, 22),(8, 23),(8, 24);
+
+-- 初始化分类/标签的已发布文章计数
+UPDATE `blog_category` c
+SET c.`post_count` = (SELECT COUNT(*) FROM `blog_post` p WHERE p.`category_id` = c.`id` AND p.`status` = 1);
+
+UPDATE `blog_tag` t
+SET t.`post_count` = (
+  SELECT COUNT(*) FROM `blog_post_tag` pt
+  INNER JOIN `blog_post` p ON p.`id` = pt.`post_id` AND p.`status` = 1
+  WHERE pt.`tag_id` = t.`id`);
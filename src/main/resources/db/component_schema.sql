@@ -19,6 +19,7 @@ CREATE TABLE `component_category` (
   `description_en` VARCHAR(255)  NULL COMMENT '简短描述 (英文)',
   `sort`           INT           NOT NULL DEFAULT 0 COMMENT '排序权重',
   `created_at`     DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at`     DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='组件分类表';
 
@@ -44,6 +45,7 @@ CREATE TABLE `component_item` (
   `sort`           INT           NOT NULL DEFAULT 0 COMMENT '排序权重',
   `status`         TINYINT       NOT NULL DEFAULT 1 COMMENT '状态: 1=启用, 0=审核中, -1=禁用',
   `created_at`     DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at`     DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='组件表';
 
@@ -57,6 +59,7 @@ CREATE TABLE `component_detail_page` (
   `page_type`      VARCHAR(32)  NOT NULL DEFAULT 'guide' COMMENT '页面类型 (guide, api)',
   `component_key`  VARCHAR(64)  NOT NULL COMMENT 'React页面组件 Key',
   `sort`           INT          NOT NULL DEFAULT 0 COMMENT '排序权重',
+  `updated_at`     DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='组件详情页配置表';
 
@@ -75,6 +78,7 @@ CREATE TABLE `component_scenario` (
   `demo_key`       VARCHAR(64)  NULL     COMMENT '静态 Demo Key (遗留组件用)',
   `demo_code`      LONGTEXT     NULL     COMMENT '沙箱动态执行的代码',
   `sort`           INT          NOT NULL DEFAULT 0 COMMENT '排序权重',
+  `updated_at`     DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='组件演示场景表';
 
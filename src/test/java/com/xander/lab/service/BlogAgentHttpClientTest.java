@@ -0,0 +1,123 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.xander.lab.config.BlogAgentProperties;
+import com.xander.lab.config.BlogAgentStageCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlogAgentHttpClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private BlogAgentModelClient modelClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/responses", exchange -> {
+            record(exchange);
+            boolean stream = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+                    .contains("\"stream\":true");
+            if (stream) {
+                respond(exchange, 200, "text/event-stream", """
+                        data: {"type":"response.output_text.delta","delta":"{\\"title\\":"}
+
+                        data: {"type":"response.output_text.delta","delta":"\\"流式\\"}"}
+
+                        data: [DONE]
+
+                        """);
+            } else {
+                respond(exchange, 200, "application/json", "{\"output_text\":\"{\\\"angle\\\":\\\"性能\\\"}\"}");
+            }
+        });
+        server.start();
+
+        BlogAgentProperties properties = new BlogAgentProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/");
+        properties.setApiKey("secret");
+        properties.setModel("model");
+        properties.setWebSearchEnabled(false);
+        BlogAgentHttpClient httpClient = new BlogAgentHttpClient(properties, RestClient.builder(), meterRegistry);
+        BlogAgentStageCacheProperties cacheProperties = new BlogAgentStageCacheProperties();
+        cacheProperties.setEnabled(false);
+        BlogAgentStageCache stageCache = new BlogAgentStageCache(cacheProperties, null, objectMapper, meterRegistry);
+        modelClient = new BlogAgentModelClient(properties, objectMapper, httpClient, stageCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void reusesOneConnectionAcrossCallsAndStreams() {
+        List<String> deltas = new CopyOnWriteArrayList<>();
+
+        JsonNode analysis = modelClient.analyze("主题");
+        JsonNode article = modelClient.createArticleStream("主题", deltas::add);
+        modelClient.analyze("主题");
+
+        assertThat(analysis.path("angle").asText()).isEqualTo("性能");
+        assertThat(article.path("title").asText()).isEqualTo("流式");
+        assertThat(deltas).hasSize(2);
+        assertThat(clientPorts).hasSize(1);
+        assertThat(authorizations).containsOnly("Bearer secret");
+        assertThat(meterRegistry.get("blog.agent.http.requests").tag("client", "model").tag("status", "200")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("blog.agent.http.requests").tag("client", "stream").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("blog.agent.http.active").tag("client", "stream").gauge().value()).isZero();
+    }
+
+    @Test
+    void reportsStreamErrorsAndReleasesTheRequest() {
+        server.removeContext("/v1/responses");
+        server.createContext("/v1/responses", exchange -> {
+            record(exchange);
+            respond(exchange, 429, "text/plain", "rate limited");
+        });
+
+        assertThatThrownBy(() -> modelClient.createArticleStream("主题", delta -> { }))
+                .hasMessageContaining("HTTP 429")
+                .hasMessageContaining("rate limited");
+        assertThat(meterRegistry.get("blog.agent.http.requests").tag("client", "stream").tag("status", "429")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("blog.agent.http.active").tag("client", "stream").gauge().value()).isZero();
+    }
+
+    private void record(HttpExchange exchange) {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
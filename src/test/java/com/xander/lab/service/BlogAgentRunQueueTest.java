@@ -0,0 +1,112 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogAgentProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlogAgentRunQueueTest {
+
+    private final BlogAgentProperties properties = new BlogAgentProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private BlogAgentRunQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxConcurrentRuns(2);
+        properties.setMaxRunsPerUser(1);
+        properties.setMaxQueuedRuns(2);
+        queue = new BlogAgentRunQueue(properties, meterRegistry);
+        queue.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        queue.shutdown();
+    }
+
+    @Test
+    void limitsRunsPerUserAndLetsOtherUsersPassAWaitingRun() throws Exception {
+        List<Integer> positions = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> first = queue.submit(1L, position -> { }, blocking("u1-a"));
+        CompletableFuture<String> second = queue.submit(1L, positions::add, blocking("u1-b"));
+        CompletableFuture<String> other = queue.submit(2L, position -> { }, blocking("u2"));
+
+        awaitStarted(2);
+        assertThat(started).containsExactlyInAnyOrder("u1-a", "u2");
+        assertThat(positions).containsExactly(1);
+        assertThat(meterRegistry.get("blog.agent.runs.active").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("blog.agent.runs.queued").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("u1-a");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("u1-b");
+        assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("u2");
+        // 结果先于运行槽释放返回，稍等槽位归还
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.running() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("blog.agent.runs.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void rejectsWithTooManyRequestsWhenSaturatedAndFreesCancelledPlaces() throws Exception {
+        queue.submit(1L, position -> { }, blocking("u1"));
+        queue.submit(2L, position -> { }, blocking("u2"));
+        awaitStarted(2);
+        List<Integer> positions = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> leaving = queue.submit(3L, position -> { }, blocking("u3"));
+        queue.submit(4L, positions::add, blocking("u4"));
+
+        assertThatThrownBy(() -> queue.submit(5L, position -> { }, blocking("u5")))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThatThrownBy(() -> queue.submit(4L, position -> { }, blocking("u4-again")))
+                .isInstanceOf(ResponseStatusException.class);
+
+        leaving.cancel(false);
+
+        assertThat(positions).containsExactly(2, 1);
+        queue.submit(5L, position -> { }, blocking("u5"));
+        release.countDown();
+        awaitStarted(4);
+        assertThat(started).doesNotContain("u3");
+    }
+
+    private Supplier<String> blocking(String name) {
+        return () -> {
+            started.add(name);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return name;
+        };
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(started).hasSizeGreaterThanOrEqualTo(count);
+    }
+}
@@ -0,0 +1,105 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogAgentProperties;
+import com.xander.lab.dto.agent.BlogAgentOrphanRun;
+import com.xander.lab.mapper.BlogAgentTaskMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogAgentRunSweeperTest {
+
+    @Mock
+    private BlogAgentTaskMapper taskMapper;
+    @Mock
+    private BlogAgentService agentService;
+    @Mock
+    private BlogAgentRunQueue runQueue;
+
+    private BlogAgentRunSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        BlogAgentProperties properties = new BlogAgentProperties();
+        properties.setMaxResumes(2);
+        properties.setLeaseRenewIntervalMs(10);
+        sweeper = new BlogAgentRunSweeper(taskMapper, agentService, runQueue, properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resumesGenerationsWithResumesLeftAndSettlesTheRest() {
+        when(taskMapper.selectOrphans(any(), any(), anyInt())).thenReturn(List.of(
+                orphan(1L, "generate", 0),
+                orphan(2L, "generate", 2),
+                orphan(3L, "revise", 0)));
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        when(runQueue.submit(eq(7L), any(), any())).thenReturn(pending);
+
+        sweeper.sweep();
+
+        ArgumentCaptor<Supplier<Object>> job = ArgumentCaptor.forClass(Supplier.class);
+        verify(runQueue).submit(eq(7L), any(), job.capture());
+        job.getValue().get();
+        verify(agentService).resume(1L);
+        verify(agentService).abandon(2L, 7L, BlogAgentService.RUN_GENERATE);
+        verify(agentService).abandon(3L, 7L, BlogAgentService.RUN_REVISE);
+
+        // 恢复尚未结束时，下一轮清理不会重复排队
+        sweeper.sweep();
+        verify(runQueue, times(1)).submit(eq(7L), any(), any());
+    }
+
+    @Test
+    void renewsLeasesOnItsOwnThread() {
+        sweeper.startLeaseRenewal();
+        try {
+            verify(agentService, timeout(2000).atLeast(2)).renewLeases();
+        } finally {
+            sweeper.stopLeaseRenewal();
+        }
+    }
+
+    @Test
+    void retriesOnTheNextSweepWhenTheQueueIsFull() {
+        when(taskMapper.selectOrphans(any(), any(), anyInt())).thenReturn(List.of(orphan(1L, "generate", 0)));
+        when(runQueue.submit(eq(7L), any(), any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS))
+                .thenReturn(new CompletableFuture<>());
+
+        sweeper.sweep();
+        sweeper.sweep();
+
+        verify(runQueue, times(2)).submit(eq(7L), any(), any());
+        verify(agentService, never()).abandon(any(), any(), any());
+    }
+
+    private static BlogAgentOrphanRun orphan(Long id, String kind, int resumes) {
+        BlogAgentOrphanRun orphan = new BlogAgentOrphanRun();
+        orphan.setId(id);
+        orphan.setUserId(7L);
+        orphan.setRunKind(kind);
+        orphan.setResumeCount(resumes);
+        return orphan;
+    }
+}
@@ -0,0 +1,270 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xander.lab.config.BlogAgentProperties;
+import com.xander.lab.entity.BlogAgentMessage;
+import com.xander.lab.entity.BlogAgentTask;
+import com.xander.lab.entity.BlogMediaAsset;
+import com.xander.lab.mapper.BlogAgentCheckpointMapper;
+import com.xander.lab.mapper.BlogAgentMessageMapper;
+import com.xander.lab.mapper.BlogAgentSourceMapper;
+import com.xander.lab.mapper.BlogAgentTaskMapper;
+import com.xander.lab.mapper.BlogAgentVersionMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogAgentServiceTest {
+
+    private static final String ARTICLE = """
+            # 标题
+
+            <!-- illustration:first -->
+
+            正文
+
+            <!-- illustration:second -->
+
+            <!-- illustration:third -->""";
+
+    @Mock
+    private BlogAgentTaskMapper taskMapper;
+    @Mock
+    private BlogAgentSourceMapper sourceMapper;
+    @Mock
+    private BlogAgentVersionMapper versionMapper;
+    @Mock
+    private BlogAgentModelClient modelClient;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private BlogService blogService;
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+    @Mock
+    private BlogAgentImageClient imageClient;
+    @Mock
+    private BlogMediaService mediaService;
+    @Mock
+    private BlogAgentMessageMapper messageMapper;
+    @Mock
+    private BlogAgentCheckpointMapper checkpointMapper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlogAgentProperties properties = new BlogAgentProperties();
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private BlogAgentService service;
+    private JsonNode draft;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setImageModel("image-model");
+        service = new BlogAgentService(taskMapper, sourceMapper, versionMapper, modelClient, objectMapper,
+                transactionTemplate, blogService, idempotencyGuard, imageClient, mediaService, properties,
+                messageMapper, checkpointMapper);
+        service.startIllustrationPool();
+
+        BlogAgentTask task = new BlogAgentTask();
+        task.setId(1L);
+        task.setUserId(7L);
+        task.setStatus("ready");
+        task.setContent(ARTICLE);
+        when(taskMapper.selectById(1L)).thenReturn(task);
+        draft = objectMapper.readTree("""
+                {"title": "标题", "content": %s, "illustrations": [
+                  {"placeholder": "<!-- illustration:first -->", "alt": "一", "prompt": "p1"},
+                  {"placeholder": "<!-- illustration:second -->", "alt": "二", "prompt": "p2"},
+                  {"placeholder": "<!-- illustration:third -->", "alt": "三", "prompt": "p3"}
+                ]}""".formatted(objectMapper.writeValueAsString(ARTICLE)));
+        // 拒绝运行的用例走不到流水线
+        lenient().when(taskMapper.claimRun(eq(1L), eq(7L), anyString(), anyString(), anyBoolean(), any(), any(), any())).thenReturn(1);
+        lenient().when(taskMapper.update(any(BlogAgentTask.class), any())).thenReturn(1);
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(modelClient.reviseArticleStream(anyString(), anyString(), any())).thenReturn(draft);
+        lenient().when(modelClient.reviewArticle(anyString(), anyString())).thenThrow(new IllegalStateException("skip review"));
+        lenient().when(imageClient.isEnabled()).thenReturn(true);
+        lenient().when(mediaService.saveAgentImage(eq(7L), eq(1L), anyString(), any(), anyString())).thenAnswer(inv -> {
+            BlogMediaAsset asset = new BlogMediaAsset();
+            asset.setUrl("https://oss/" + inv.getArgument(2));
+            return asset;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stopIllustrationPool();
+    }
+
+    @Test
+    void generatesIllustrationsInParallelAndReplacesPlaceholdersInPlanOrder() {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        CountDownLatch thirdDone = new CountDownLatch(1);
+        when(imageClient.generate(anyString())).thenAnswer(inv -> {
+            String prompt = inv.getArgument(0);
+            allStarted.countDown();
+            // 三张图全部开始后才返回：串行执行会在这里超时
+            assertThat(allStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            if (!prompt.endsWith("p3")) {
+                thirdDone.await(5, TimeUnit.SECONDS);
+            }
+            return image();
+        });
+
+        service.reviseStream(1L, 7L, "加三张图", (event, data) -> {
+            record(event, data);
+            if ("illustration".equals(event) && data.startsWith("3|")) thirdDone.countDown();
+        });
+
+        assertThat(events).filteredOn(e -> e.startsWith("illustration:"))
+                .hasSize(3)
+                .first().isEqualTo("illustration:3|done|知识插图 3");
+        String content = reviewedContent();
+        assertThat(content.indexOf("agent-1-1.png")).isLessThan(content.indexOf("agent-1-2.png"));
+        assertThat(content.indexOf("agent-1-2.png")).isLessThan(content.indexOf("agent-1-3.png"));
+        assertThat(content).doesNotContain("<!-- illustration:");
+    }
+
+    @Test
+    void dropsImagesThatMissTheDeadline() {
+        properties.setIllustrationTimeout(Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageClient.generate(anyString())).thenAnswer(inv -> {
+            if (inv.<String>getArgument(0).endsWith("p2")) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return image();
+        });
+
+        service.reviseStream(1L, 7L, "加三张图", this::record);
+        release.countDown();
+
+        assertThat(events).contains("illustration:2|failed|知识插图 2");
+        String content = reviewedContent();
+        assertThat(content).contains("agent-1-1.png", "agent-1-3.png").doesNotContain("agent-1-2.png");
+        assertThat(content).doesNotContain("<!-- illustration:");
+    }
+
+    @Test
+    void timeQueuedBehindOtherImagesDoesNotCountAgainstTheDeadline() {
+        service.stopIllustrationPool();
+        properties.setIllustrationConcurrency(1);
+        service.startIllustrationPool();
+        properties.setIllustrationTimeout(Duration.ofMillis(400));
+        when(imageClient.generate(anyString())).thenAnswer(inv -> {
+            Thread.sleep(200);
+            return image();
+        });
+
+        service.reviseStream(1L, 7L, "加三张图", this::record);
+
+        // 单线程池上第三张图排队约 400ms，从提交起计时会超时
+        assertThat(events).filteredOn(e -> e.startsWith("illustration:")).allMatch(e -> e.contains("|done|"));
+        assertThat(reviewedContent()).contains("agent-1-1.png", "agent-1-2.png", "agent-1-3.png");
+    }
+
+    @Test
+    void rerunSkipsCheckpointedStagesAndCheckpointsTheRest() throws Exception {
+        when(checkpointMapper.selectPayload(1L, "analyze")).thenReturn("{\"angle\":\"缓存\"}");
+        when(checkpointMapper.selectPayload(1L, "research")).thenReturn("{\"findings\":[]}");
+        when(modelClient.createArticle(anyString())).thenAnswer(inv -> {
+            assertThat(inv.<String>getArgument(0)).contains("缓存", "findings");
+            return draft;
+        });
+        when(imageClient.generate(anyString())).thenReturn(image());
+
+        service.run(1L, 7L);
+
+        verify(modelClient, never()).analyze(anyString());
+        verify(modelClient, never()).research(anyString(), any());
+        assertThat(events).isEmpty();
+        verify(checkpointMapper).upsert(eq(1L), eq("write"), anyString());
+        ArgumentCaptor<String> illustrated = ArgumentCaptor.forClass(String.class);
+        verify(checkpointMapper).upsert(eq(1L), eq("illustrate"), illustrated.capture());
+        assertThat(objectMapper.readTree(illustrated.getValue()).path("generated").asInt()).isEqualTo(3);
+        verify(taskMapper).releaseRun(eq(1L), anyString());
+    }
+
+    @Test
+    void refusesASecondRunWhileTheLeaseIsHeld() {
+        when(taskMapper.claimRun(eq(1L), eq(7L), anyString(), anyString(), anyBoolean(), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.run(1L, 7L)).hasMessageContaining("正在运行");
+        verify(modelClient, never()).analyze(anyString());
+    }
+
+    @Test
+    void aRunThatLostItsLeaseStopsAtTheNextStage() {
+        when(checkpointMapper.selectPayload(eq(1L), anyString())).thenAnswer(inv -> switch (inv.<String>getArgument(1)) {
+            case "write" -> objectMapper.writeValueAsString(draft);
+            case "illustrate" -> "{\"content\":\"正文\",\"status\":\"none\",\"generated\":0}";
+            default -> "{}";
+        });
+        // 插图期间租约过期，任务已由其他节点恢复
+        when(taskMapper.update(any(BlogAgentTask.class), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.run(1L, 7L)).hasMessageContaining("租约");
+
+        // 进入审校阶段和失败状态都按 lease_owner 条件写入，均未生效，审校与结果都不再执行
+        verify(taskMapper, times(2)).update(any(BlogAgentTask.class), any());
+        verify(modelClient, never()).reviewArticle(anyString(), anyString());
+        verify(messageMapper, never()).insert(argThat((BlogAgentMessage message) -> "result".equals(message.getKind())));
+    }
+
+    @Test
+    void aRunThatLostItsLeaseLeavesNoCheckpoint() {
+        // 调研期间租约过期
+        when(taskMapper.update(any(BlogAgentTask.class), any())).thenReturn(1, 1, 1, 0);
+
+        assertThatThrownBy(() -> service.run(1L, 7L)).hasMessageContaining("租约");
+
+        verify(checkpointMapper).upsert(eq(1L), eq("analyze"), anyString());
+        verify(checkpointMapper, never()).upsert(eq(1L), eq("research"), anyString());
+        verify(modelClient, never()).createArticle(anyString());
+    }
+
+    private void record(String event, String data) {
+        events.add(event + ":" + data);
+    }
+
+    private String reviewedContent() {
+        ArgumentCaptor<String> content = ArgumentCaptor.forClass(String.class);
+        verify(modelClient).reviewArticle(content.capture(), anyString());
+        return content.getValue();
+    }
+
+    private static BlogAgentImageClient.GeneratedImage image() {
+        return new BlogAgentImageClient.GeneratedImage(new byte[]{1}, "image/png", "png");
+    }
+}
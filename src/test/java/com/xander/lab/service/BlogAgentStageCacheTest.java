@@ -0,0 +1,114 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xander.lab.config.BlogAgentStageCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BlogAgentStageCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final AtomicInteger calls = new AtomicInteger();
+    private BlogAgentStageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache = new BlogAgentStageCache(new BlogAgentStageCacheProperties(), redisTemplate, objectMapper, meterRegistry);
+        cache.initialize();
+    }
+
+    @Test
+    void reusesResultsForNormalizedInputAndRecordsWhatHitsSaved() {
+        JsonNode first = cache.get("analyze", "model", "策划", "Java  并发\n", model("性能"));
+        JsonNode second = cache.get("analyze", "model", "策划", " Java 并发", model("其他"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(calls).hasValue(1);
+        verify(valueOperations).set(anyString(), anyString(), eq(TimeUnit.HOURS.toMillis(12)), eq(TimeUnit.MILLISECONDS));
+        assertThat(meterRegistry.get("blog.agent.stage.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("blog.agent.stage.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("blog.agent.stage.cache.saved").tag("stage", "analyze").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(1500);
+        assertThat(meterRegistry.get("blog.agent.stage.cache.saved.tokens").counter().count()).isEqualTo(800);
+    }
+
+    @Test
+    void keysOnModelInstructionsAndStage() {
+        cache.get("analyze", "model", "策划", "主题", model("a"));
+        cache.get("analyze", "model+web_search", "策划", "主题", model("b"));
+        cache.get("analyze", "model", "研究", "主题", model("c"));
+        cache.get("research", "model", "策划", "主题", model("d"));
+
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void readsEntriesSharedByOtherNodes() throws Exception {
+        String key = "blog-agent:stage:research:" + BlogAgentStageCache.hash("model", "研究", "主题");
+        when(valueOperations.get(key)).thenReturn(objectMapper.writeValueAsString(
+                new BlogAgentStageCache.StageResult(objectMapper.readTree("{\"angle\":\"共享\"}"), 900, 300)));
+
+        JsonNode result = cache.get("research", "model", "研究", "主题", model("本地"));
+
+        assertThat(result.path("angle").asText()).isEqualTo("共享");
+        assertThat(calls).hasValue(0);
+        assertThat(meterRegistry.get("blog.agent.stage.cache.saved.tokens").counter().count()).isEqualTo(300);
+    }
+
+    @Test
+    void fallsBackToLocalEntriesWhenRedisIsDown() {
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(valueOperations).set(anyString(), anyString(), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+        cache.get("analyze", "model", "策划", "主题", model("a"));
+        JsonNode again = cache.get("analyze", "model", "策划", "主题", model("b"));
+
+        assertThat(again.path("angle").asText()).isEqualTo("a");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void callsTheModelEveryTimeWhenDisabled() {
+        BlogAgentStageCacheProperties properties = new BlogAgentStageCacheProperties();
+        properties.setEnabled(false);
+        cache = new BlogAgentStageCache(properties, redisTemplate, objectMapper, meterRegistry);
+        cache.initialize();
+
+        cache.get("analyze", "model", "策划", "主题", model("a"));
+        cache.get("analyze", "model", "策划", "主题", model("b"));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    private Supplier<BlogAgentStageCache.StageResult> model(String angle) {
+        return () -> {
+            calls.incrementAndGet();
+            return new BlogAgentStageCache.StageResult(
+                    objectMapper.createObjectNode().put("angle", angle), 1500, 800);
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xander.lab.config.BlogCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogContentCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOps;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BlogContentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BlogContentCache(redisTemplate, new ObjectMapper(), new BlogCacheProperties(),
+                listenerContainer, eventPublisher);
+        cache.initialize();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesBackOnlyAgainstTheGenerationSeenBeforeLoading() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.multiGet(List.of("blog:cache:post:1", "blog:cache:gen:post:1")))
+                .thenReturn(Arrays.asList(null, "3"));
+
+        assertThat(cache.get(BlogContentCache.post(1L), new TypeReference<String>() {}, () -> "旧正文"))
+                .isEqualTo("旧正文");
+
+        // 回源期间若有写入提交，代数已不是 3，脚本不会写入
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("blog:cache:post:1", "blog:cache:gen:post:1")),
+                eq("3"), eq("\"旧正文\""), eq("600000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictionDeletesTheEntryAndBumpsItsGeneration() {
+        cache.evict(BlogContentCache.post(1L));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("blog:cache:post:1", "blog:cache:gen:post:1")),
+                eq("600000"));
+        verify(redisTemplate).convertAndSend(eq("blog:cache:invalidate"), anyString());
+    }
+}
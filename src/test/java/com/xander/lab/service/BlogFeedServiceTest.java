@@ -0,0 +1,97 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogFeedProperties;
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.mapper.BlogPostMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogFeedServiceTest {
+
+    @Mock
+    private BlogPostMapper blogPostMapper;
+
+    private BlogFeedService service;
+
+    @BeforeEach
+    void setUp() {
+        BlogFeedProperties properties = new BlogFeedProperties();
+        properties.setSiteUrl("https://example.com/");
+        properties.setEntries(2);
+        service = new BlogFeedService(blogPostMapper, properties);
+    }
+
+    @Test
+    void rendersEscapedFeedsAndSitemap() {
+        when(blogPostMapper.selectFeedEntries(2)).thenReturn(List.of(post(2L, "2026-02-01", "Redis & <Lua>")));
+        when(blogPostMapper.selectSitemapEntries()).thenReturn(List.of(post(1L, "2026-01-01", null), post(2L, "2026-02-01", null)));
+
+        service.rebuild();
+
+        String rss = new String(service.getRss().body(), StandardCharsets.UTF_8);
+        assertThat(rss).contains("<title>Redis &amp; &lt;Lua&gt;</title>")
+                .contains("<link>https://example.com/blog/2</link>");
+        assertThat(new String(service.getAtom().body(), StandardCharsets.UTF_8)).contains("<id>https://example.com/blog/2</id>");
+        assertThat(new String(service.getSitemap().body(), StandardCharsets.UTF_8))
+                .contains("<loc>https://example.com/blog/1</loc><lastmod>2026-01-01</lastmod>");
+    }
+
+    @Test
+    void olderPostOutsideFeedWindowOnlyTouchesSitemap() {
+        when(blogPostMapper.selectFeedEntries(2)).thenReturn(List.of(post(5L, "2026-03-01", "A"), post(4L, "2026-02-01", "B")));
+        when(blogPostMapper.selectSitemapEntries()).thenReturn(List.of(post(1L, "2025-01-01", null)));
+        service.rebuild();
+        String feedEtag = service.getRss().etag();
+        String sitemapEtag = service.getSitemap().etag();
+
+        BlogPost edited = post(1L, "2025-01-01", "Old post");
+        edited.setUpdatedAt(LocalDateTime.parse("2026-03-05T10:00:00"));
+        when(blogPostMapper.selectFeedEntry(1L)).thenReturn(edited);
+
+        service.onPostChanged(new BlogPostChangedEvent(1L));
+
+        verify(blogPostMapper, times(1)).selectFeedEntries(2);
+        assertThat(service.getRss().etag()).isEqualTo(feedEtag);
+        assertThat(service.getSitemap().etag()).isNotEqualTo(sitemapEtag);
+        assertThat(new String(service.getSitemap().body(), StandardCharsets.UTF_8)).contains("<lastmod>2026-03-05</lastmod>");
+    }
+
+    @Test
+    void remoteInvalidationUpdatesTheChangedPost() {
+        when(blogPostMapper.selectFeedEntries(2)).thenReturn(List.of(post(5L, "2026-03-01", "A"), post(4L, "2026-02-01", "B")));
+        when(blogPostMapper.selectSitemapEntries()).thenReturn(List.of(post(1L, "2025-01-01", null)));
+        service.rebuild();
+
+        BlogPost edited = post(1L, "2025-01-01", "Old post");
+        edited.setUpdatedAt(LocalDateTime.parse("2026-03-05T10:00:00"));
+        when(blogPostMapper.selectFeedEntry(1L)).thenReturn(edited);
+
+        service.onRemoteInvalidation(new BlogCacheInvalidatedEvent(List.of("recent", "post:1")));
+
+        verify(blogPostMapper).selectFeedEntry(1L);
+        assertThat(new String(service.getSitemap().body(), StandardCharsets.UTF_8)).contains("<lastmod>2026-03-05</lastmod>");
+    }
+
+    private static BlogPost post(Long id, String date, String title) {
+        BlogPost post = new BlogPost();
+        post.setId(id);
+        post.setTitle(title);
+        post.setPublishedAt(LocalDate.parse(date));
+        post.setUpdatedAt(LocalDate.parse(date).atStartOfDay());
+        return post;
+    }
+}
@@ -0,0 +1,183 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xander.lab.dto.BlogImportReportVO;
+import com.xander.lab.dto.CategoryVO;
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.mapper.BlogCategoryMapper;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.BlogTagMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogImportServiceTest {
+
+    @Mock
+    private BlogPostMapper blogPostMapper;
+    @Mock
+    private BlogCategoryMapper blogCategoryMapper;
+    @Mock
+    private BlogTagMapper blogTagMapper;
+    @Mock
+    private BlogTagResolver tagResolver;
+    @Mock
+    private BlogService blogService;
+    @Mock
+    private BlogContentCache contentCache;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong ids = new AtomicLong(100);
+    private BlogImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new BlogImportService(blogPostMapper, blogCategoryMapper, blogTagMapper, tagResolver,
+                blogService, contentCache, new ObjectMapper().findAndRegisterModules(), transactionTemplate,
+                eventPublisher);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "maxLineChars", 200);
+
+        CategoryVO category = new CategoryVO();
+        category.setId("java");
+        when(blogCategoryMapper.selectCategoriesWithCount()).thenReturn(List.of(category));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(tagResolver.resolveIds(any())).thenAnswer(inv -> {
+            List<String> names = inv.getArgument(0);
+            return names == null ? Set.of() : Set.of(1L);
+        });
+    }
+
+    @Test
+    void writesValidRowsInChunksAndReportsBadLines() throws IOException {
+        stubInsertBatch();
+        String body = """
+                {"title":"A","content":"a","categoryId":"java","tags":["Redis"]}
+                {"title":"B","content":"b","categoryId":"java","publish":false}
+
+                {not json
+                {"title":"C","content":"c","categoryId":"go"}
+                {"title":"D","content":"d","categoryId":"java","tags":["Redis"],"publishedAt":"2020-01-02"}
+                """;
+
+        BlogImportReportVO report = importService.importNdjson(stream(body));
+
+        assertThat(report.getTotal()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(BlogImportReportVO.RowError::line).containsExactly(4L, 5L);
+        assertThat(report.getFirstPostId()).isEqualTo(101L);
+        assertThat(report.getLastPostId()).isEqualTo(103L);
+
+        verify(blogPostMapper, times(2)).insertBatch(anyList());
+        verify(blogTagMapper).insertPostTagLinks(Map.of(101L, Set.of(1L)));
+        verify(blogTagMapper).insertPostTagLinks(Map.of(103L, Set.of(1L)));
+        // 草稿不计入分类计数
+        verify(blogCategoryMapper, times(2)).adjustPostCount("java", 1);
+        verify(eventPublisher, timeout(1000)).publishEvent(new BlogPostsImportedEvent(3));
+    }
+
+    @Test
+    void overlongLinesAndTagsFailOnlyTheirOwnRow() throws IOException {
+        stubInsertBatch();
+        String body = "{\"title\":\"A\",\"content\":\"" + "a".repeat(300) + "\",\"categoryId\":\"java\"}\r\n"
+                + "{\"title\":\"B\",\"content\":\"b\",\"categoryId\":\"java\",\"tags\":[\"" + "t".repeat(65) + "\"]}\n"
+                + "{\"title\":\"C\",\"content\":\"c\",\"categoryId\":\"java\",\"tags\":[\"Redis\"]}";
+
+        BlogImportReportVO report = importService.importNdjson(stream(body));
+
+        assertThat(report.getTotal()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).containsExactly(
+                new BlogImportReportVO.RowError(1, "单行超过 200 个字符"),
+                new BlogImportReportVO.RowError(2, "标签超过 64 个字符: " + "t".repeat(65)));
+    }
+
+    @Test
+    void failedTagResolutionIsRetriedRowByRow() throws IOException {
+        stubInsertBatch();
+        when(tagResolver.resolveIds(any())).thenAnswer(inv -> {
+            List<String> names = inv.getArgument(0);
+            if (names != null && names.contains("broken")) {
+                throw new IllegalStateException("标签创建失败: broken");
+            }
+            return names == null ? Set.of() : Set.of(1L);
+        });
+        String body = """
+                {"title":"A","content":"a","categoryId":"java","tags":["Redis"]}
+                {"title":"B","content":"b","categoryId":"java","tags":["broken"]}
+                """;
+
+        BlogImportReportVO report = importService.importNdjson(stream(body));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).containsExactly(
+                new BlogImportReportVO.RowError(2, "标签解析失败: 标签创建失败: broken"));
+        verify(blogPostMapper).insertBatch(argThat(posts -> posts.size() == 1 && posts.get(0).getTitle().equals("A")));
+    }
+
+    @Test
+    void failedChunkIsRetriedRowByRow() throws IOException {
+        doAnswer(inv -> {
+            List<BlogPost> posts = inv.getArgument(0);
+            if (posts.stream().anyMatch(p -> p.getTitle().equals("bad"))) {
+                throw new IllegalStateException("Data too long for column 'summary'");
+            }
+            posts.forEach(p -> p.setId(ids.incrementAndGet()));
+            return posts.size();
+        }).when(blogPostMapper).insertBatch(anyList());
+        String body = """
+                {"title":"ok","content":"a","categoryId":"java"}
+                {"title":"bad","content":"b","categoryId":"java"}
+                """;
+
+        BlogImportReportVO report = importService.importNdjson(stream(body));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).containsExactly(
+                new BlogImportReportVO.RowError(2, "写入失败: Data too long for column 'summary'"));
+        verify(blogPostMapper).insertBatch(argThat(posts -> posts.size() == 1 && posts.get(0).getTitle().equals("ok")));
+    }
+
+    private void stubInsertBatch() {
+        doAnswer(inv -> {
+            List<BlogPost> posts = inv.getArgument(0);
+            posts.forEach(p -> p.setId(ids.incrementAndGet()));
+            return posts.size();
+        }).when(blogPostMapper).insertBatch(anyList());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
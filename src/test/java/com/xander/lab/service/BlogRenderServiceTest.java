@@ -0,0 +1,81 @@
+package com.xander.lab.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xander.lab.dto.TocItemVO;
+import com.xander.lab.entity.BlogPostRender;
+import com.xander.lab.mapper.BlogPostRenderMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogRenderServiceTest {
+
+    @Mock
+    private BlogPostRenderMapper renderMapper;
+
+    private BlogRenderService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BlogRenderService(renderMapper, new ObjectMapper());
+    }
+
+    @Test
+    void rendersSanitizedHtmlWithMatchingOutline() {
+        BlogRenderService.Rendered rendered = service.render("""
+                # Redis 缓存
+                <script>alert(1)</script>
+
+                ## 使用 `SETNX`
+                [bad](javascript:alert(1))
+
+                ## 使用 `SETNX`
+                """);
+
+        assertThat(rendered.html()).doesNotContain("<script>").contains("&lt;script&gt;");
+        assertThat(rendered.html()).doesNotContain("javascript:");
+        assertThat(rendered.toc()).extracting(TocItemVO::getLevel).containsExactly(1, 2, 2);
+        assertThat(rendered.toc().get(1).getText()).isEqualTo("使用 SETNX");
+        assertThat(rendered.toc().get(1).getAnchor()).isNotEqualTo(rendered.toc().get(2).getAnchor());
+        for (TocItemVO item : rendered.toc()) {
+            assertThat(rendered.html()).contains("id=\"" + item.getAnchor() + "\"");
+        }
+    }
+
+    @Test
+    void storedRenderIsReusedWhileContentHashMatches() {
+        String markdown = "# Title\n\nbody";
+        BlogPostRender row = new BlogPostRender();
+        row.setPostId(1L);
+        row.setContentHash(BlogRenderService.contentHash(markdown));
+        row.setHtml("<h1 id=\"title\">Title</h1>");
+        row.setToc("[{\"level\":1,\"text\":\"Title\",\"anchor\":\"title\"}]");
+        when(renderMapper.selectById(1L)).thenReturn(row);
+
+        BlogRenderService.Rendered rendered = service.getOrRender(1L, markdown);
+
+        assertThat(rendered.html()).isEqualTo(row.getHtml());
+        verify(renderMapper, never()).upsert(any());
+    }
+
+    @Test
+    void staleRenderIsReplaced() {
+        BlogPostRender row = new BlogPostRender();
+        row.setContentHash(BlogRenderService.contentHash("old"));
+        when(renderMapper.selectById(1L)).thenReturn(row);
+
+        BlogRenderService.Rendered rendered = service.getOrRender(1L, "new **text**");
+
+        assertThat(rendered.html()).contains("<strong>text</strong>");
+        verify(renderMapper).upsert(any());
+    }
+}
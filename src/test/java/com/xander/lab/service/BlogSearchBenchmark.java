@@ -0,0 +1,196 @@
+package com.xander.lab.service;
+
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.BlogTagMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 检索耗时对比：进程内倒排索引 vs 列表接口的 LIKE 查询（需要真实 MySQL，默认不运行）
+ *
+ * <pre>
+ * mvn test -Dtest=BlogSearchBenchmark -Dblog.benchmark.mysql=jdbc:mysql://localhost:3306/bench \
+ *     -Dblog.benchmark.mysql.user=root -Dblog.benchmark.mysql.password=...
+ * </pre>
+ *
+ * 在指定库中创建并最后删除 blog_search_bench 表，不要指向生产库。
+ * 每种规模生成相同的文章写入表和索引，每个查询词各执行 ROUNDS 次，输出中位数与 p95（微秒）：
+ * like 为列表接口的 title/summary 条件，like+content 额外匹配正文（与索引覆盖的字段一致）。
+ */
+@EnabledIfSystemProperty(named = "blog.benchmark.mysql", matches = "jdbc:mysql:.+")
+class BlogSearchBenchmark {
+
+    private static final int[] POSTS = {1_000, 10_000};
+    private static final int CONTENT_WORDS = 600;
+    private static final int ROUNDS = 50;
+    private static final String[] QUERIES = {"性能", "redis", "事件循环", "kubernetes 部署"};
+    private static final String[] VOCABULARY = {
+            "性能", "优化", "缓存", "一致性", "事件循环", "数据库", "索引", "回表", "事务", "隔离级别",
+            "前端", "渲染", "重排", "组件", "状态管理", "部署", "容器", "网络", "协议", "线程",
+            "redis", "mysql", "react", "spring", "kubernetes", "docker", "nginx", "java", "lua", "kafka"};
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void connect() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("blog.benchmark.mysql"),
+                System.getProperty("blog.benchmark.mysql.user", "root"),
+                System.getProperty("blog.benchmark.mysql.password", ""));
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS blog_search_bench");
+        }
+        connection.close();
+    }
+
+    @Test
+    void compareLatency() throws SQLException {
+        System.out.printf("%-8s %-16s %-14s %12s %12s%n", "posts", "query", "path", "p50(us)", "p95(us)");
+        for (int size : POSTS) {
+            List<BlogPost> posts = generate(size);
+            load(posts);
+            BlogSearchService index = index(posts);
+            for (String query : QUERIES) {
+                report(size, query, "index", () -> index.search(query, 20));
+                report(size, query, "like", () -> like(query, false));
+                report(size, query, "like+content", () -> like(query, true));
+            }
+        }
+    }
+
+    private interface Search {
+        void run() throws SQLException;
+    }
+
+    private static void report(int size, String query, String path, Search search) throws SQLException {
+        search.run();
+        long[] micros = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            search.run();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        System.out.printf("%-8d %-16s %-14s %12d %12d%n", size, query, path,
+                micros[ROUNDS / 2], micros[ROUNDS * 95 / 100]);
+    }
+
+    private static void like(String query, boolean content) throws SQLException {
+        String sql = "SELECT id FROM blog_search_bench WHERE status = 1 AND (title LIKE CONCAT('%', ?, '%')"
+                + " OR summary LIKE CONCAT('%', ?, '%')" + (content ? " OR content LIKE CONCAT('%', ?, '%')" : "")
+                + ") ORDER BY published_at DESC, id DESC LIMIT 20";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, query);
+            statement.setString(2, query);
+            if (content) {
+                statement.setString(3, query);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    rows.getLong(1);
+                }
+            }
+        }
+    }
+
+    private static BlogSearchService index(List<BlogPost> posts) {
+        BlogPostMapper postMapper = mock(BlogPostMapper.class);
+        BlogTagMapper tagMapper = mock(BlogTagMapper.class);
+        when(postMapper.selectSitemapEntries()).thenReturn(posts);
+        // 空索引同步时按 selectSitemapEntries 的 ID 顺序每 200 篇加载一批
+        AtomicInteger offset = new AtomicInteger();
+        when(postMapper.selectList(any())).thenAnswer(invocation -> {
+            int from = offset.getAndAdd(200);
+            return posts.subList(Math.min(from, posts.size()), Math.min(from + 200, posts.size()));
+        });
+        when(tagMapper.selectTagsByPostIds(any())).thenReturn(List.of());
+        BlogSearchService service = new BlogSearchService(postMapper, tagMapper);
+        service.sync();
+        return service;
+    }
+
+    private static void load(List<BlogPost> posts) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS blog_search_bench");
+            statement.execute("""
+                    CREATE TABLE blog_search_bench (
+                      id BIGINT NOT NULL PRIMARY KEY,
+                      title VARCHAR(255) NOT NULL,
+                      summary TEXT NOT NULL,
+                      content LONGTEXT NOT NULL,
+                      status TINYINT NOT NULL,
+                      published_at DATE NULL,
+                      KEY idx_status_published_id (status, published_at, id)
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+                    """);
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO blog_search_bench (id, title, summary, content, status, published_at) VALUES (?, ?, ?, ?, 1, ?)")) {
+            for (BlogPost post : posts) {
+                insert.setLong(1, post.getId());
+                insert.setString(2, post.getTitle());
+                insert.setString(3, post.getSummary());
+                insert.setString(4, post.getContent());
+                insert.setObject(5, post.getPublishedAt());
+                insert.addBatch();
+                if (post.getId() % 500 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static List<BlogPost> generate(int size) {
+        Random random = new Random(size);
+        List<BlogPost> posts = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            BlogPost post = new BlogPost();
+            post.setId(id);
+            post.setTitle(words(random, 6));
+            post.setSummary(words(random, 30));
+            post.setContent(words(random, CONTENT_WORDS));
+            post.setStatus(1);
+            post.setPublishedAt(LocalDate.parse("2020-01-01").plusDays(id % 2000));
+            post.setUpdatedAt(LocalDateTime.parse("2026-01-01T00:00:00"));
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]).append(i % 12 == 11 ? "。" : " ");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.xander.lab.service;
+
+import com.xander.lab.dto.BlogSearchResultVO;
+import com.xander.lab.dto.PostTagVO;
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.BlogTagMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogSearchServiceTest {
+
+    @Mock
+    private BlogPostMapper blogPostMapper;
+
+    @Mock
+    private BlogTagMapper blogTagMapper;
+
+    private BlogSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BlogSearchService(blogPostMapper, blogTagMapper);
+    }
+
+    @Test
+    void tokenizeSplitsCjkIntoBigramsAndKeepsLatinWords() {
+        assertThat(BlogSearchService.tokenize("深入理解 React Hooks!"))
+                .containsExactly("深入", "入理", "理解", "react", "hooks");
+        assertThat(BlogSearchService.tokenize("用Docker部署")).containsExactly("用", "docker", "部署");
+    }
+
+    @Test
+    void searchRanksTitleMatchesFirstAndHighlightsSnippet() {
+        when(blogPostMapper.selectSitemapEntries()).thenReturn(List.of(post(1L, null, null, null), post(2L, null, null, null)));
+        when(blogPostMapper.selectList(any()))
+                .thenReturn(List.of(
+                        post(1L, "前端性能优化", "浏览器渲染", "减少重排与重绘可以提升页面性能。"),
+                        post(2L, "Node.js 事件循环", "宏任务与微任务", "事件循环中的性能问题通常来自阻塞。")))
+                .thenReturn(List.of());
+        when(blogTagMapper.selectTagsByPostIds(any())).thenReturn(List.of(postTag(1L, "Performance")));
+        service.sync();
+
+        BlogSearchResultVO result = service.search("性能", 10);
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getHits().get(0).getId()).isEqualTo(1L);
+        assertThat(result.getHits().get(0).getHighlightedTitle()).isEqualTo("前端<mark>性能</mark>优化");
+        assertThat(result.getHits().get(1).getSnippet()).contains("<mark>性能</mark>");
+        assertThat(service.search("performance", 10).getHits()).extracting(hit -> hit.getId()).containsExactly(1L);
+        assertThat(service.search("能", 10).getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void highlightEscapesHtmlAndMergesOverlappingBigrams() {
+        assertThat(BlogSearchService.highlight("<b>数据库</b>", List.of("数据", "据库"), 0))
+                .isEqualTo("&lt;b&gt;<mark>数据库</mark>&lt;/b&gt;");
+    }
+
+    @Test
+    void refreshesPostsWrittenOnOtherNodes() {
+        service.sync();
+        when(blogPostMapper.selectById(7L)).thenReturn(post(7L, "缓存一致性", "多节点", "失效广播"));
+
+        service.onRemoteInvalidation(new BlogCacheInvalidatedEvent(List.of("post:7", "post:7:html", "recent")));
+
+        assertThat(service.search("一致性", 10).getHits()).extracting(hit -> hit.getId()).containsExactly(7L);
+    }
+
+    @Test
+    void syncKeepsRefreshesThatLandedWhileItWasLoading() {
+        when(blogPostMapper.selectSitemapEntries()).thenReturn(List.of(post(1L, null, null, null), post(2L, null, null, null)));
+        // 同步读出文章 2 之前，它已被删除并增量刷新
+        when(blogPostMapper.selectList(any()))
+                .thenAnswer(invocation -> {
+                    service.refresh(2L);
+                    return List.of(post(1L, "前端性能优化", "浏览器渲染", "重排"),
+                            post(2L, "已删除的性能文章", "旧摘要", "旧内容"));
+                })
+                .thenReturn(List.of());
+
+        service.sync();
+
+        assertThat(service.search("性能", 10).getHits()).extracting(hit -> hit.getId()).containsExactly(1L);
+    }
+
+    @Test
+    void syncReloadsOnlyChangedPostsAndDropsRemovedOnes() {
+        BlogPost first = post(1L, "前端性能优化", "浏览器渲染", "重排");
+        BlogPost second = post(2L, "数据库索引", "B+ 树", "回表");
+        when(blogPostMapper.selectSitemapEntries()).thenReturn(List.of(first, second));
+        when(blogPostMapper.selectList(any())).thenReturn(List.of(first, second));
+        service.sync();
+
+        BlogPost edited = post(1L, "前端性能调优", "浏览器渲染", "重排");
+        edited.setUpdatedAt(first.getUpdatedAt().plusMinutes(5));
+        when(blogPostMapper.selectSitemapEntries()).thenReturn(List.of(edited));
+        when(blogPostMapper.selectList(any())).thenReturn(List.of(edited));
+        service.sync();
+
+        verify(blogPostMapper, times(2)).selectList(any());
+        assertThat(service.search("调优", 10).getHits()).extracting(hit -> hit.getId()).containsExactly(1L);
+        assertThat(service.search("索引", 10).getTotal()).isZero();
+
+        service.sync();
+
+        verify(blogPostMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void searchBeforeIndexIsBuiltIsUnavailable() {
+        assertThatThrownBy(() -> service.search("react", 10)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    private static BlogPost post(Long id, String title, String summary, String content) {
+        BlogPost post = new BlogPost();
+        post.setId(id);
+        post.setTitle(title);
+        post.setSummary(summary);
+        post.setContent(content);
+        post.setStatus(1);
+        post.setPublishedAt(LocalDate.parse("2026-02-01").plusDays(id));
+        post.setUpdatedAt(post.getPublishedAt().atStartOfDay());
+        return post;
+    }
+
+    private static PostTagVO postTag(Long postId, String name) {
+        PostTagVO row = new PostTagVO();
+        row.setPostId(postId);
+        row.setName(name);
+        return row;
+    }
+}
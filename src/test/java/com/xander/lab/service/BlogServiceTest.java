@@ -0,0 +1,388 @@
+package com.xander.lab.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.xander.lab.common.UserContext;
+import com.xander.lab.dto.BlogPostDTO;
+import com.xander.lab.dto.BlogPostVO;
+import com.xander.lab.dto.ContentVersion;
+import com.xander.lab.dto.CursorPageData;
+import com.xander.lab.dto.PageData;
+import com.xander.lab.dto.PostTagVO;
+import com.xander.lab.dto.TagVO;
+import com.xander.lab.entity.BlogPost;
+import com.xander.lab.entity.BlogPostView;
+import com.xander.lab.mapper.BlogCategoryMapper;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.BlogPostViewMapper;
+import com.xander.lab.mapper.BlogTagMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogServiceTest {
+
+    @Mock
+    private BlogPostMapper blogPostMapper;
+
+    @Mock
+    private BlogCategoryMapper blogCategoryMapper;
+
+    @Mock
+    private BlogTagMapper blogTagMapper;
+
+    @Mock
+    private BlogTagResolver tagResolver;
+
+    @Mock
+    private BlogPostViewMapper blogPostViewMapper;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+
+    @Mock
+    private BlogContentCache contentCache;
+
+    @Mock
+    private BlogSearchService searchService;
+
+    @Mock
+    private BlogRenderService renderService;
+
+    @Mock
+    private BlogViewCounter viewCounter;
+
+    @Mock
+    private BlogViewIngestor viewIngestor;
+
+    @Mock
+    private BlogViewDeduplicator viewDeduplicator;
+
+    @Mock
+    private BlogTrendingService trendingService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BlogService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BlogService(
+                blogPostMapper,
+                blogCategoryMapper,
+                blogTagMapper,
+                tagResolver,
+                blogPostViewMapper,
+                userProfileCache,
+                idempotencyGuard,
+                contentCache,
+                searchService,
+                renderService,
+                viewCounter,
+                viewIngestor,
+                viewDeduplicator,
+                trendingService,
+                transactionTemplate,
+                redisTemplate,
+                eventPublisher
+        );
+        lenient().when(contentCache.get(anyString(), any(TypeReference.class), any(Supplier.class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserContext.clear();
+    }
+
+    @Test
+    void publishRetryReusesARecordWrittenBeforeTheIdempotencyGuard() {
+        UserContext.setUserId(7L);
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get("blog:publish:request:7:req-1")).thenReturn("42");
+        when(idempotencyGuard.completedId("blog:publish:7:req-1")).thenReturn(null);
+        BlogPost existing = new BlogPost();
+        existing.setId(42L);
+        existing.setUserId(7L);
+        when(blogPostMapper.selectById(42L)).thenReturn(existing);
+        when(blogPostMapper.selectPostDetail(42L)).thenReturn(post(42));
+
+        assertThat(service.getPublishedPostId("req-1")).isEqualTo(42L);
+        assertThat(service.createBlog(new BlogPostDTO(), true, "req-1").getId()).isEqualTo(42L);
+
+        verify(idempotencyGuard, never()).execute(anyString(), any(), any(), any());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void listPageLoadsTagsForAllPostsInOneStatement() {
+        List<BlogPostVO> rows = LongStream.rangeClosed(1, 50).mapToObj(BlogServiceTest::post).toList();
+        doAnswer(invocation -> {
+            Page<BlogPostVO> page = invocation.getArgument(0);
+            page.setRecords(rows);
+            page.setTotal(rows.size());
+            return page;
+        }).when(blogPostMapper).selectPostList(any(), anyString(), anyString(), anyString());
+        when(blogTagMapper.selectTagsByPostIds(any())).thenReturn(List.of(
+                postTag(1L, "Java"), postTag(1L, "Spring"), postTag(2L, "MySQL")));
+
+        PageData<BlogPostVO> result = service.getBlogs("", "", "", 1, 50);
+
+        verify(blogPostMapper).selectPostList(any(), eq(""), eq(""), eq(""));
+        verify(blogTagMapper).selectTagsByPostIds(Set.copyOf(LongStream.rangeClosed(1, 50).boxed().toList()));
+        verifyNoMoreInteractions(blogPostMapper, blogTagMapper);
+        assertThat(result.getRecords().get(0).getTags()).containsExactly("Java", "Spring");
+        assertThat(result.getRecords().get(1).getTags()).containsExactly("MySQL");
+        assertThat(result.getRecords().get(49).getTags()).isEmpty();
+    }
+
+    @Test
+    void recentPostsLoadTagsInOneStatement() {
+        when(blogPostMapper.selectRecentPosts(20)).thenReturn(List.of(post(3L), post(4L)));
+        when(blogTagMapper.selectTagsByPostIds(Set.of(3L, 4L))).thenReturn(List.of(postTag(4L, "Redis")));
+
+        List<BlogPostVO> result = service.getRecentBlogs(5);
+
+        verify(blogPostMapper).selectRecentPosts(20);
+        verify(blogTagMapper).selectTagsByPostIds(Set.of(3L, 4L));
+        verifyNoMoreInteractions(blogPostMapper, blogTagMapper);
+        assertThat(result.get(0).getTags()).isEmpty();
+        assertThat(result.get(1).getTags()).containsExactly("Redis");
+    }
+
+    @Test
+    void emptyListSkipsTagQuery() {
+        when(blogPostMapper.selectRecentPosts(20)).thenReturn(List.of());
+
+        assertThat(service.getRecentBlogs(5)).isEmpty();
+
+        verifyNoMoreInteractions(blogTagMapper);
+    }
+
+    @Test
+    void cursorPageSeeksAfterLastRowWithoutCounting() {
+        BlogPostVO first = post(12L);
+        first.setDate(LocalDate.parse("2026-02-08"));
+        BlogPostVO second = post(11L);
+        second.setDate(LocalDate.parse("2026-02-05"));
+        BlogPostVO extra = post(10L);
+        extra.setDate(LocalDate.parse("2026-02-05"));
+        when(blogPostMapper.selectPostListAfter("", "", "", null, null, 3))
+                .thenReturn(new ArrayList<>(List.of(first, second, extra)));
+        when(blogTagMapper.selectTagsByPostIds(Set.of(12L, 11L))).thenReturn(List.of());
+
+        CursorPageData<BlogPostVO> page = service.getBlogsByCursor("", "", "", null, 2, false);
+
+        assertThat(page.getRecords()).extracting(BlogPostVO::getId).containsExactly(12L, 11L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getTotal()).isNull();
+        verify(blogPostMapper, never()).countPostList(any(), any(), any());
+
+        when(blogPostMapper.selectPostListAfter("", "", "", LocalDate.parse("2026-02-05"), 11L, 3))
+                .thenReturn(new ArrayList<>(List.of(extra)));
+        when(blogTagMapper.selectTagsByPostIds(Set.of(10L))).thenReturn(List.of());
+        when(blogPostMapper.countPostList("", "", "")).thenReturn(3L);
+
+        CursorPageData<BlogPostVO> next = service.getBlogsByCursor("", "", "", page.getNextCursor(), 2, true);
+
+        assertThat(next.getRecords()).extracting(BlogPostVO::getId).containsExactly(10L);
+        assertThat(next.isHasMore()).isFalse();
+        assertThat(next.getNextCursor()).isNull();
+        assertThat(next.getTotal()).isEqualTo(3L);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> service.getBlogsByCursor("", "", "", "not-a-cursor", 10, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void popularTagsAreSlicedFromCachedTagList() {
+        when(blogTagMapper.selectAllTagsWithCount()).thenReturn(List.of(tag("Java", 5), tag("Redis", 3), tag("CSS", 1)));
+
+        assertThat(service.getPopularTags(2)).extracting(TagVO::getName).containsExactly("Java", "Redis");
+        assertThat(service.getPopularTags(10)).hasSize(3);
+    }
+
+    @Test
+    void writesEvictDetailListAndCounterCaches() {
+        when(blogPostMapper.selectById(9L)).thenReturn(new BlogPost());
+
+        service.deleteBlog(9L);
+
+        verify(contentCache).evict("post:9", "post:9:html", BlogContentCache.RECENT,
+                BlogContentCache.CATEGORIES, BlogContentCache.TAGS, BlogContentCache.LIST_VERSION);
+        verify(searchService).refresh(9L);
+        verify(renderService).delete(9L);
+        verify(eventPublisher).publishEvent(new BlogPostChangedEvent(9L));
+    }
+
+    @Test
+    void updatingPublishedPostAdjustsOnlyChangedCounters() {
+        BlogPost existing = new BlogPost();
+        existing.setStatus(1);
+        existing.setCategoryId("backend");
+        when(blogPostMapper.selectById(5L)).thenReturn(existing);
+        when(blogTagMapper.selectTagIdsByPostId(5L)).thenReturn(List.of(1L, 2L));
+        when(tagResolver.resolveIds(List.of("Spring", "Redis"))).thenReturn(new LinkedHashSet<>(List.of(2L, 3L)));
+
+        service.updateBlog(5L, null, null, null, "frontend", List.of("Spring", "Redis"));
+
+        verify(blogTagMapper).deletePostTagsByIds(5L, Set.of(1L));
+        verify(blogTagMapper).insertPostTags(5L, Set.of(3L));
+        verify(blogTagMapper, never()).deletePostTags(5L);
+
+        verify(blogCategoryMapper).adjustPostCount("backend", -1);
+        verify(blogCategoryMapper).adjustPostCount("frontend", 1);
+        verify(blogTagMapper).adjustPostCount(Set.of(1L), -1);
+        verify(blogTagMapper).adjustPostCount(Set.of(3L), 1);
+    }
+
+    @Test
+    void deletingDraftLeavesCountersUntouched() {
+        BlogPost draft = new BlogPost();
+        draft.setStatus(0);
+        draft.setCategoryId("backend");
+        when(blogPostMapper.selectById(6L)).thenReturn(draft);
+
+        service.deleteBlog(6L);
+
+        verify(blogCategoryMapper, never()).adjustPostCount(anyString(), anyInt());
+        verify(blogTagMapper, never()).selectTagIdsByPostId(6L);
+    }
+
+    @Test
+    void contentIsWrittenInFlushedPiecesFromOneVersionedRead() throws Exception {
+        LocalDateTime version = LocalDateTime.parse("2026-03-01T12:00:00");
+        String content = "あ".repeat(16 * 1024) + "tail";
+        when(blogPostMapper.selectPostContentAt(7L, version)).thenReturn(content);
+        List<Integer> flushed = new ArrayList<>();
+        StringWriter out = new StringWriter() {
+            @Override
+            public void flush() {
+                flushed.add(getBuffer().length());
+            }
+        };
+
+        service.streamPostContent(7L, version, out);
+
+        assertThat(out.toString()).isEqualTo(content);
+        assertThat(flushed).containsExactly(16 * 1024, 16 * 1024 + 4);
+
+        LocalDateTime stale = version.minusMinutes(1);
+        assertThatThrownBy(() -> service.streamPostContent(7L, stale, new StringWriter()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void recordViewCountsOnlyFirstView() {
+        when(blogPostMapper.selectPublishedUpdatedAt(5L)).thenReturn(LocalDateTime.now());
+        when(viewDeduplicator.firstView(5L, "ip:1.2.3.4")).thenReturn(true, false);
+
+        assertThat(service.recordView(5L, null, "1.2.3.4", "UA")).isTrue();
+        assertThat(service.recordView(5L, null, "1.2.3.4", "UA")).isFalse();
+
+        verify(viewCounter).increment(5L);
+        verify(trendingService).record(5L);
+        verify(viewIngestor).submit(any(BlogPostView.class));
+        verifyNoMoreInteractions(viewCounter);
+    }
+
+    @Test
+    void recordViewIgnoresPostsThatAreNotPublished() {
+        assertThat(service.recordView(404L, null, "1.2.3.4", "UA")).isFalse();
+
+        verify(viewDeduplicator, never()).firstView(any(), anyString());
+        verify(viewCounter, never()).increment(any());
+    }
+
+    @Test
+    void listVersionIsDerivedFromContentSoItIsStableWithoutTheCache() {
+        when(blogPostMapper.selectListVersion()).thenAnswer(inv -> {
+            ContentVersion version = new ContentVersion();
+            version.setLastModified(LocalDateTime.parse("2026-03-01T10:00:00"));
+            version.setTotalRows(12);
+            version.setChecksum(0x5eedL);
+            return version;
+        });
+
+        assertThat(service.getListVersion()).isEqualTo(service.getListVersion());
+        assertThat(service.getListVersion().getChecksum()).isEqualTo(0x5eedL);
+    }
+
+    @Test
+    void trendingKeepsRankOrderAndSkipsUnpublished() {
+        when(trendingService.topIds(4)).thenReturn(List.of(3L, 9L, 1L));
+        when(blogPostMapper.selectPostsByIds(List.of(3L, 9L, 1L))).thenReturn(new ArrayList<>(List.of(post(1), post(3))));
+        when(blogTagMapper.selectTagsByPostIds(any())).thenReturn(List.of(postTag(3L, "java")));
+
+        List<BlogPostVO> trending = service.getTrendingBlogs(2);
+
+        assertThat(trending).extracting(BlogPostVO::getId).containsExactly(3L, 1L);
+        assertThat(trending.get(0).getTags()).containsExactly("java");
+    }
+
+    private static TagVO tag(String name, int count) {
+        TagVO vo = new TagVO();
+        vo.setName(name);
+        vo.setCount(count);
+        return vo;
+    }
+
+    private static BlogPostVO post(long id) {
+        BlogPostVO vo = new BlogPostVO();
+        vo.setId(id);
+        vo.setTitle("Post " + id);
+        return vo;
+    }
+
+    private static PostTagVO postTag(Long postId, String name) {
+        PostTagVO row = new PostTagVO();
+        row.setPostId(postId);
+        row.setName(name);
+        return row;
+    }
+}
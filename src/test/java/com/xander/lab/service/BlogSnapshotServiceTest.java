@@ -0,0 +1,119 @@
+package com.xander.lab.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.xander.lab.config.BlogSnapshotProperties;
+import com.xander.lab.dto.BlogPostVO;
+import com.xander.lab.dto.PageData;
+import com.xander.lab.mapper.BlogPostMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogSnapshotServiceTest {
+
+    @Mock
+    private BlogService blogService;
+
+    @Mock
+    private BlogPostMapper blogPostMapper;
+
+    @TempDir
+    private Path directory;
+
+    private BlogSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        BlogSnapshotProperties properties = new BlogSnapshotProperties();
+        properties.setDirectory(directory);
+        properties.setListPages(1);
+        service = new BlogSnapshotService(blogService, blogPostMapper,
+                new ObjectMapper().registerModule(new JavaTimeModule()), properties);
+
+        when(blogService.getBlogs(anyString(), anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn(new PageData<>(new Page<BlogPostVO>(1, 10).setRecords(List.of(post(1L)))));
+        when(blogService.getRecentBlogs(anyInt())).thenReturn(List.of(post(1L)));
+        when(blogService.getCategories()).thenReturn(List.of());
+        when(blogService.getAllTags()).thenReturn(List.of());
+        when(blogService.getBlogById(1L)).thenReturn(post(1L));
+        when(blogService.getBlogHtmlById(1L)).thenReturn(post(1L));
+    }
+
+    @Test
+    void writesJsonAndGzipVariantsAndSkipsUnchangedFiles() throws IOException {
+        when(blogPostMapper.selectPublishedIds()).thenReturn(List.of(1L));
+
+        service.syncAll();
+
+        BlogSnapshotService.Snapshot detail = service.find(BlogSnapshotService.detail(1L, false));
+        assertThat(detail).isNotNull();
+        byte[] json = Files.readAllBytes(detail.json());
+        assertThat(new String(json)).contains("\"title\":\"Post 1\"");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(detail.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(json);
+        }
+
+        FileTime marker = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(detail.json(), marker);
+        service.syncAll();
+
+        assertThat(Files.getLastModifiedTime(detail.json())).isEqualTo(marker);
+        assertThat(service.find(BlogSnapshotService.detail(1L, false)).etag()).isEqualTo(detail.etag());
+    }
+
+    @Test
+    void removesSnapshotsOfPostsNoLongerPublished() throws IOException {
+        when(blogPostMapper.selectPublishedIds()).thenReturn(List.of(1L));
+        service.syncAll();
+        Path json = service.find(BlogSnapshotService.detail(1L, true)).json();
+
+        when(blogPostMapper.selectPublishedIds()).thenReturn(List.of());
+        service.syncAll();
+
+        assertThat(service.find(BlogSnapshotService.detail(1L, true))).isNull();
+        assertThat(json).doesNotExist();
+        assertThat(service.find(BlogSnapshotService.RECENT)).isNotNull();
+    }
+
+    @Test
+    void dropsDetailSnapshotsWhenAnotherNodeDeletesThePost() throws Exception {
+        when(blogPostMapper.selectPublishedIds()).thenReturn(List.of(1L));
+        service.syncAll();
+        Path json = service.find(BlogSnapshotService.detail(1L, false)).json();
+        when(blogService.getBlogById(1L)).thenReturn(null);
+        when(blogService.getBlogHtmlById(1L)).thenReturn(null);
+
+        service.onRemoteInvalidation(new BlogCacheInvalidatedEvent(List.of("post:1", "post:1:html", "recent")));
+
+        assertThat(service.find(BlogSnapshotService.detail(1L, false))).isNull();
+        assertThat(service.find(BlogSnapshotService.detail(1L, true))).isNull();
+        service.shutdown();
+        assertThat(json).doesNotExist();
+    }
+
+    private static BlogPostVO post(long id) {
+        BlogPostVO vo = new BlogPostVO();
+        vo.setId(id);
+        vo.setTitle("Post " + id);
+        return vo;
+    }
+}
@@ -0,0 +1,101 @@
+package com.xander.lab.service;
+
+import com.xander.lab.entity.BlogTag;
+import com.xander.lab.mapper.BlogTagMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogTagResolverTest {
+
+    @Mock
+    private BlogTagMapper blogTagMapper;
+
+    private BlogTagResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new BlogTagResolver(blogTagMapper);
+    }
+
+    @Test
+    void createsOnlyMissingTagsInOneStatementAndKeepsInputOrder() {
+        when(blogTagMapper.selectByNames(List.of("Spring", "redis", "Kafka")))
+                .thenReturn(List.of(tag(2L, "Redis"), tag(1L, "Spring")));
+        when(blogTagMapper.selectByNames(List.of("Kafka"))).thenReturn(List.of(tag(9L, "Kafka")));
+
+        assertThat(resolver.resolveIds(Arrays.asList("Spring", "redis", " ", null, "Kafka", "Spring")))
+                .containsExactly(1L, 2L, 9L);
+        verify(blogTagMapper).upsertNames(List.of("Kafka"));
+    }
+
+    @Test
+    void cachedNamesSkipTheDatabase() {
+        when(blogTagMapper.selectByNames(List.of("Java"))).thenReturn(List.of(tag(4L, "Java")));
+        resolver.resolveIds(List.of("Java"));
+
+        assertThat(resolver.resolveIds(List.of("Java"))).containsExactly(4L);
+        verify(blogTagMapper).selectByNames(List.of("Java"));
+        verify(blogTagMapper, never()).upsertNames(anyCollection());
+        verifyNoMoreInteractions(blogTagMapper);
+    }
+
+    @Test
+    void collationEquivalentNamesFallBackToSingleLookup() {
+        when(blogTagMapper.selectByNames(List.of("Café"))).thenReturn(List.of(tag(5L, "Cafe")));
+        when(blogTagMapper.selectOne(any())).thenReturn(tag(5L, "Cafe"));
+
+        assertThat(resolver.resolveIds(List.of("Café"))).containsExactly(5L);
+    }
+
+    @Test
+    void tagsCreatedInARolledBackTransactionAreNotCached() {
+        when(blogTagMapper.selectByNames(List.of("Kafka")))
+                .thenReturn(List.of()).thenReturn(List.of(tag(9L, "Kafka")))
+                .thenReturn(List.of()).thenReturn(List.of(tag(10L, "Kafka")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(resolver.resolveIds(List.of("Kafka"))).containsExactly(9L);
+        } finally {
+            // 回滚：不触发 afterCommit
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(resolver.resolveIds(List.of("Kafka"))).containsExactly(10L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(resolver.resolveIds(List.of("Kafka"))).containsExactly(10L);
+        verify(blogTagMapper, times(2)).upsertNames(List.of("Kafka"));
+        verify(blogTagMapper, times(4)).selectByNames(List.of("Kafka"));
+    }
+
+    private static BlogTag tag(long id, String name) {
+        BlogTag tag = new BlogTag();
+        tag.setId(id);
+        tag.setName(name);
+        return tag;
+    }
+}
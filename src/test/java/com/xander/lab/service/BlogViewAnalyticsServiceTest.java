@@ -0,0 +1,127 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import com.xander.lab.dto.ViewTrendPointVO;
+import com.xander.lab.mapper.BlogViewRollupMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogViewAnalyticsServiceTest {
+
+    @Mock
+    private BlogViewRollupMapper rollupMapper;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private BlogViewProperties properties;
+    private BlogViewAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BlogViewProperties();
+        properties.setRollupChunkSize(100);
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+        service = new BlogViewAnalyticsService(rollupMapper, properties, clock);
+    }
+
+    @Test
+    void rollUpAdvancesWatermarkByBoundedChunk() {
+        when(rollupMapper.lockWatermark("blog_post_view")).thenReturn(40L);
+        when(rollupMapper.selectMaxViewId()).thenReturn(1000L);
+
+        assertThat(service.rollUpChunk()).isZero();
+        now.addAndGet(properties.getRollupSettleMs());
+        assertThat(service.rollUpChunk()).isEqualTo(100);
+
+        InOrder order = inOrder(rollupMapper);
+        order.verify(rollupMapper).rollUpHourly(40L, 140L);
+        order.verify(rollupMapper).rollUpDaily(40L, 140L);
+        order.verify(rollupMapper).updateWatermark("blog_post_view", 140L);
+    }
+
+    @Test
+    void rollUpIsNoOpWhenCaughtUp() {
+        when(rollupMapper.lockWatermark("blog_post_view")).thenReturn(1000L);
+        when(rollupMapper.selectMaxViewId()).thenReturn(1000L);
+
+        assertThat(service.rollUpChunk()).isZero();
+        verify(rollupMapper, never()).rollUpHourly(anyLong(), anyLong());
+        verify(rollupMapper, never()).updateWatermark("blog_post_view", 1000L);
+    }
+
+    @Test
+    void rollUpWaitsForIdsThatMayStillCommitOutOfOrder() {
+        // t0：id 96..100 已提交，另一节点分配到的 id 95 尚未提交；之后 95 提交，新行写到 150
+        when(rollupMapper.lockWatermark("blog_post_view")).thenReturn(90L);
+        when(rollupMapper.selectMaxViewId()).thenReturn(100L, 150L);
+
+        assertThat(service.rollUpChunk()).isZero();
+        now.addAndGet(properties.getRollupSettleMs() / 2);
+        assertThat(service.rollUpChunk()).isZero();
+        verify(rollupMapper, never()).rollUpHourly(anyLong(), anyLong());
+
+        // 只推进到 settle 之前观察到的 100，95 已提交并被本块包含；150 要等下一次
+        now.addAndGet(properties.getRollupSettleMs() / 2);
+        assertThat(service.rollUpChunk()).isEqualTo(10);
+        verify(rollupMapper).rollUpHourly(90L, 100L);
+        verify(rollupMapper).updateWatermark("blog_post_view", 100L);
+    }
+
+    @Test
+    void dailyTrendFillsMissingDaysWithZero() {
+        LocalDate today = LocalDate.now();
+        when(rollupMapper.selectPostDaily(7L, today.minusDays(2))).thenReturn(List.of(
+                new ViewTrendPointVO(today.minusDays(2).atStartOfDay(), 5),
+                new ViewTrendPointVO(today.atStartOfDay(), 3)));
+
+        List<ViewTrendPointVO> trend = service.getTrend(7L, "day", 3);
+
+        assertThat(trend).extracting(ViewTrendPointVO::getBucket).containsExactly(
+                today.minusDays(2).atStartOfDay(), today.minusDays(1).atStartOfDay(), today.atStartOfDay());
+        assertThat(trend).extracting(ViewTrendPointVO::getViews).containsExactly(5L, 0L, 3L);
+    }
+
+    @Test
+    void hourlyTrendIsClampedToRetentionAndRejectsUnknownGranularity() {
+        properties.setHourlyRetentionDays(1);
+
+        assertThat(service.getTrend(null, "hour", 30)).hasSize(24);
+        assertThatThrownBy(() -> service.getTrend(null, "week", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
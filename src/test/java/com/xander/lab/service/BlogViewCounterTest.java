@@ -0,0 +1,107 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import com.xander.lab.mapper.BlogPostViewMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BlogViewCounterTest {
+
+    @Mock
+    private BlogPostViewMapper blogPostViewMapper;
+
+    private BlogViewProperties properties;
+    private BlogViewCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BlogViewProperties();
+        counter = new BlogViewCounter(blogPostViewMapper, properties);
+    }
+
+    @Test
+    void flushWritesAggregatedDeltasInBatches() {
+        properties.setFlushBatchSize(2);
+        List<Map<Long, Long>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            batches.add(Map.copyOf(invocation.getArgument(0)));
+            return 0;
+        }).when(blogPostViewMapper).addViewCounts(anyMap());
+
+        IntStream.range(0, 1000).parallel().forEach(i -> counter.increment(1L));
+        counter.increment(2L);
+        counter.increment(3L);
+        counter.increment(3L);
+
+        assertThat(counter.flush()).isEqualTo(3);
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).containsEntry(1L, 1000L).containsEntry(2L, 1L);
+        assertThat(batches.get(1)).containsExactlyEntriesOf(Map.of(3L, 2L));
+
+        // 已写回的增量清零，空闲的文章移出缓冲
+        assertThat(counter.flush()).isZero();
+        verify(blogPostViewMapper, times(2)).addViewCounts(anyMap());
+    }
+
+    @Test
+    void failedFlushKeepsDeltasForNextAttempt() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("db down");
+        }).doAnswer(invocation -> 1).when(blogPostViewMapper).addViewCounts(captor.capture());
+
+        counter.increment(7L);
+        counter.increment(7L);
+        assertThat(counter.flush()).isZero();
+
+        counter.increment(7L);
+        assertThat(counter.flush()).isEqualTo(1);
+        assertThat(captor.getAllValues().get(1)).containsExactlyEntriesOf(Map.of(7L, 3L));
+    }
+
+    @Test
+    void incrementsRacingWithFlushesAreNeverLost() throws Exception {
+        AtomicLong written = new AtomicLong();
+        doAnswer(invocation -> {
+            Map<Long, Long> batch = invocation.getArgument(0);
+            batch.values().forEach(written::addAndGet);
+            return batch.size();
+        }).when(blogPostViewMapper).addViewCounts(anyMap());
+
+        CompletableFuture<Void> views = CompletableFuture.runAsync(() ->
+                IntStream.range(0, 200_000).parallel().forEach(i -> counter.increment((long) (i % 3))));
+        while (!views.isDone()) {
+            counter.flush();
+        }
+        views.get();
+        counter.flush();
+
+        assertThat(written).hasValue(200_000);
+    }
+
+    @Test
+    void flushWithoutViewsSkipsDatabase() {
+        counter.flush();
+        verify(blogPostViewMapper, never()).addViewCounts(anyMap());
+    }
+}
@@ -0,0 +1,94 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Properties;
+
+/**
+ * 两种阅读去重模式的 Redis 内存对比（需要真实 Redis，默认不运行）
+ *
+ * <pre>
+ * mvn test -Dtest=BlogViewDedupBenchmark -Dblog.benchmark.redis=localhost:6379 [-Dblog.benchmark.redis.database=15]
+ * </pre>
+ *
+ * 会清空指定的数据库（默认 15），不要指向存有数据的库。
+ * 每种模式写入 posts × visitors 次首次阅读，输出 used_memory 增量、每次阅读的平均字节数和实际计数（counted）。
+ * 20000 一行是 bloom-expected-visitors 的 10 倍，用来确认过滤器扩展分片后 counted 仍接近 views。
+ */
+@EnabledIfSystemProperty(named = "blog.benchmark.redis", matches = ".+:\\d+")
+class BlogViewDedupBenchmark {
+
+    private static final int POSTS = 50;
+    private static final int[] VISITORS_PER_POST = {50, 500, 2000, 20000};
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        String[] address = System.getProperty("blog.benchmark.redis").split(":");
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(address[0], Integer.parseInt(address[1]));
+        config.setDatabase(Integer.getInteger("blog.benchmark.redis.database", 15));
+        connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void close() {
+        flush();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void compareMemory() {
+        System.out.printf("%-6s %10s %14s %14s%n", "mode", "visitors", "used_memory", "bytes/view");
+        for (int visitors : VISITORS_PER_POST) {
+            for (BlogViewProperties.DedupMode mode : BlogViewProperties.DedupMode.values()) {
+                BlogViewProperties properties = new BlogViewProperties();
+                properties.setDedupMode(mode);
+                BlogViewDeduplicator deduplicator = new BlogViewDeduplicator(redisTemplate, properties);
+
+                flush();
+                long before = usedMemory();
+                int counted = 0;
+                for (long post = 1; post <= POSTS; post++) {
+                    for (int v = 0; v < visitors; v++) {
+                        if (deduplicator.firstView(post, "ip:10." + (v >> 16) + "." + ((v >> 8) & 255) + "." + (v & 255))) {
+                            counted++;
+                        }
+                    }
+                }
+                long used = usedMemory() - before;
+                long views = (long) POSTS * visitors;
+                System.out.printf("%-6s %10d %14d %14.1f   (counted %d of %d)%n",
+                        mode, visitors, used, (double) used / views, counted, views);
+            }
+        }
+    }
+
+    private static void flush() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    private static long usedMemory() {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection -> serverInfo(connection));
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+
+    private static Properties serverInfo(RedisConnection connection) {
+        return connection.serverCommands().info("memory");
+    }
+}
@@ -0,0 +1,179 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogViewDeduplicatorTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOps;
+
+    @Mock
+    private HyperLogLogOperations<String, String> hllOps;
+
+    private BlogViewProperties properties;
+    private BlogViewDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BlogViewProperties();
+        deduplicator = new BlogViewDeduplicator(redisTemplate, properties);
+    }
+
+    @Test
+    void keyModeKeepsPerVisitorKeyAndRecordsVisitorOnce() {
+        properties.setDedupMode(BlogViewProperties.DedupMode.KEY);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hllOps);
+        when(valueOps.setIfAbsent(eq("blog:view:5:ip:1.2.3.4"), eq("1"), eq(24L), eq(TimeUnit.HOURS)))
+                .thenReturn(true, false);
+
+        assertThat(deduplicator.firstView(5L, "ip:1.2.3.4")).isTrue();
+        assertThat(deduplicator.firstView(5L, "ip:1.2.3.4")).isFalse();
+
+        verify(hllOps, times(1)).add(startsWith("blog:view:uv:5:"), eq("ip:1.2.3.4"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bloomModeRunsOneScriptOverAllSlices() {
+        properties.setBloomMaxSlices(3);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L, 0L);
+
+        assertThat(deduplicator.firstView(5L, "user:9")).isTrue();
+        assertThat(deduplicator.firstView(5L, "user:9")).isFalse();
+
+        verify(redisTemplate, never()).opsForValue();
+        String filter = "blog:view:bf:5:" + today() + ":";
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class),
+                eq(List.of("blog:view:uv:5:" + today(), filter + "n", filter + "0", filter + "1", filter + "2")),
+                any(Object[].class));
+    }
+
+    @Test
+    void defaultFirstSliceHoldsHalfTheFalsePositiveBudget() {
+        BlogViewDeduplicator.Slice first = deduplicator.bloomSlices().get(0);
+        assertThat(first.bits()).isBetween(22_000L, 22_100L);
+        assertThat(first.hashes()).isEqualTo(8);
+        assertThat(first.capacity()).isEqualTo(2000);
+
+        SlicedFilter filter = new SlicedFilter(deduplicator.bloomSlices());
+        for (int i = 0; i < properties.getBloomExpectedVisitors(); i++) {
+            filter.firstView("ip:10." + i);
+        }
+        assertThat(filter.falsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    void slicesKeepCountingFarAboveTheExpectedVisitors() {
+        int visitors = 20_000;
+        SlicedFilter filter = new SlicedFilter(deduplicator.bloomSlices());
+        int counted = 0;
+        for (int i = 0; i < visitors; i++) {
+            if (filter.firstView("ip:10." + i)) counted++;
+        }
+
+        // 单个定长过滤器在 10 倍容量时会漏计大部分首次阅读
+        assertThat(counted).isGreaterThan((int) (visitors * 0.99));
+        assertThat(filter.falsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    void uniqueVisitorsMergesDailyLogsWithinRetention() {
+        properties.setUniqueVisitorRetentionDays(3);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hllOps);
+        when(hllOps.size("blog:view:uv:5:" + day(0), "blog:view:uv:5:" + day(1), "blog:view:uv:5:" + day(2)))
+                .thenReturn(42L);
+
+        assertThat(deduplicator.uniqueVisitors(5L, 30)).isEqualTo(42L);
+    }
+
+    /** 按 BLOOM_SCRIPT 的分片逻辑在内存中模拟一个过滤器 */
+    private static final class SlicedFilter {
+
+        private final List<BlogViewDeduplicator.Slice> slices;
+        private final List<BitSet> bitmaps = new ArrayList<>();
+        private long added;
+
+        SlicedFilter(List<BlogViewDeduplicator.Slice> slices) {
+            this.slices = slices;
+            slices.forEach(slice -> bitmaps.add(new BitSet((int) slice.bits())));
+        }
+
+        boolean firstView(String identifier) {
+            int active = activeSlice();
+            if (contains(identifier, active)) return false;
+            BlogViewDeduplicator.Slice slice = slices.get(active);
+            for (long offset : BlogViewDeduplicator.bitOffsets(identifier, slice.bits(), slice.hashes())) {
+                bitmaps.get(active).set((int) offset);
+            }
+            added++;
+            return true;
+        }
+
+        double falsePositiveRate() {
+            int probes = 20_000;
+            int falsePositives = 0;
+            for (int i = 0; i < probes; i++) {
+                if (contains("user:" + i, activeSlice())) falsePositives++;
+            }
+            return (double) falsePositives / probes;
+        }
+
+        private int activeSlice() {
+            for (int i = 0; i < slices.size(); i++) {
+                if (added < slices.get(i).capacity()) return i;
+            }
+            return slices.size() - 1;
+        }
+
+        private boolean contains(String identifier, int active) {
+            for (int i = 0; i <= active; i++) {
+                BlogViewDeduplicator.Slice slice = slices.get(i);
+                boolean all = true;
+                for (long offset : BlogViewDeduplicator.bitOffsets(identifier, slice.bits(), slice.hashes())) {
+                    all &= bitmaps.get(i).get((int) offset);
+                }
+                if (all) return true;
+            }
+            return false;
+        }
+    }
+
+    private static String today() {
+        return day(0);
+    }
+
+    private static String day(int daysAgo) {
+        return LocalDate.now().minusDays(daysAgo).format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
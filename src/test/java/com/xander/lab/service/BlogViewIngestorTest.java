@@ -0,0 +1,77 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.BlogViewProperties;
+import com.xander.lab.entity.BlogPostView;
+import com.xander.lab.mapper.BlogPostViewMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class BlogViewIngestorTest {
+
+    @Mock
+    private BlogPostViewMapper blogPostViewMapper;
+
+    private SimpleMeterRegistry registry;
+    private BlogViewIngestor ingestor;
+
+    @BeforeEach
+    void setUp() {
+        BlogViewProperties properties = new BlogViewProperties();
+        properties.setQueueCapacity(5);
+        properties.setInsertBatchSize(2);
+        registry = new SimpleMeterRegistry();
+        ingestor = new BlogViewIngestor(blogPostViewMapper, properties, registry);
+    }
+
+    @Test
+    void fullQueueDropsAndBatchesAreInsertedInOrder() {
+        List<List<Long>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<BlogPostView> views = invocation.getArgument(0);
+            batches.add(views.stream().map(BlogPostView::getPostId).toList());
+            return views.size();
+        }).when(blogPostViewMapper).insertBatch(anyList());
+
+        for (long i = 1; i <= 7; i++) {
+            ingestor.submit(view(i));
+        }
+        assertThat(registry.get("blog.view.events.dropped").counter().count()).isEqualTo(2);
+        assertThat(registry.get("blog.view.queue.depth").gauge().value()).isEqualTo(5);
+
+        while (ingestor.writeBatch() > 0) {
+        }
+        assertThat(batches).containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        assertThat(registry.get("blog.view.queue.depth").gauge().value()).isZero();
+        assertThat(registry.get("blog.view.insert.batch.size").summary().count()).isEqualTo(3);
+        assertThat(registry.get("blog.view.insert.latency").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void failedBatchIsCountedAndDiscarded() {
+        doThrow(new IllegalStateException("db down")).when(blogPostViewMapper).insertBatch(anyList());
+
+        ingestor.submit(view(1L));
+        assertThat(ingestor.writeBatch()).isEqualTo(1);
+        assertThat(ingestor.writeBatch()).isZero();
+        assertThat(registry.get("blog.view.events.failed").counter().count()).isEqualTo(1);
+    }
+
+    private static BlogPostView view(long postId) {
+        BlogPostView view = new BlogPostView();
+        view.setPostId(postId);
+        return view;
+    }
+}
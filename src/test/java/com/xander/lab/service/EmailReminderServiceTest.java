@@ -10,14 +10,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Clock;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +32,10 @@ class EmailReminderServiceTest {
 
     @Mock
     private EmailReminderTaskMapper taskMapper;
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     private EmailReminderService service;
 
@@ -35,7 +43,9 @@ class EmailReminderServiceTest {
     void setUp() {
         service = new EmailReminderService(
                 taskMapper,
-                Clock.fixed(NOW, ZoneOffset.UTC)
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                idempotencyGuard,
+                transactionTemplate
         );
         ReflectionTestUtils.setField(service, "senderEmail", "noreply@example.com");
         ReflectionTestUtils.setField(service, "minimumLeadSeconds", 30L);
@@ -45,6 +55,10 @@ class EmailReminderServiceTest {
         when(taskMapper.lockUserForReminderCreation(7L)).thenReturn(7L);
         when(taskMapper.selectCount(any())).thenReturn(0L);
         when(taskMapper.insert(any(EmailReminderTask.class))).thenReturn(1);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(idempotencyGuard.execute(eq("email-reminder:create:7:request-1"), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
     }
 
     @Test
@@ -0,0 +1,217 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.ExportProperties;
+import com.xander.lab.dto.BlogPostVO;
+import com.xander.lab.entity.User;
+import com.xander.lab.mapper.BlogPostMapper;
+import com.xander.lab.mapper.UserMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    /** 百万行远超测试堆（surefire 固定 -Xmx256m）能物化的量 */
+    private static final long MILLION = 1_000_000;
+
+    @Mock
+    private BlogPostMapper blogPostMapper;
+    @Mock
+    private UserMapper userMapper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ExportProperties properties = new ExportProperties();
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxConcurrent(2);
+        properties.setTimeout(Duration.ofMinutes(5));
+        exportService = new ExportService(blogPostMapper, userMapper, transactionManager, properties);
+        exportService.initialize();
+    }
+
+    @Test
+    void streamsInAReadOnlyTransactionBoundedByTheTimeout() {
+        when(blogPostMapper.streamPublishedForExport(300_000)).thenReturn(new GeneratedCursor<>(1, i -> post(1, "标题")));
+
+        exportService.export("blog", ExportService.Format.CSV, new ByteArrayOutputStream());
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        assertThat(definition.getValue().getTimeout()).isEqualTo(300);
+    }
+
+    @Test
+    void userExportChecksTheCurrentRoleInTheDatabase() {
+        User admin = new User();
+        admin.setRole("ADMIN");
+        when(userMapper.selectById(1L)).thenReturn(admin);
+
+        assertThat(exportService.canExport("user", 1L)).isTrue();
+        assertThat(exportService.canExport("user", 2L)).isFalse();
+        assertThat(exportService.canExport("blog", null)).isTrue();
+    }
+
+    @Test
+    void limitsConcurrentExportsUntilReleased() {
+        assertThat(exportService.tryAcquire()).isTrue();
+        assertThat(exportService.tryAcquire()).isTrue();
+        assertThat(exportService.tryAcquire()).isFalse();
+
+        exportService.release();
+
+        assertThat(exportService.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void csvQuotesSpecialCellsAndNeutralisesFormulas() {
+        when(blogPostMapper.streamPublishedForExport(anyLong())).thenReturn(new GeneratedCursor<>(2, i -> i == 0
+                ? post(1, "Hello, \"world\"")
+                : post(2, "=HYPERLINK(\"x\")")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.export("blog", ExportService.Format.CSV, out)).isEqualTo(2);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("\uFEFFID,标题,分类,作者,发布日期,浏览量\r\n"
+                + "1,\"Hello, \"\"world\"\"\",后端,Xander,2024-01-15,7\r\n"
+                + "2,\"'=HYPERLINK(\"\"x\"\")\",后端,Xander,2024-01-15,7\r\n");
+    }
+
+    @Test
+    void xlsxIsARealWorkbook() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setRole("ADMIN");
+        when(userMapper.streamForExport(anyLong())).thenReturn(new GeneratedCursor<>(1, i -> user));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export("user", ExportService.Format.XLSX, out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getRow(0).getCell(1).getStringCellValue()).isEqualTo("用户名");
+            assertThat(sheet.getRow(1).getCell(0).getNumericCellValue()).isEqualTo(1);
+            assertThat(sheet.getRow(1).getCell(1).getStringCellValue()).isEqualTo("admin");
+        }
+    }
+
+    @Test
+    void exportsAMillionRowsWithinAFixedHeap() {
+        assumeThat(Runtime.getRuntime().maxMemory()).isLessThanOrEqualTo(512L * 1024 * 1024);
+        when(blogPostMapper.streamPublishedForExport(anyLong()))
+                .thenReturn(new GeneratedCursor<>(MILLION, i -> post(i, "文章标题 " + i)));
+        CountingOutputStream csv = new CountingOutputStream();
+        assertThat(exportService.export("blog", ExportService.Format.CSV, csv)).isEqualTo(MILLION);
+
+        when(blogPostMapper.streamPublishedForExport(anyLong()))
+                .thenReturn(new GeneratedCursor<>(MILLION, i -> post(i, "文章标题 " + i)));
+        CountingOutputStream xlsx = new CountingOutputStream();
+        assertThat(exportService.export("blog", ExportService.Format.XLSX, xlsx)).isEqualTo(MILLION);
+
+        assertThat(csv.count).isGreaterThan(MILLION * 30);
+        assertThat(xlsx.count).isGreaterThan(MILLION);
+    }
+
+    private static BlogPostVO post(long id, String title) {
+        BlogPostVO post = new BlogPostVO();
+        post.setId(id);
+        post.setTitle(title);
+        post.setCategoryName("后端");
+        post.setAuthor("Xander");
+        post.setDate(LocalDate.of(2024, 1, 15));
+        post.setViews(7);
+        return post;
+    }
+
+    /** 逐个生成元素的游标，不持有已返回的元素 */
+    private static final class GeneratedCursor<T> implements Cursor<T> {
+
+        private final long size;
+        private final LongFunction<T> generator;
+        private long index = -1;
+        private boolean closed;
+
+        GeneratedCursor(long size, LongFunction<T> generator) {
+            this.size = size;
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return index + 1 >= size;
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return (int) index;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !closed && index + 1 < size;
+                }
+
+                @Override
+                public T next() {
+                    return generator.apply(++index);
+                }
+            };
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
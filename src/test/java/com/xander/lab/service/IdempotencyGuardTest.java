@@ -0,0 +1,102 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.IdempotencyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyGuardTest {
+
+    private static final String KEY = "idempotency:blog:publish:7:r1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOps;
+
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        guard = new IdempotencyGuard(redisTemplate, new IdempotencyProperties());
+    }
+
+    @Test
+    void concurrentDuplicatesOnOneNodeShareTheFirstResult() throws Exception {
+        when(valueOps.setIfAbsent(eq(KEY), startsWith("P:"), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> guard.execute("blog:publish:7:r1", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "post-42";
+        }, result -> 42L, id -> "reloaded-" + id));
+        started.await();
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() -> guard.execute("blog:publish:7:r1", () -> {
+            runs.incrementAndGet();
+            return "post-43";
+        }, result -> 43L, id -> "reloaded-" + id));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("post-42");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("post-42");
+        assertThat(runs).hasValue(1);
+        verify(valueOps).set(eq(KEY), eq("D:42"), anyLong(), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void completedRequestIsReloadedWithoutRunningAgain() {
+        when(valueOps.get(KEY)).thenReturn("D:42");
+
+        assertThat(guard.execute("blog:publish:7:r1", () -> "new", r -> 1L, id -> "reloaded-" + id))
+                .isEqualTo("reloaded-42");
+        verify(valueOps, never()).setIfAbsent(anyString(), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void failureReleasesTheMarkerSoARetryCanRun() {
+        when(valueOps.setIfAbsent(eq(KEY), startsWith("P:"), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(true);
+
+        assertThatThrownBy(() -> guard.execute("blog:publish:7:r1", () -> {
+            throw new IllegalArgumentException("分类不存在");
+        }, r -> 1L, id -> "x")).hasMessage("分类不存在");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), startsWith("P:"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
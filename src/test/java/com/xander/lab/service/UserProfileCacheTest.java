@@ -0,0 +1,81 @@
+package com.xander.lab.service;
+
+import com.xander.lab.config.UserProfileCacheProperties;
+import com.xander.lab.entity.User;
+import com.xander.lab.mapper.UserMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private UserMapper userMapper;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private UserProfileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserProfileCache(userMapper, new UserProfileCacheProperties(), redisTemplate, listenerContainer,
+                registry);
+        cache.initialize();
+    }
+
+    @Test
+    void repeatedLookupsHitTheCacheAndAreCounted() {
+        when(userMapper.selectById(7L)).thenReturn(user(7L, "Xander"));
+
+        assertThat(cache.get(7L).displayName()).isEqualTo("Xander");
+        assertThat(cache.get(7L).displayName()).isEqualTo("Xander");
+
+        verify(userMapper, times(1)).selectById(7L);
+        assertThat(registry.get("cache.gets").tag("cache", "user.profile").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "user.profile").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionIsBroadcastAndRemoteMessagesClearTheLocalEntry() {
+        when(userMapper.selectById(7L)).thenReturn(user(7L, "Xander"), user(7L, "Renamed"));
+        cache.get(7L);
+
+        cache.evict(7L);
+        verify(redisTemplate).convertAndSend(eq("user:profile:invalidate"), anyString());
+        assertThat(cache.get(7L).displayName()).isEqualTo("Renamed");
+
+        when(userMapper.selectById(7L)).thenReturn(user(7L, "Remote"));
+        cache.onMessage(new DefaultMessage("user:profile:invalidate".getBytes(StandardCharsets.UTF_8),
+                "other-node|7".getBytes(StandardCharsets.UTF_8)), null);
+        assertThat(cache.get(7L).displayName()).isEqualTo("Remote");
+    }
+
+    private static User user(Long id, String nickname) {
+        User user = new User();
+        user.setId(id);
+        user.setNickname(nickname);
+        user.setStatus(1);
+        return user;
+    }
+}